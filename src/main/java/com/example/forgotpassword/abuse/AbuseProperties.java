@@ -0,0 +1,63 @@
+package com.example.forgotpassword.abuse;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for {@link ResetTrafficMonitor}. Thresholds are requests per sliding window;
+ * {@code 0} disables that action for the dimension.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.abuse")
+public class AbuseProperties {
+
+    private boolean enabled = true;
+
+    /** Length of the sliding window the counts cover. */
+    private Duration window = Duration.ofMinutes(1);
+
+    /** Rows per sketch; each row adds an independent hash. */
+    private int sketchDepth = 4;
+
+    /** Counters per row. Memory is depth x width x 4 bytes, twice per dimension. */
+    private int sketchWidth = 32_768;
+
+    /** Heavy hitters remembered per dimension. */
+    private int topK = 32;
+
+    /** {@code Retry-After} sent with a throttled request; blocked ones are told to wait out the window. */
+    private Duration retryAfter = Duration.ofSeconds(2);
+
+    /**
+     * Client addresses that are never counted. None by default: behind a reverse proxy on the
+     * same host every request comes from loopback. The warm-up identifies itself instead.
+     */
+    private List<String> exemptAddresses = new ArrayList<>();
+
+    private Limits email = new Limits(5, 20);
+
+    private Limits ip = new Limits(30, 120);
+
+    /** Off by default: a legitimate reset storm concentrates on the large mail providers too. */
+    private Limits domain = new Limits(0, 0);
+
+    @Data
+    public static class Limits {
+
+        private long throttleAt;
+
+        private long blockAt;
+
+        public Limits() {
+        }
+
+        public Limits(long throttleAt, long blockAt) {
+            this.throttleAt = throttleAt;
+            this.blockAt = blockAt;
+        }
+    }
+}
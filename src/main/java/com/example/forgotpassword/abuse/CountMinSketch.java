@@ -0,0 +1,114 @@
+package com.example.forgotpassword.abuse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Fixed-size count-min sketch with conservative update.
+ * <p>
+ * Estimates never undercount; they overcount by at most {@code e / width} of the total added,
+ * with probability {@code 1 - e^-depth}. Conservative update (only raising the counters that
+ * hold the current minimum) tightens that considerably for skewed traffic.
+ * <p>
+ * Updates are lock-free. An add reads the key's rows from the last to the first, then raises
+ * them from the first to the last with CAS: the rows before the last one at the minimum to at
+ * least {@code min + 1}, and that last one from exactly {@code min}, which commits the add. If
+ * the commit fails, the add starts over from a fresh read. A concurrent add of the same key
+ * that reads a half-raised key always sees the committing row still at the minimum, so both
+ * contend for the same commit and no count is lost.
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final long seed;
+    private final AtomicIntegerArray counters;
+
+    /**
+     * @param width counters per row, rounded up to a power of two
+     * @param seed  hash seed; pick it at random so that colliding keys cannot be precomputed
+     */
+    public CountMinSketch(int depth, int width, long seed) {
+        int roundedWidth = Integer.highestOneBit(Math.max(2, width - 1)) << 1;
+        this.depth = depth;
+        this.mask = roundedWidth - 1;
+        this.seed = seed;
+        this.counters = new AtomicIntegerArray(depth * roundedWidth);
+    }
+
+    /**
+     * Counts one occurrence of {@code key}.
+     *
+     * @return the estimate for {@code key} after the update
+     */
+    public int add(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+
+        for (;;) {
+            int min = Integer.MAX_VALUE;
+            int commitRow = 0;
+            for (int row = depth - 1; row >= 0; row--) {
+                int value = counters.get(index(row, h1, h2));
+                if (value < min) {
+                    min = value;
+                    commitRow = row;
+                }
+            }
+            // rows after commitRow were above the minimum when read, so they already cover the add
+            int target = min + 1;
+            for (int row = 0; row < commitRow; row++) {
+                raise(index(row, h1, h2), target);
+            }
+            if (counters.compareAndSet(index(commitRow, h1, h2), min, target)) {
+                return target;
+            }
+        }
+    }
+
+    public int estimate(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(row, h1, h2)));
+        }
+        return estimate;
+    }
+
+    public long memoryBytes() {
+        return (long) counters.length() * Integer.BYTES;
+    }
+
+    /** Raises the counter to {@code max(counter, target)}. */
+    private void raise(int index, int target) {
+        int current = counters.get(index);
+        while (current < target && !counters.compareAndSet(index, current, target)) {
+            current = counters.get(index);
+        }
+    }
+
+    private int index(int row, int h1, int h2) {
+        // Kirsch-Mitzenmacher: row hashes derived from two base hashes
+        return row * (mask + 1) + ((h1 + row * h2) & mask);
+    }
+
+    private long hash(String key) {
+        // FNV-1a over the UTF-8 bytes, finished with a seeded 64-bit mix
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= seed;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
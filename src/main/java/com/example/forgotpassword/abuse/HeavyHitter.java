@@ -0,0 +1,7 @@
+package com.example.forgotpassword.abuse;
+
+/**
+ * A key and its estimated number of requests over the last sliding window.
+ */
+public record HeavyHitter(String key, long estimate) {
+}
@@ -0,0 +1,166 @@
+package com.example.forgotpassword.abuse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Request counts per key over a sliding window, in fixed memory, plus the current top keys.
+ * <p>
+ * Two count-min sketches cover the current and the previous window; an estimate adds the
+ * current count to the previous one scaled by how much of the previous window still overlaps
+ * the sliding window, so counts decay smoothly instead of dropping to zero at the boundary.
+ * <p>
+ * Recording is lock-free. The top-K table is only written when a key's estimate beats the
+ * smallest entry in it, and only inserting a new key into a full table takes a lock.
+ */
+public class HeavyHitterTracker {
+
+    private final int depth;
+    private final int width;
+    private final long windowNanos;
+    private final int topK;
+    private final LongSupplier clock;
+
+    private final AtomicReference<Windows> windows;
+    private final Map<String, Long> top = new ConcurrentHashMap<>();
+    private volatile long topFloor;
+
+    public HeavyHitterTracker(int depth, int width, Duration window, int topK) {
+        this(depth, width, window, topK, System::nanoTime);
+    }
+
+    HeavyHitterTracker(int depth, int width, Duration window, int topK, LongSupplier clock) {
+        this.depth = depth;
+        this.width = width;
+        this.windowNanos = window.toNanos();
+        this.topK = topK;
+        this.clock = clock;
+        this.windows = new AtomicReference<>(new Windows(newSketch(), newSketch(), clock.getAsLong()));
+    }
+
+    /**
+     * Counts one request for {@code key}.
+     *
+     * @return the key's estimated count over the sliding window, including this request
+     */
+    public long record(String key) {
+        Windows w = currentWindows();
+        long now = clock.getAsLong();
+        int current = w.current().add(key);
+        long estimate = current + decayedPrevious(w, key, now);
+
+        if (estimate > topFloor || top.containsKey(key)) {
+            offer(key, estimate);
+        }
+        return estimate;
+    }
+
+    public long estimate(String key) {
+        Windows w = currentWindows();
+        return w.current().estimate(key) + decayedPrevious(w, key, clock.getAsLong());
+    }
+
+    /**
+     * @return up to {@code limit} keys with the highest current estimates, highest first
+     */
+    public List<HeavyHitter> top(int limit) {
+        List<HeavyHitter> hitters = new ArrayList<>(top.size());
+        for (String key : top.keySet()) {
+            long estimate = estimate(key);
+            if (estimate > 0) {
+                hitters.add(new HeavyHitter(key, estimate));
+            }
+        }
+        hitters.sort(Comparator.comparingLong(HeavyHitter::estimate).reversed());
+        return hitters.size() > limit ? hitters.subList(0, limit) : hitters;
+    }
+
+    public long memoryBytes() {
+        Windows w = windows.get();
+        return w.current().memoryBytes() + w.previous().memoryBytes();
+    }
+
+    private long decayedPrevious(Windows w, String key, long now) {
+        double overlap = 1.0 - (double) (now - w.startedAt()) / windowNanos;
+        if (overlap <= 0) {
+            return 0;
+        }
+        return (long) (w.previous().estimate(key) * overlap);
+    }
+
+    private Windows currentWindows() {
+        Windows w = windows.get();
+        long now = clock.getAsLong();
+        long elapsed = now - w.startedAt();
+        if (elapsed < windowNanos) {
+            return w;
+        }
+        // a quiet spell longer than two windows leaves nothing worth keeping
+        CountMinSketch previous = elapsed < 2 * windowNanos ? w.current() : newSketch();
+        // keep boundaries on the original grid so the decay of the previous window stays exact
+        Windows rotated = new Windows(newSketch(), previous, now - elapsed % windowNanos);
+        if (windows.compareAndSet(w, rotated)) {
+            rebaseTop();
+            return rotated;
+        }
+        return windows.get();
+    }
+
+    private void offer(String key, long estimate) {
+        if (top.computeIfPresent(key, (k, old) -> estimate) != null) {
+            return;
+        }
+        synchronized (top) {
+            if (top.size() < topK) {
+                top.put(key, estimate);
+            } else {
+                Map.Entry<String, Long> smallest = smallest();
+                if (smallest != null && estimate > smallest.getValue()) {
+                    top.remove(smallest.getKey());
+                    top.put(key, estimate);
+                }
+            }
+            updateFloor();
+        }
+    }
+
+    /**
+     * After a rotation the stored estimates are stale; recompute them so the floor decays too.
+     */
+    private void rebaseTop() {
+        synchronized (top) {
+            top.replaceAll((key, old) -> estimate(key));
+            top.values().removeIf(estimate -> estimate == 0);
+            updateFloor();
+        }
+    }
+
+    private void updateFloor() {
+        Map.Entry<String, Long> smallest = top.size() < topK ? null : smallest();
+        topFloor = smallest == null ? 0 : smallest.getValue();
+    }
+
+    private Map.Entry<String, Long> smallest() {
+        Map.Entry<String, Long> smallest = null;
+        for (Map.Entry<String, Long> entry : top.entrySet()) {
+            if (smallest == null || entry.getValue() < smallest.getValue()) {
+                smallest = Map.entry(entry.getKey(), entry.getValue());
+            }
+        }
+        return smallest;
+    }
+
+    private CountMinSketch newSketch() {
+        return new CountMinSketch(depth, width, ThreadLocalRandom.current().nextLong());
+    }
+
+    private record Windows(CountMinSketch current, CountMinSketch previous, long startedAt) {
+    }
+}
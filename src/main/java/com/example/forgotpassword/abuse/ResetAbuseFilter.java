@@ -0,0 +1,166 @@
+package com.example.forgotpassword.abuse;
+
+import com.example.forgotpassword.config.RefusedRequests;
+import com.example.forgotpassword.warmup.WarmupRequests;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Feeds forgot-password and reset requests to {@link ResetTrafficMonitor} and applies its
+ * verdict. Throttled and blocked requests both get {@code 429 Too Many Requests} at once, with
+ * a {@code Retry-After} of {@code app.abuse.retry-after} and of the whole window respectively;
+ * nothing holds a request thread. See {@link RefusedRequests} for how the answer is written.
+ * <p>
+ * The start-up warm-up's own requests are passed through uncounted.
+ * <p>
+ * The client address is {@link HttpServletRequest#getRemoteAddr()}; behind a proxy, set
+ * {@code server.forward-headers-strategy} so it reflects the real client.
+ * <p>
+ * The email comes from the {@code email} form field or, for the JSON API, the {@code email}
+ * property of the body. JSON bodies are small, so they are read here in full (up to
+ * {@value #MAX_JSON_BODY} bytes, larger ones are refused) and replayed to the controller.
+ */
+@RequiredArgsConstructor
+public class ResetAbuseFilter extends OncePerRequestFilter {
+
+    static final int MAX_JSON_BODY = 4_096;
+
+    private final ResetTrafficMonitor monitor;
+    private final AbuseProperties properties;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (WarmupRequests.isWarmup(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        // only the forgot-password requests name an account; reset requests carry a token instead
+        String email = null;
+        if ("POST".equals(request.getMethod())) {
+            if (isJson(request)) {
+                byte[] body = request.getInputStream().readNBytes(MAX_JSON_BODY + 1);
+                if (body.length > MAX_JSON_BODY) {
+                    RefusedRequests.refuse(request, response, HttpStatus.PAYLOAD_TOO_LARGE, null,
+                            "payload_too_large", "Request body too large");
+                    return;
+                }
+                email = jsonEmail(body);
+                request = new ReplayedBodyRequest(request, body);
+            } else {
+                email = request.getParameter("email");
+            }
+        }
+
+        switch (monitor.record(request.getRemoteAddr(), email)) {
+            case BLOCK -> tooManyRequests(request, response, properties.getWindow());
+            case THROTTLE -> tooManyRequests(request, response, properties.getRetryAfter());
+            case ALLOW -> chain.doFilter(request, response);
+        }
+    }
+
+    private static void tooManyRequests(HttpServletRequest request, HttpServletResponse response, Duration retryAfter)
+            throws IOException {
+        RefusedRequests.refuse(request, response, HttpStatus.TOO_MANY_REQUESTS, retryAfter,
+                "too_many_requests", "Too many password reset requests");
+    }
+
+    private static boolean isJson(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            return MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private String jsonEmail(byte[] body) {
+        try {
+            JsonNode email = objectMapper.readTree(body).path("email");
+            return email.isTextual() ? email.asText() : null;
+        } catch (IOException e) {
+            return null; // malformed; the controller rejects it
+        }
+    }
+
+    private static final class ReplayedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        ReplayedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+                    encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.forgotpassword.abuse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tracks forgot-password and reset traffic by email, client IP and email domain, and decides
+ * whether a request should go through, be throttled or be blocked.
+ * <p>
+ * Credential-stuffing spreads requests over many addresses but concentrates them on a few
+ * accounts or domains, so each dimension is counted separately. Memory is fixed by the sketch
+ * size regardless of how many distinct keys are seen.
+ */
+@Slf4j
+@Component
+public class ResetTrafficMonitor {
+
+    public enum Verdict { ALLOW, THROTTLE, BLOCK }
+
+    private final AbuseProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final HeavyHitterTracker emails;
+    private final HeavyHitterTracker ips;
+    private final HeavyHitterTracker domains;
+
+    public ResetTrafficMonitor(AbuseProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.emails = tracker(properties);
+        this.ips = tracker(properties);
+        this.domains = tracker(properties);
+        log.info("Reset traffic monitor using {} KB of sketches", (memoryBytes() + 1023) / 1024);
+    }
+
+    /**
+     * Counts a request and returns what to do with it.
+     *
+     * @param email the email the request is about, or {@code null} if it carries none
+     */
+    public Verdict record(String clientIp, String email) {
+        if (!properties.isEnabled() || clientIp == null || properties.getExemptAddresses().contains(clientIp)) {
+            return Verdict.ALLOW;
+        }
+
+        Verdict verdict = verdict(ips.record(clientIp), properties.getIp());
+        if (email != null && !email.isBlank()) {
+            String normalized = email.trim().toLowerCase(Locale.ROOT);
+            verdict = worst(verdict, verdict(emails.record(normalized), properties.getEmail()));
+            int at = normalized.lastIndexOf('@');
+            if (at >= 0 && at < normalized.length() - 1) {
+                verdict = worst(verdict, verdict(domains.record(normalized.substring(at + 1)), properties.getDomain()));
+            }
+        }
+
+        if (verdict != Verdict.ALLOW) {
+            meterRegistry.counter("abuse.reset.requests", "verdict", verdict.name().toLowerCase(Locale.ROOT))
+                    .increment();
+        }
+        return verdict;
+    }
+
+    /**
+     * @return the current heavy hitters per dimension ({@code emails}, {@code ips}, {@code domains})
+     */
+    public Map<String, List<HeavyHitter>> heavyHitters(int limit) {
+        Map<String, List<HeavyHitter>> report = new LinkedHashMap<>();
+        report.put("emails", emails.top(limit));
+        report.put("ips", ips.top(limit));
+        report.put("domains", domains.top(limit));
+        return report;
+    }
+
+    public long memoryBytes() {
+        return emails.memoryBytes() + ips.memoryBytes() + domains.memoryBytes();
+    }
+
+    private static Verdict verdict(long count, AbuseProperties.Limits limits) {
+        if (limits.getBlockAt() > 0 && count > limits.getBlockAt()) {
+            return Verdict.BLOCK;
+        }
+        if (limits.getThrottleAt() > 0 && count > limits.getThrottleAt()) {
+            return Verdict.THROTTLE;
+        }
+        return Verdict.ALLOW;
+    }
+
+    private static Verdict worst(Verdict a, Verdict b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    private static HeavyHitterTracker tracker(AbuseProperties properties) {
+        return new HeavyHitterTracker(properties.getSketchDepth(), properties.getSketchWidth(),
+                properties.getWindow(), properties.getTopK());
+    }
+}
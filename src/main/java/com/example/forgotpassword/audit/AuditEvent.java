@@ -0,0 +1,53 @@
+package com.example.forgotpassword.audit;
+
+import java.time.Instant;
+
+/**
+ * One audited step of a password reset.
+ *
+ * @param userId   the account's id, {@code 0} if no account matched
+ * @param email    the email the request named or the account's email; {@code null} if unknown
+ * @param clientIp the requesting address; {@code null} outside a web request
+ */
+public record AuditEvent(Instant timestamp, Type type, Outcome outcome, long userId, String email, String clientIp) {
+
+    /** The codes are written to the segment files and must never change. */
+    public enum Type {
+        FORGOT(1), VALIDATE(2), RESET(3);
+
+        final byte code;
+
+        Type(int code) {
+            this.code = (byte) code;
+        }
+
+        static Type of(byte code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown audit event type " + code);
+        }
+    }
+
+    /** The codes are written to the segment files and must never change. */
+    public enum Outcome {
+        OK(1), UNKNOWN_ACCOUNT(2), INVALID_TOKEN(3), EXPIRED_TOKEN(4), REUSED_PASSWORD(5);
+
+        final byte code;
+
+        Outcome(int code) {
+            this.code = (byte) code;
+        }
+
+        static Outcome of(byte code) {
+            for (Outcome outcome : values()) {
+                if (outcome.code == code) {
+                    return outcome;
+                }
+            }
+            throw new IllegalArgumentException("Unknown audit outcome " + code);
+        }
+    }
+}
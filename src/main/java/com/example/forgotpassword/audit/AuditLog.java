@@ -0,0 +1,153 @@
+package com.example.forgotpassword.audit;
+
+import com.example.forgotpassword.warmup.WarmupRequests;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Tamper-evident record of forgot, validate and reset events.
+ * <p>
+ * {@link #record} only places the event in a lock-free ring buffer, so request threads never
+ * wait on the disk. A single writer thread drains the buffer into hash-chained segment files
+ * (see {@link AuditSegments}) and forces them to disk every {@code flush-interval}. When the
+ * buffer is full the event is dropped and counted in {@code audit.events.dropped} rather than
+ * holding up the request. Read the log with {@link AuditLogCli}.
+ */
+@Slf4j
+@Component
+public class AuditLog {
+
+    private static final long MIN_IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long MAX_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final AuditProperties properties;
+    private final AuditRingBuffer<AuditEvent> buffer;
+    private final Counter dropped;
+    private final AtomicLong written = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public AuditLog(AuditProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.buffer = new AuditRingBuffer<>(properties.getBufferCapacity());
+        this.dropped = meterRegistry.counter("audit.events.dropped");
+        FunctionCounter.builder("audit.events.written", written, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("audit.buffer.used", buffer, AuditRingBuffer::size).register(meterRegistry);
+        this.writer = new Thread(this::writeLoop, "audit-writer");
+        this.writer.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (properties.isEnabled()) {
+            writer.start();
+        }
+    }
+
+    /**
+     * Drains whatever is buffered, then closes the current segment.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        if (writer.isAlive()) {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    /**
+     * Queues an event without blocking. The client address is taken from the current web
+     * request, if any. Events from the start-up warm-up's own requests are not recorded.
+     */
+    public void record(AuditEvent.Type type, AuditEvent.Outcome outcome, long userId, String email) {
+        record(type, outcome, userId, email, currentClientIp());
+    }
+
+    /**
+     * As {@link #record(AuditEvent.Type, AuditEvent.Outcome, long, String)}, for callers with no
+     * servlet request, such as the reactive stack or a background task.
+     */
+    public void record(AuditEvent.Type type, AuditEvent.Outcome outcome, long userId, String email, String clientIp) {
+        if (!properties.isEnabled() || WarmupRequests.isCurrentRequestWarmup()) {
+            return;
+        }
+        AuditEvent event = new AuditEvent(Instant.now(), type, outcome, userId, email, clientIp);
+        if (!running || !buffer.offer(event)) {
+            dropped.increment();
+            if (Long.bitCount((long) dropped.count()) == 1) {
+                log.warn("Audit buffer full: {} events dropped so far", (long) dropped.count());
+            }
+        }
+    }
+
+    /**
+     * @return the client address of the servlet request bound to the current thread, if any
+     */
+    public static String currentClientIp() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest().getRemoteAddr()
+                : null;
+    }
+
+    private void writeLoop() {
+        AuditSegmentWriter segments;
+        try {
+            segments = new AuditSegmentWriter(properties.getDirectory(), (int) properties.getSegmentSize().toBytes());
+        } catch (IOException e) {
+            log.error("Audit log disabled: cannot open {}", properties.getDirectory(), e);
+            running = false;
+            return;
+        }
+
+        long flushIntervalNanos = properties.getFlushInterval().toNanos();
+        long lastFlush = System.nanoTime();
+        long idlePark = MIN_IDLE_PARK_NANOS;
+        while (true) {
+            AuditEvent event = buffer.poll();
+            if (event != null) {
+                idlePark = MIN_IDLE_PARK_NANOS;
+                try {
+                    segments.append(event);
+                    written.incrementAndGet();
+                } catch (IOException | RuntimeException e) {
+                    dropped.increment();
+                    log.error("Audit event could not be written", e);
+                }
+            } else if (!running) {
+                break;
+            }
+
+            long now = System.nanoTime();
+            if (now - lastFlush >= flushIntervalNanos) {
+                segments.flush();
+                lastFlush = now;
+            }
+            if (event == null) {
+                // producers never signal, so back off while the buffer stays empty
+                LockSupport.parkNanos(idlePark);
+                idlePark = Math.min(idlePark * 2, MAX_IDLE_PARK_NANOS);
+            }
+        }
+
+        try {
+            segments.close();
+        } catch (IOException e) {
+            log.error("Audit segment could not be closed", e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.forgotpassword.audit;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Prints and verifies the audit log without starting the application.
+ * <pre>
+ * java -cp forgot-password.jar -Dloader.main=com.example.forgotpassword.audit.AuditLogCli \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher \
+ *     --dir=data/audit --from=2026-10-01T00:00:00Z --type=RESET --email=alice@example.com --verify
+ * </pre>
+ * Options: {@code --dir}, {@code --from} and {@code --to} (ISO instants, {@code to} exclusive),
+ * {@code --type}, {@code --outcome}, {@code --email}, {@code --user} (account id) and
+ * {@code --verify}. Matching events go to standard output, one tab-separated line each; the
+ * summary and any integrity problems go to standard error. Exits with 1 if verification fails.
+ */
+public final class AuditLogCli {
+
+    private AuditLogCli() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Path.of("data/audit");
+        Instant from = null;
+        Instant to = null;
+        Predicate<AuditEvent> filter = event -> true;
+        boolean verify = false;
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            String name = eq < 0 ? arg : arg.substring(0, eq);
+            String value = eq < 0 ? null : arg.substring(eq + 1);
+            switch (name) {
+                case "--dir" -> directory = Path.of(value);
+                case "--from" -> from = Instant.parse(value);
+                case "--to" -> to = Instant.parse(value);
+                case "--type" -> {
+                    AuditEvent.Type type = AuditEvent.Type.valueOf(value.toUpperCase(Locale.ROOT));
+                    filter = filter.and(event -> event.type() == type);
+                }
+                case "--outcome" -> {
+                    AuditEvent.Outcome outcome = AuditEvent.Outcome.valueOf(value.toUpperCase(Locale.ROOT));
+                    filter = filter.and(event -> event.outcome() == outcome);
+                }
+                case "--email" -> {
+                    String email = value.trim().toLowerCase(Locale.ROOT);
+                    filter = filter.and(event -> event.email() != null && event.email().equalsIgnoreCase(email));
+                }
+                case "--user" -> {
+                    long userId = Long.parseLong(value);
+                    filter = filter.and(event -> event.userId() == userId);
+                }
+                case "--verify" -> verify = true;
+                default -> {
+                    System.err.println("Unknown option " + arg);
+                    System.exit(2);
+                }
+            }
+        }
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        AuditLogReader.ScanResult result;
+        try {
+            result = new AuditLogReader(directory).scan(from, to, filter, verify, event -> {
+                try {
+                    out.write(event.timestamp() + "\t" + event.type() + "\t" + event.outcome() + "\t"
+                            + event.userId() + "\t" + nullToDash(event.email()) + "\t" + nullToDash(event.clientIp()) + "\n");
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+
+        PrintStream err = System.err;
+        err.printf("%d segments, %d records, %d matched%n", result.segments(), result.records(), result.matched());
+        result.problems().forEach(problem -> err.println("INTEGRITY: " + problem));
+        if (verify) {
+            err.println(result.intact() ? "Hash chain verified" : "Hash chain verification FAILED");
+            if (!result.intact()) {
+                System.exit(1);
+            }
+        }
+    }
+
+    private static String nullToDash(String value) {
+        return value == null ? "-" : value;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.forgotpassword.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Reads the audit segments in a directory, oldest first.
+ * <p>
+ * Segments are memory-mapped read only, and a record outside the time range is skipped after
+ * reading its timestamp, without decoding the rest. Without verification, whole segments that
+ * were closed before {@code from} are skipped using the next segment's creation time. With
+ * verification every record's chain hash is recomputed and each segment's header is checked
+ * against the final hash of the segment before it.
+ * <p>
+ * The segment being written by a running application can be read too; its end is the first
+ * zero length.
+ */
+public class AuditLogReader {
+
+    private static final byte[] NO_HASH = new byte[0];
+    private static final int MIN_BODY = 21;
+
+    private final Path directory;
+
+    public AuditLogReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @param from   first timestamp to include; {@code null} for no lower bound
+     * @param to     first timestamp to exclude; {@code null} for no upper bound
+     * @param filter further condition on the events fed to {@code sink}
+     */
+    public ScanResult scan(Instant from, Instant to, Predicate<AuditEvent> filter, boolean verify,
+                           Consumer<AuditEvent> sink) throws IOException {
+        long fromMillis = from == null ? Long.MIN_VALUE : from.toEpochMilli();
+        long toMillis = to == null ? Long.MAX_VALUE : to.toEpochMilli();
+        List<Path> segments = AuditSegments.list(directory);
+        Scan scan = new Scan(verify, fromMillis, toMillis, filter, sink);
+
+        byte[] previousHash = null;
+        long previousIndex = -1;
+        for (int i = 0; i < segments.size(); i++) {
+            Path segment = segments.get(i);
+            long index = AuditSegments.indexOf(segment);
+            if (!verify && from != null && i + 1 < segments.size()
+                    && createdMillis(segments.get(i + 1)) < fromMillis) {
+                continue; // closed before the range starts
+            }
+            if (verify && previousIndex >= 0 && index != previousIndex + 1) {
+                scan.problems.add("segments " + (previousIndex + 1) + " to " + (index - 1) + " are missing");
+                previousHash = null;
+            }
+            previousHash = scan.read(segment, previousHash);
+            previousIndex = index;
+        }
+        return new ScanResult(segments.size(), scan.records, scan.matched, List.copyOf(scan.problems));
+    }
+
+    /**
+     * @return the chain hash after the last record of {@code segment}, or {@code null} if the
+     *         segment does not verify
+     */
+    static byte[] finalHash(Path segment) throws IOException {
+        return new Scan(true, Long.MAX_VALUE, Long.MAX_VALUE, e -> false, e -> { }).read(segment, null);
+    }
+
+    private static long createdMillis(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(AuditSegments.HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // fill the header
+            }
+            return header.hasRemaining() || !AuditSegments.hasMagic(header) ? Long.MAX_VALUE
+                    : AuditSegments.headerCreatedMillis(header);
+        }
+    }
+
+    /**
+     * @param problems every integrity problem found; empty if nothing was verified or all is intact
+     */
+    public record ScanResult(int segments, long records, long matched, List<String> problems) {
+
+        public boolean intact() {
+            return problems.isEmpty();
+        }
+    }
+
+    private static final class Scan {
+
+        private final boolean verify;
+        private final long fromMillis;
+        private final long toMillis;
+        private final Predicate<AuditEvent> filter;
+        private final Consumer<AuditEvent> sink;
+        private final MessageDigest sha256 = AuditSegments.sha256();
+        private final byte[] storedHash = new byte[AuditSegments.STORED_HASH_SIZE];
+        private final List<String> problems = new ArrayList<>();
+        private long records;
+        private long matched;
+
+        Scan(boolean verify, long fromMillis, long toMillis, Predicate<AuditEvent> filter, Consumer<AuditEvent> sink) {
+            this.verify = verify;
+            this.fromMillis = fromMillis;
+            this.toMillis = toMillis;
+            this.filter = filter;
+            this.sink = sink;
+        }
+
+        /**
+         * @param previousHash the final hash of the preceding segment, if known and intact
+         * @return this segment's final hash, or {@code null} if it was not verified or is broken
+         */
+        byte[] read(Path file, byte[] previousHash) throws IOException {
+            String name = file.getFileName().toString();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size < AuditSegments.HEADER_SIZE || size > Integer.MAX_VALUE) {
+                    problems.add(name + ": not an audit segment");
+                    return null;
+                }
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                if (!AuditSegments.hasMagic(segment)) {
+                    problems.add(name + ": not an audit segment");
+                    return null;
+                }
+
+                byte[] hash = null;
+                if (verify) {
+                    if (AuditSegments.headerIndex(segment) != AuditSegments.indexOf(file)) {
+                        problems.add(name + ": header names segment " + AuditSegments.headerIndex(segment));
+                    }
+                    if (previousHash != null && !Arrays.equals(previousHash, AuditSegments.headerPreviousHash(segment))) {
+                        problems.add(name + ": does not follow the previous segment");
+                    }
+                    hash = AuditSegments.chain(sha256, NO_HASH, segment, 0, AuditSegments.HEADER_SIZE);
+                }
+
+                int at = AuditSegments.HEADER_SIZE;
+                while (at + 4 <= size) {
+                    int length = segment.getInt(at);
+                    if (length == 0) {
+                        break;
+                    }
+                    int body = at + 4;
+                    long end = (long) body + length + AuditSegments.STORED_HASH_SIZE;
+                    if (length < MIN_BODY || end > size) {
+                        problems.add(name + ": corrupt record at offset " + at);
+                        return null;
+                    }
+                    records++;
+                    if (hash != null) {
+                        hash = AuditSegments.chain(sha256, hash, segment, body, length);
+                        segment.get(body + length, storedHash);
+                        if (!Arrays.equals(hash, 0, storedHash.length, storedHash, 0, storedHash.length)) {
+                            problems.add(name + ": hash chain broken at offset " + at);
+                            hash = null;
+                        }
+                    }
+                    long timestamp = AuditSegments.timestampMillis(segment, body);
+                    if (timestamp >= fromMillis && timestamp < toMillis) {
+                        AuditEvent event;
+                        try {
+                            event = AuditSegments.decode(segment, body);
+                        } catch (RuntimeException e) {
+                            problems.add(name + ": undecodable record at offset " + at);
+                            return null;
+                        }
+                        if (filter.test(event)) {
+                            matched++;
+                            sink.accept(event);
+                        }
+                    }
+                    at = (int) end;
+                }
+                return hash;
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.forgotpassword.audit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for {@link AuditLog}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.audit")
+public class AuditProperties {
+
+    private boolean enabled = true;
+
+    /** Where the segment files go. */
+    private Path directory = Path.of("data/audit");
+
+    /** Size of each segment file; a full segment is closed and a new one started. */
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    /** Events that can wait for the writer; a power of two. Events beyond this are dropped and counted. */
+    private int bufferCapacity = 65_536;
+
+    /** How often appended events are forced to disk. */
+    private Duration flushInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,81 @@
+package com.example.forgotpassword.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ * <p>
+ * Each slot carries a sequence number saying whose turn it is: a producer claims the next
+ * position with one CAS and publishes the element by advancing the slot's sequence, and the
+ * consumer frees the slot by advancing it again. Producers never wait for each other or for
+ * the consumer; when every slot is taken {@link #offer} fails at once.
+ */
+class AuditRingBuffer<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    AuditRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two, got " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return {@code false} if the buffer is full
+     */
+    boolean offer(T element) {
+        while (true) {
+            long position = tail.get();
+            int slot = (int) position & mask;
+            long lag = sequences.getAcquire(slot) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.setPlain(slot, element);
+                    sequences.setRelease(slot, position + 1);
+                    return true;
+                }
+            } else if (lag < 0) {
+                return false; // the consumer has not freed this slot yet
+            }
+            // lag > 0: another producer claimed the position first, retry
+        }
+    }
+
+    /**
+     * Consumer side only.
+     *
+     * @return the oldest element, or {@code null} if none is published yet
+     */
+    T poll() {
+        long position = head;
+        int slot = (int) position & mask;
+        if (sequences.getAcquire(slot) != position + 1) {
+            return null;
+        }
+        T element = elements.getPlain(slot);
+        elements.setPlain(slot, null);
+        sequences.setRelease(slot, position + mask + 1);
+        head = position + 1;
+        return element;
+    }
+
+    int size() {
+        return (int) Math.max(0, Math.min(tail.get() - head, mask + 1));
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
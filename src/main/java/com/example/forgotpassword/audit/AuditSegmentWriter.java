@@ -0,0 +1,111 @@
+package com.example.forgotpassword.audit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Appends records to memory-mapped segment files, starting a new segment when the current
+ * one is full. Not thread safe: {@link AuditLog} calls it from its writer thread only.
+ * <p>
+ * A new writer always opens a new segment, chained to the final hash of the newest segment
+ * already in the directory.
+ */
+@Slf4j
+class AuditSegmentWriter implements Closeable {
+
+    private static final byte[] NO_HASH = new byte[0];
+
+    private final Path directory;
+    private final int segmentSize;
+    private final MessageDigest sha256 = AuditSegments.sha256();
+
+    private long nextIndex;
+    private byte[] hash;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private boolean dirty;
+
+    AuditSegmentWriter(Path directory, int segmentSize) throws IOException {
+        if (segmentSize < 4_096) {
+            throw new IllegalArgumentException("Audit segments must be at least 4 KB, got " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+
+        List<Path> existing = AuditSegments.list(directory);
+        if (existing.isEmpty()) {
+            nextIndex = 0;
+            hash = new byte[AuditSegments.HASH_SIZE];
+        } else {
+            Path newest = existing.get(existing.size() - 1);
+            nextIndex = AuditSegments.indexOf(newest) + 1;
+            hash = AuditLogReader.finalHash(newest);
+            if (hash == null) {
+                log.error("Audit segment {} does not verify; the next segment cannot be chained to it", newest);
+                hash = new byte[AuditSegments.HASH_SIZE];
+            }
+        }
+    }
+
+    void append(AuditEvent event) throws IOException {
+        byte[] body = AuditSegments.encode(event);
+        int frame = 4 + body.length + AuditSegments.STORED_HASH_SIZE;
+        // keep room for the zero length that ends the segment
+        if (segment == null || segment.remaining() < frame + 4) {
+            rotate();
+        }
+
+        int start = segment.position();
+        segment.position(start + 4);
+        segment.put(body);
+        hash = AuditSegments.chain(sha256, hash, ByteBuffer.wrap(body), 0, body.length);
+        segment.put(hash, 0, AuditSegments.STORED_HASH_SIZE);
+        // the length goes in last: until then a reader sees the end of the segment, not half a record
+        segment.putInt(start, body.length);
+        dirty = true;
+    }
+
+    /**
+     * Writes appended records through to the file.
+     */
+    void flush() {
+        if (dirty) {
+            segment.force();
+            dirty = false;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (segment != null) {
+            flush();
+            channel.close();
+            segment = null;
+        }
+    }
+
+    private void rotate() throws IOException {
+        close();
+        Path file = directory.resolve(AuditSegments.fileName(nextIndex));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+
+        byte[] header = AuditSegments.header(nextIndex, System.currentTimeMillis(), hash);
+        segment.put(header);
+        hash = AuditSegments.chain(sha256, NO_HASH, ByteBuffer.wrap(header), 0, header.length);
+        dirty = true;
+        log.info("Audit log writing to {}", file);
+        nextIndex++;
+    }
+}
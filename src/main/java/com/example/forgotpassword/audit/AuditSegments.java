@@ -0,0 +1,162 @@
+package com.example.forgotpassword.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * On-disk format of the audit log.
+ * <p>
+ * A segment file {@code audit-<index>.seg} starts with a {@value #HEADER_SIZE}-byte header:
+ * magic, format version, segment index, creation time (epoch millis) and the final chain hash
+ * of the previous segment (zeros for the first). Records follow back to back:
+ * <pre>
+ * int    body length (0 = end of segment)
+ * body   long epoch millis, byte type, byte outcome, long user id,
+ *        short length + UTF-8 email, byte length + ASCII client address (length 0 = none)
+ * 16     first half of the chain hash
+ * </pre>
+ * The chain starts at SHA-256 of the header and each record's hash is SHA-256 of the previous
+ * hash followed by the record's body, so changing, removing or reordering a record breaks
+ * every hash after it, and the header ties each segment to the one before.
+ */
+final class AuditSegments {
+
+    static final int HEADER_SIZE = 64;
+    static final int HASH_SIZE = 32;
+    static final int STORED_HASH_SIZE = 16;
+    static final int VERSION = 1;
+    static final int MAX_EMAIL_BYTES = 1_024;
+
+    private static final byte[] MAGIC = "PWAUDIT\n".getBytes(StandardCharsets.US_ASCII);
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".seg";
+
+    private AuditSegments() {
+    }
+
+    static String fileName(long index) {
+        return PREFIX + String.format("%016d", index) + SUFFIX;
+    }
+
+    static long indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * @return the segment files in {@code directory}, oldest first
+     */
+    static List<Path> list(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> {
+                        String name = f.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    static byte[] header(long index, long createdMillis, byte[] previousHash) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.put(MAGIC).putInt(VERSION).putInt(0).putLong(index).putLong(createdMillis).put(previousHash);
+        return header.array();
+    }
+
+    static boolean hasMagic(ByteBuffer segment) {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (segment.get(i) != MAGIC[i]) {
+                return false;
+            }
+        }
+        return segment.getInt(MAGIC.length) == VERSION;
+    }
+
+    static long headerIndex(ByteBuffer segment) {
+        return segment.getLong(16);
+    }
+
+    static long headerCreatedMillis(ByteBuffer segment) {
+        return segment.getLong(24);
+    }
+
+    static byte[] headerPreviousHash(ByteBuffer segment) {
+        byte[] hash = new byte[HASH_SIZE];
+        segment.get(32, hash);
+        return hash;
+    }
+
+    static byte[] encode(AuditEvent event) {
+        byte[] email = event.email() == null ? new byte[0] : event.email().getBytes(StandardCharsets.UTF_8);
+        if (email.length > MAX_EMAIL_BYTES) {
+            email = Arrays.copyOf(email, MAX_EMAIL_BYTES);
+        }
+        byte[] ip = event.clientIp() == null ? new byte[0] : event.clientIp().getBytes(StandardCharsets.US_ASCII);
+        if (ip.length > 255) {
+            ip = Arrays.copyOf(ip, 255);
+        }
+        ByteBuffer body = ByteBuffer.allocate(8 + 1 + 1 + 8 + 2 + email.length + 1 + ip.length);
+        body.putLong(event.timestamp().toEpochMilli())
+                .put(event.type().code)
+                .put(event.outcome().code)
+                .putLong(event.userId())
+                .putShort((short) email.length).put(email)
+                .put((byte) ip.length).put(ip);
+        return body.array();
+    }
+
+    static long timestampMillis(ByteBuffer segment, int bodyOffset) {
+        return segment.getLong(bodyOffset);
+    }
+
+    static AuditEvent decode(ByteBuffer segment, int bodyOffset) {
+        int at = bodyOffset;
+        Instant timestamp = Instant.ofEpochMilli(segment.getLong(at));
+        AuditEvent.Type type = AuditEvent.Type.of(segment.get(at + 8));
+        AuditEvent.Outcome outcome = AuditEvent.Outcome.of(segment.get(at + 9));
+        long userId = segment.getLong(at + 10);
+        int emailLength = Short.toUnsignedInt(segment.getShort(at + 18));
+        String email = emailLength == 0 ? null : string(segment, at + 20, emailLength, StandardCharsets.UTF_8);
+        at += 20 + emailLength;
+        int ipLength = Byte.toUnsignedInt(segment.get(at));
+        String clientIp = ipLength == 0 ? null : string(segment, at + 1, ipLength, StandardCharsets.US_ASCII);
+        return new AuditEvent(timestamp, type, outcome, userId, email, clientIp);
+    }
+
+    /**
+     * @return SHA-256 of {@code previous} followed by {@code length} bytes of {@code segment}
+     *         at {@code offset}
+     */
+    static byte[] chain(MessageDigest sha256, byte[] previous, ByteBuffer segment, int offset, int length) {
+        sha256.update(previous);
+        sha256.update(segment.slice(offset, length));
+        return sha256.digest();
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String string(ByteBuffer segment, int offset, int length, Charset charset) {
+        byte[] bytes = new byte[length];
+        segment.get(offset, bytes);
+        return new String(bytes, charset);
+    }
+}
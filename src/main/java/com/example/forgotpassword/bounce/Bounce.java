@@ -0,0 +1,13 @@
+package com.example.forgotpassword.bounce;
+
+import java.time.LocalDateTime;
+
+/**
+ * One recipient reported by a bounce message.
+ *
+ * @param status    the DSN status code, e.g. {@code 5.1.1}
+ * @param permanent whether delivery failed for good (5.x.x) rather than being delayed
+ * @param bouncedAt when delivery failed, as the message reports it; {@code null} if it carries no date
+ */
+public record Bounce(String recipient, String status, boolean permanent, LocalDateTime bouncedAt) {
+}
@@ -0,0 +1,207 @@
+package com.example.forgotpassword.bounce;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Hands over the messages delivered to a local mailbox since the last call, one at a time.
+ * <p>
+ * A directory is read as a maildir: each file in {@code new/} is passed on and then moved to
+ * {@code cur/}, so it is seen once; {@code tmp/} holds deliveries still being written and is
+ * left alone. A file is read as an mbox: reading resumes at the offset kept in
+ * {@code <mbox>.offset}, and a final message that does not end with a blank line yet is left
+ * for the next call. If the mbox got shorter than the offset it was rotated and is read from
+ * the start.
+ * <p>
+ * Each message comes with when the mailbox received it, which stays the same however often
+ * the message is read: the file's modification time in a maildir, the date on the
+ * {@code From } separator line in an mbox.
+ */
+final class BounceMailbox {
+
+    // asctime, as on mbox separator lines; split on whitespace first, as the day may be space-padded
+    private static final DateTimeFormatter SEPARATOR_DATE =
+            DateTimeFormatter.ofPattern("EEE MMM d HH:mm:ss yyyy", Locale.ENGLISH);
+
+    private final Path path;
+    private final int maxMessageSize;
+
+    BounceMailbox(Path path, int maxMessageSize) {
+        this.path = path;
+        this.maxMessageSize = maxMessageSize;
+    }
+
+    /**
+     * @param handler takes each message and when the mailbox received it ({@code null} if unknown)
+     * @return messages handed over
+     */
+    int drain(BiConsumer<InputStream, LocalDateTime> handler) throws IOException {
+        if (Files.isDirectory(path)) {
+            return drainMaildir(handler);
+        }
+        if (Files.isRegularFile(path)) {
+            return drainMbox(handler);
+        }
+        return 0;
+    }
+
+    private int drainMaildir(BiConsumer<InputStream, LocalDateTime> handler) throws IOException {
+        Path incoming = path.resolve("new");
+        if (!Files.isDirectory(incoming)) {
+            return 0;
+        }
+        Path seen = Files.createDirectories(path.resolve("cur"));
+        int count = 0;
+        try (Stream<Path> files = Files.list(incoming)) {
+            Iterator<Path> it = files.filter(Files::isRegularFile).sorted().iterator();
+            while (it.hasNext()) {
+                Path file = it.next();
+                LocalDateTime delivered = LocalDateTime.ofInstant(
+                        Files.getLastModifiedTime(file).toInstant(), ZoneId.systemDefault());
+                try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+                    handler.accept(new BoundedInputStream(in, maxMessageSize), delivered);
+                }
+                // ":2,S" = seen, in maildir's info syntax
+                Files.move(file, seen.resolve(file.getFileName() + ":2,S"), StandardCopyOption.ATOMIC_MOVE);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int drainMbox(BiConsumer<InputStream, LocalDateTime> handler) throws IOException {
+        Path offsetFile = path.resolveSibling(path.getFileName() + ".offset");
+        long offset = Files.exists(offsetFile) ? Long.parseLong(Files.readString(offsetFile).trim()) : 0;
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < offset) {
+                offset = 0;
+            }
+            channel.position(offset);
+            InputStream in = new BufferedInputStream(Channels.newInputStream(channel), 1 << 16);
+
+            ByteArrayOutputStream message = null;
+            LocalDateTime delivered = null;
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            boolean previousBlank = true;
+            long position = offset;
+            int b;
+            while ((b = in.read()) != -1) {
+                line.write(b);
+                if (b != '\n') {
+                    continue;
+                }
+                byte[] bytes = line.toByteArray();
+                line.reset();
+
+                if (previousBlank && startsWith(bytes, 0, "From ")) {
+                    if (message != null) {
+                        handler.accept(new ByteArrayInputStream(message.toByteArray()), delivered);
+                        count++;
+                        offset = position;
+                    }
+                    message = new ByteArrayOutputStream();
+                    delivered = separatorDate(bytes);
+                } else if (message != null && message.size() < maxMessageSize) {
+                    // mboxrd: a body line starting with ">From " had one '>' added on delivery
+                    int quotes = 0;
+                    while (quotes < bytes.length && bytes[quotes] == '>') {
+                        quotes++;
+                    }
+                    int skip = quotes > 0 && startsWith(bytes, quotes, "From ") ? 1 : 0;
+                    message.write(bytes, skip, bytes.length - skip);
+                }
+                position += bytes.length;
+                previousBlank = bytes.length == 1 || (bytes.length == 2 && bytes[0] == '\r');
+            }
+            // the last message is complete once its closing blank line is there
+            if (message != null && line.size() == 0 && previousBlank) {
+                handler.accept(new ByteArrayInputStream(message.toByteArray()), delivered);
+                count++;
+                offset = position;
+            }
+        }
+        Files.writeString(offsetFile, Long.toString(offset), StandardCharsets.US_ASCII);
+        return count;
+    }
+
+    /** {@code From sender Mon Oct 19 08:00:00 2026} to its date, or {@code null}. */
+    private static LocalDateTime separatorDate(byte[] line) {
+        String[] fields = new String(line, StandardCharsets.US_ASCII).trim().split("\\s+");
+        if (fields.length < 7) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(String.join(" ", Arrays.copyOfRange(fields, 2, 7)), SEPARATOR_DATE);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static boolean startsWith(byte[] line, int from, String prefix) {
+        if (line.length - from < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (line[from + i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Stops after {@code limit} bytes; the rest of a long message is not needed. */
+    private static final class BoundedInputStream extends InputStream {
+
+        private final InputStream in;
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long limit) {
+            this.in = in;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = in.read(buffer, off, (int) Math.min(len, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+    }
+}
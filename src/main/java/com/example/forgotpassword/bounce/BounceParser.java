@@ -0,0 +1,167 @@
+package com.example.forgotpassword.bounce;
+
+import jakarta.mail.BodyPart;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Multipart;
+import jakarta.mail.Part;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MailDateFormat;
+import jakarta.mail.internet.MimeMessage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Extracts failed recipients from a bounce message.
+ * <p>
+ * Standard delivery status notifications (RFC 3464, {@code multipart/report} with a
+ * {@code message/delivery-status} part) yield one {@link Bounce} per recipient whose
+ * {@code Action} is {@code failed} or {@code delayed}. Bounces without a DSN part fall back to
+ * the {@code X-Failed-Recipients} header some MTAs add, read as permanent failures. Anything
+ * else, such as auto-replies, yields nothing.
+ * <p>
+ * A bounce is dated by the recipient's {@code Last-Attempt-Date}, else the report's
+ * {@code Arrival-Date}, else the message's {@code Date} header, so reading the same message
+ * twice gives the same dates.
+ */
+final class BounceParser {
+
+    private static final Session SESSION = Session.getInstance(new Properties());
+    private static final String UNKNOWN_PERMANENT_STATUS = "5.0.0";
+    private static final int MAX_PART_DEPTH = 4;
+
+    private BounceParser() {
+    }
+
+    static List<Bounce> parse(InputStream message) throws MessagingException, IOException {
+        MimeMessage mime = new MimeMessage(SESSION, message);
+        LocalDateTime sent = localTime(mime.getSentDate());
+        List<Bounce> bounces = new ArrayList<>();
+        collect(mime, sent, bounces, 0);
+        if (bounces.isEmpty()) {
+            String[] failed = mime.getHeader("X-Failed-Recipients");
+            if (failed != null) {
+                for (String header : failed) {
+                    for (String recipient : header.split(",")) {
+                        String address = address(recipient);
+                        if (!address.isEmpty()) {
+                            bounces.add(new Bounce(address, UNKNOWN_PERMANENT_STATUS, true, sent));
+                        }
+                    }
+                }
+            }
+        }
+        return bounces;
+    }
+
+    private static void collect(Part part, LocalDateTime sent, List<Bounce> bounces, int depth)
+            throws MessagingException, IOException {
+        if (part.isMimeType("message/delivery-status")) {
+            try (InputStream in = part.getInputStream()) {
+                readDeliveryStatus(in, sent, bounces);
+            }
+        } else if (part.isMimeType("multipart/*") && depth < MAX_PART_DEPTH) {
+            Multipart multipart = (Multipart) part.getContent();
+            for (int i = 0; i < multipart.getCount(); i++) {
+                BodyPart child = multipart.getBodyPart(i);
+                collect(child, sent, bounces, depth + 1);
+            }
+        }
+    }
+
+    /**
+     * The report is a per-message field group followed by one group per recipient, separated
+     * by blank lines; fields may be folded onto indented continuation lines.
+     */
+    private static void readDeliveryStatus(InputStream in, LocalDateTime sent, List<Bounce> bounces) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII));
+        Map<String, String> group = new HashMap<>();
+        LocalDateTime arrived = null;
+        String lastField = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                if (arrived == null) {
+                    // the per-message group comes first
+                    LocalDateTime arrival = date(group.get("arrival-date"));
+                    arrived = arrival != null ? arrival : sent;
+                }
+                addRecipient(group, arrived, bounces);
+                group.clear();
+                lastField = null;
+            } else if ((line.charAt(0) == ' ' || line.charAt(0) == '\t') && lastField != null) {
+                group.merge(lastField, " " + line.trim(), String::concat);
+            } else {
+                int colon = line.indexOf(':');
+                if (colon > 0) {
+                    lastField = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+                    group.put(lastField, line.substring(colon + 1).trim());
+                }
+            }
+        }
+        addRecipient(group, arrived != null ? arrived : sent, bounces);
+    }
+
+    private static void addRecipient(Map<String, String> group, LocalDateTime arrived, List<Bounce> bounces) {
+        String action = group.getOrDefault("action", "").toLowerCase(Locale.ROOT);
+        if (!action.startsWith("failed") && !action.startsWith("delayed")) {
+            return;
+        }
+        String recipient = group.getOrDefault("final-recipient", group.get("original-recipient"));
+        if (recipient == null) {
+            return;
+        }
+        String address = address(recipient);
+        if (address.isEmpty()) {
+            return;
+        }
+        String status = group.getOrDefault("status", action.startsWith("failed") ? UNKNOWN_PERMANENT_STATUS : "4.0.0");
+        int space = status.indexOf(' ');
+        if (space > 0) {
+            status = status.substring(0, space); // "5.1.1 (user unknown)"
+        }
+        LocalDateTime attempted = date(group.get("last-attempt-date"));
+        bounces.add(new Bounce(address, status, action.startsWith("failed") && status.startsWith("5"),
+                attempted != null ? attempted : arrived));
+    }
+
+    /** An RFC 5322 date such as {@code Mon, 19 Oct 2026 08:00:00 +0000}, or {@code null}. */
+    private static LocalDateTime date(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            // not thread-safe, so one per call
+            return localTime(new MailDateFormat().parse(value));
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+
+    private static LocalDateTime localTime(Date date) {
+        return date == null ? null : LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault());
+    }
+
+    /** {@code rfc822; <User@Example.com>} to {@code user@example.com}. */
+    private static String address(String value) {
+        int semicolon = value.indexOf(';');
+        String address = (semicolon >= 0 ? value.substring(semicolon + 1) : value).trim();
+        if (address.startsWith("<") && address.endsWith(">")) {
+            address = address.substring(1, address.length() - 1);
+        }
+        return address.indexOf('@') > 0 ? address.toLowerCase(Locale.ROOT) : "";
+    }
+}
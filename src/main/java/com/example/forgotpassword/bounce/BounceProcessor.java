@@ -0,0 +1,114 @@
+package com.example.forgotpassword.bounce;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the bounce mailbox ({@code app.bounce.mailbox}) and adds every recipient with a
+ * permanent failure to the {@link SuppressionList}. Messages are read one at a time as they
+ * stream off the mailbox, so a backlog of any size needs only one message in memory.
+ * Processing is at least once: a message whose bounces could not be stored is read again on
+ * the next poll. That is harmless, as bounces are recorded at the time the message reports,
+ * or for an undated message when the mailbox received it, and
+ * {@link SuppressionList#recordBounce} ignores one it has already counted.
+ * <p>
+ * Metrics: {@code mail.bounces} by {@code type} (permanent, transient) and
+ * {@code mail.bounces.unreadable} for messages that could not be parsed.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.bounce", name = "enabled", havingValue = "true")
+public class BounceProcessor {
+
+    private final BounceProperties properties;
+    private final SuppressionList suppressionList;
+    private final BounceMailbox mailbox;
+    private final Counter permanent;
+    private final Counter transientFailures;
+    private final Counter unreadable;
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "bounce-processor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public BounceProcessor(BounceProperties properties, SuppressionList suppressionList, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.suppressionList = suppressionList;
+        this.mailbox = new BounceMailbox(properties.getMailbox(), (int) properties.getMaxMessageSize().toBytes());
+        this.permanent = meterRegistry.counter("mail.bounces", "type", "permanent");
+        this.transientFailures = meterRegistry.counter("mail.bounces", "type", "transient");
+        this.unreadable = meterRegistry.counter("mail.bounces.unreadable");
+    }
+
+    @PostConstruct
+    public void start() {
+        long intervalMillis = properties.getPollInterval().toMillis();
+        poller.scheduleWithFixedDelay(this::poll, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        poller.shutdownNow();
+    }
+
+    /**
+     * @return messages read from the mailbox
+     */
+    int poll() {
+        try {
+            int messages = mailbox.drain(this::process);
+            if (messages > 0) {
+                log.info("Read {} bounce messages from {}", messages, properties.getMailbox());
+            }
+            return messages;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Reading bounces from {} failed; retrying in {}", properties.getMailbox(), properties.getPollInterval(), e);
+            return 0;
+        }
+    }
+
+    /**
+     * @param deliveredAt when the mailbox received the message; dates its bounces if the
+     *                    message itself carries no date
+     */
+    private void process(InputStream message, LocalDateTime deliveredAt) {
+        List<Bounce> bounces;
+        try {
+            bounces = BounceParser.parse(message);
+        } catch (MessagingException | IOException | RuntimeException e) {
+            unreadable.increment();
+            log.debug("Skipping unreadable bounce message", e);
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Bounce bounce : bounces) {
+            if (bounce.permanent()) {
+                // dates stay the same when the message is read again, so it is not counted twice
+                LocalDateTime bouncedAt = bounce.bouncedAt() != null ? bounce.bouncedAt() : deliveredAt;
+                if (bouncedAt == null || bouncedAt.isAfter(now)) {
+                    // neither the message nor the mailbox dates it, or a skewed clock dated it ahead
+                    bouncedAt = now;
+                }
+                suppressionList.recordBounce(bounce.recipient(), bounce.status(), bouncedAt);
+                permanent.increment();
+            } else {
+                transientFailures.increment();
+            }
+        }
+    }
+}
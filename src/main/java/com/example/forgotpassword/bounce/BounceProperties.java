@@ -0,0 +1,39 @@
+package com.example.forgotpassword.bounce;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for {@link BounceProcessor} and {@link SuppressionList}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.bounce")
+public class BounceProperties {
+
+    /** Read bounces from {@code mailbox}; the suppression list is checked either way. */
+    private boolean enabled = false;
+
+    /** Maildir directory (with {@code new/} and {@code cur/}) or mbox file the bounces are delivered to. */
+    private Path mailbox = Path.of("data/bounces");
+
+    private Duration pollInterval = Duration.ofMinutes(1);
+
+    /** Suppression after a first hard bounce; each further bounce doubles it. */
+    private Duration suppressFor = Duration.ofDays(7);
+
+    /**
+     * Longest suppression. An address whose suppression ended this long ago is forgotten, so
+     * its next bounce counts as a first one again.
+     */
+    private Duration maxSuppression = Duration.ofDays(180);
+
+    /** How often the in-memory list is rebuilt from the table, picking up other instances' bounces. */
+    private Duration refreshInterval = Duration.ofMinutes(5);
+
+    /** Bytes of a bounce message that are parsed; DSN reports sit well within this. */
+    private DataSize maxMessageSize = DataSize.ofKilobytes(256);
+}
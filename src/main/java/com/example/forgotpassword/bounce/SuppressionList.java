@@ -0,0 +1,154 @@
+package com.example.forgotpassword.bounce;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Addresses that reset emails are not sent to because they recently hard-bounced.
+ * <p>
+ * The {@code email_suppression} table is the record; lookups go to an in-memory
+ * {@link SuppressionSet} that holds only the addresses suppressed right now. Suppression
+ * decays: the first bounce suppresses an address for {@code suppress-for}, each further one
+ * for twice as long as the last, up to {@code max-suppression}. Once an address has been
+ * clear for {@code max-suppression} its row is deleted and its history forgotten. The set is
+ * rebuilt from the table every {@code refresh-interval}, which also picks up bounces recorded
+ * by other instances. Skipped sends are counted in {@code mail.suppression.hits}.
+ */
+@Slf4j
+@Component
+public class SuppressionList {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BounceProperties properties;
+    private final Counter hits;
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "suppression-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile SuppressionSet suppressed = new SuppressionSet(0);
+
+    public SuppressionList(JdbcTemplate jdbcTemplate, BounceProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.hits = meterRegistry.counter("mail.suppression.hits");
+        Gauge.builder("mail.suppression.size", this, list -> list.suppressed.size()).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        refresh();
+        long intervalMillis = properties.getRefreshInterval().toMillis();
+        refresher.scheduleWithFixedDelay(this::refresh, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        refresher.shutdownNow();
+    }
+
+    public boolean isSuppressed(String email) {
+        boolean hit = suppressed.isSuppressed(SuppressionSet.key(email),
+                (int) (epochSecond(LocalDateTime.now()) / 60));
+        if (hit) {
+            hits.increment();
+        }
+        return hit;
+    }
+
+    /**
+     * Records a permanent delivery failure for {@code email}. A bounce no later than the last
+     * one recorded for the address is taken to be that one read again, and changes nothing.
+     *
+     * @param bouncedAt when delivery failed, as the bounce message reports it
+     * @return when the address's suppression ends
+     */
+    public synchronized LocalDateTime recordBounce(String email, String status, LocalDateTime bouncedAt) {
+        String address = email.trim().toLowerCase(Locale.ROOT);
+        List<Recorded> previous = jdbcTemplate.query(
+                "SELECT bounce_count, last_bounce_at, suppressed_until FROM email_suppression WHERE email = ?",
+                (rs, row) -> new Recorded(rs.getInt(1), rs.getTimestamp(2).toLocalDateTime(),
+                        rs.getTimestamp(3).toLocalDateTime()), address);
+        // compared at the column's precision
+        if (!previous.isEmpty() && !bouncedAt.truncatedTo(ChronoUnit.MICROS).isAfter(previous.get(0).lastBounceAt())) {
+            return previous.get(0).suppressedUntil();
+        }
+        boolean remembered = !previous.isEmpty()
+                && !previous.get(0).suppressedUntil().isBefore(bouncedAt.minus(properties.getMaxSuppression()));
+        int bounces = remembered ? previous.get(0).bounceCount() + 1 : 1;
+        LocalDateTime until = bouncedAt.plus(suppressionAfter(bounces));
+
+        int updated = bounces == 1
+                ? jdbcTemplate.update("UPDATE email_suppression SET bounce_count = 1, last_status = ?, first_bounce_at = ?, "
+                        + "last_bounce_at = ?, suppressed_until = ? WHERE email = ?", status, bouncedAt, bouncedAt, until, address)
+                : jdbcTemplate.update("UPDATE email_suppression SET bounce_count = ?, last_status = ?, last_bounce_at = ?, "
+                        + "suppressed_until = ? WHERE email = ?", bounces, status, bouncedAt, until, address);
+        if (updated == 0) {
+            jdbcTemplate.update("INSERT INTO email_suppression (email, bounce_count, last_status, first_bounce_at, "
+                    + "last_bounce_at, suppressed_until) VALUES (?, 1, ?, ?, ?, ?)", address, status, bouncedAt, bouncedAt, until);
+        }
+        suppressed.put(SuppressionSet.key(address), minute(until));
+        return until;
+    }
+
+    /**
+     * Rebuilds the in-memory set from the table, leaving out ended suppressions, and deletes
+     * rows that are past remembering.
+     */
+    public synchronized void refresh() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            jdbcTemplate.update("DELETE FROM email_suppression WHERE suppressed_until < ?",
+                    now.minus(properties.getMaxSuppression()));
+            Integer active = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM email_suppression WHERE suppressed_until > ?", Integer.class, now);
+            SuppressionSet rebuilt = new SuppressionSet(active == null ? 0 : active);
+            jdbcTemplate.query("SELECT email, suppressed_until FROM email_suppression WHERE suppressed_until > ?",
+                    rs -> {
+                        rebuilt.put(SuppressionSet.key(rs.getString(1)), minute(rs.getTimestamp(2).toLocalDateTime()));
+                    }, now);
+            suppressed = rebuilt;
+        } catch (DataAccessException e) {
+            log.warn("Could not refresh the email suppression list; keeping the previous one", e);
+        }
+    }
+
+    Duration suppressionAfter(int bounces) {
+        Duration max = properties.getMaxSuppression();
+        Duration suppression = properties.getSuppressFor();
+        for (int i = 1; i < bounces && suppression.compareTo(max) < 0; i++) {
+            suppression = suppression.multipliedBy(2);
+        }
+        return suppression.compareTo(max) < 0 ? suppression : max;
+    }
+
+    private record Recorded(int bounceCount, LocalDateTime lastBounceAt, LocalDateTime suppressedUntil) {
+    }
+
+    /** The end of a suppression, rounded up to the minute so it never ends early. */
+    private static int minute(LocalDateTime until) {
+        return (int) Math.ceilDiv(epochSecond(until), 60);
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.forgotpassword.bounce;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+
+/**
+ * Open-addressing hash table from a 64-bit digest of an address to the minute its
+ * suppression ends: 12 bytes per address, no per-entry objects. Two addresses sharing a
+ * truncated SHA-256 digest are not a practical concern.
+ */
+final class SuppressionSet {
+
+    private static final long EMPTY = 0;
+
+    private long[] keys;
+    private int[] untilMinute;
+    private int size;
+
+    SuppressionSet(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        keys = new long[capacity];
+        untilMinute = new int[capacity];
+    }
+
+    static long key(String email) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(email.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8));
+            long key = 0;
+            for (int i = 0; i < 8; i++) {
+                key = (key << 8) | (digest[i] & 0xFF);
+            }
+            return key == EMPTY ? 1 : key;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Sets the end of {@code key}'s suppression, replacing an earlier one. */
+    synchronized void put(long key, int untilMinute) {
+        if ((size + 1) * 4 > keys.length * 3) {
+            resize(keys.length << 1);
+        }
+        int slot = slot(keys, key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        this.untilMinute[slot] = untilMinute;
+    }
+
+    synchronized boolean isSuppressed(long key, int nowMinute) {
+        int slot = slot(keys, key);
+        return keys[slot] == key && untilMinute[slot] > nowMinute;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldUntil = untilMinute;
+        keys = new long[capacity];
+        untilMinute = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                untilMinute[slot] = oldUntil[i];
+            }
+        }
+    }
+
+    private static int slot(long[] keys, long key) {
+        int mask = keys.length - 1;
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
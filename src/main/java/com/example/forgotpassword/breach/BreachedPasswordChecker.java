@@ -0,0 +1,88 @@
+package com.example.forgotpassword.breach;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks passwords against the offline breached-password index configured by
+ * {@code app.breached-passwords.index-file}.
+ * <p>
+ * The file is polled for changes and swapped in without a restart; lookups keep using the
+ * previous index until the new one has been opened and validated. If no usable index is
+ * available the check passes, so a missing file never blocks password resets.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.breached-passwords", name = "enabled", havingValue = "true")
+public class BreachedPasswordChecker {
+
+    private final Path indexFile;
+    private final Duration reloadInterval;
+    private final ScheduledExecutorService reloader = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "breached-index-reloader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile BreachedPasswordIndex index;
+    private volatile Object loadedVersion;
+
+    public BreachedPasswordChecker(@Value("${app.breached-passwords.index-file}") Path indexFile,
+                                   @Value("${app.breached-passwords.reload-interval:60s}") Duration reloadInterval) {
+        this.indexFile = indexFile;
+        this.reloadInterval = reloadInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        reloadIfChanged();
+        long intervalMillis = reloadInterval.toMillis();
+        reloader.scheduleWithFixedDelay(this::reloadIfChanged, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        reloader.shutdownNow();
+    }
+
+    public boolean isBreached(String password) {
+        BreachedPasswordIndex current = index;
+        return current != null && current.contains(password);
+    }
+
+    void reloadIfChanged() {
+        try {
+            if (!Files.exists(indexFile)) {
+                return;
+            }
+            BasicFileAttributes attributes = Files.readAttributes(indexFile, BasicFileAttributes.class);
+            Object version = attributes.fileKey() != null
+                    ? attributes.fileKey() + "@" + attributes.lastModifiedTime()
+                    : attributes.lastModifiedTime() + "/" + attributes.size();
+            if (version.equals(loadedVersion)) {
+                return;
+            }
+
+            BreachedPasswordIndex reloaded = BreachedPasswordIndex.open(indexFile);
+            index = reloaded;
+            loadedVersion = version;
+            log.info("Loaded breached-password index {} ({} {} prefixes)",
+                    indexFile, reloaded.size(), reloaded.getAlgorithm());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not load breached-password index {}; keeping the previous one", indexFile, e);
+        }
+    }
+}
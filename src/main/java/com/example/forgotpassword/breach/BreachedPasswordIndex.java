@@ -0,0 +1,193 @@
+package com.example.forgotpassword.breach;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Read-only view of a breached-password index file.
+ * <p>
+ * File layout (big-endian):
+ * <pre>
+ * offset 0   "BPIX"             magic
+ * offset 4   version            1 byte, currently 1
+ * offset 5   algorithm          1 byte, see {@link HashAlgorithm}
+ * offset 6   reserved           2 bytes
+ * offset 8   record count       8 bytes
+ * offset 16  records            count x 8 bytes, the first 64 bits of each hash,
+ *                               sorted as unsigned values, no duplicates
+ * </pre>
+ * The record area is memory-mapped and searched in place, so lookups never copy the index
+ * onto the heap. Files larger than 2 GB are mapped in several chunks.
+ */
+public final class BreachedPasswordIndex {
+
+    static final byte[] MAGIC = {'B', 'P', 'I', 'X'};
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = Long.BYTES;
+
+    // 2^27 records = 1 GB per mapping; a single MappedByteBuffer is limited to 2 GB - 1
+    private static final int RECORDS_PER_CHUNK_SHIFT = 27;
+    private static final long RECORDS_PER_CHUNK_MASK = (1L << RECORDS_PER_CHUNK_SHIFT) - 1;
+
+    // Interpolation steps tried before falling back to plain bisection
+    private static final int MAX_INTERPOLATION_STEPS = 8;
+
+    public enum HashAlgorithm {
+        /** SHA-1 of the UTF-8 password, as in the Have I Been Pwned SHA-1 dumps. */
+        SHA1(1),
+        /** NTLM, i.e. MD4 of the UTF-16LE password, as in the Have I Been Pwned NTLM dumps. */
+        NTLM(2);
+
+        private final byte id;
+
+        HashAlgorithm(int id) {
+            this.id = (byte) id;
+        }
+
+        byte id() {
+            return id;
+        }
+
+        static HashAlgorithm fromId(byte id) {
+            for (HashAlgorithm algorithm : values()) {
+                if (algorithm.id == id) {
+                    return algorithm;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported hash algorithm id " + id);
+        }
+
+        long prefixOf(String password) {
+            byte[] digest = switch (this) {
+                case SHA1 -> sha1(password.getBytes(StandardCharsets.UTF_8));
+                case NTLM -> Md4.digest(password.getBytes(StandardCharsets.UTF_16LE));
+            };
+            return ByteBuffer.wrap(digest).getLong();
+        }
+
+        private static byte[] sha1(byte[] input) {
+            try {
+                return MessageDigest.getInstance("SHA-1").digest(input);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private final HashAlgorithm algorithm;
+    private final long size;
+    private final MappedByteBuffer[] chunks;
+
+    private BreachedPasswordIndex(HashAlgorithm algorithm, long size, MappedByteBuffer[] chunks) {
+        this.algorithm = algorithm;
+        this.size = size;
+        this.chunks = chunks;
+    }
+
+    public static BreachedPasswordIndex open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading until the header is complete or the file ends
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE) {
+                throw new IOException("Breached-password index too short: " + file);
+            }
+
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC) || header.get() != VERSION) {
+                throw new IOException("Not a breached-password index (bad magic or version): " + file);
+            }
+            HashAlgorithm algorithm = HashAlgorithm.fromId(header.get());
+            header.getShort();
+            long size = header.getLong();
+
+            if (channel.size() != HEADER_SIZE + size * RECORD_SIZE) {
+                throw new IOException("Breached-password index truncated: expected " + size + " records in " + file);
+            }
+
+            int chunkCount = (int) ((size + RECORDS_PER_CHUNK_MASK) >>> RECORDS_PER_CHUNK_SHIFT);
+            MappedByteBuffer[] chunks = new MappedByteBuffer[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                long firstRecord = (long) i << RECORDS_PER_CHUNK_SHIFT;
+                long records = Math.min(size - firstRecord, 1L << RECORDS_PER_CHUNK_SHIFT);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        HEADER_SIZE + firstRecord * RECORD_SIZE, records * RECORD_SIZE);
+                chunks[i].order(ByteOrder.BIG_ENDIAN);
+            }
+            // the mappings stay valid after the channel is closed
+            return new BreachedPasswordIndex(algorithm, size, chunks);
+        }
+    }
+
+    public HashAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean contains(String password) {
+        return containsPrefix(algorithm.prefixOf(password));
+    }
+
+    /**
+     * Looks up a 64-bit hash prefix. Hash prefixes are close to uniformly distributed, so
+     * interpolation search usually lands within a few records of the target; bisection takes
+     * over if the probes stop converging.
+     */
+    boolean containsPrefix(long prefix) {
+        long lo = 0;
+        long hi = size - 1;
+        int interpolationSteps = 0;
+
+        while (lo <= hi) {
+            long loValue = recordAt(lo);
+            long hiValue = recordAt(hi);
+            if (Long.compareUnsigned(prefix, loValue) < 0 || Long.compareUnsigned(prefix, hiValue) > 0) {
+                return false;
+            }
+
+            long mid;
+            if (interpolationSteps++ < MAX_INTERPOLATION_STEPS && hiValue != loValue) {
+                double fraction = unsignedToDouble(prefix - loValue) / unsignedToDouble(hiValue - loValue);
+                mid = Math.min(hi, lo + (long) (fraction * (hi - lo)));
+            } else {
+                mid = (lo + hi) >>> 1;
+            }
+
+            int cmp = Long.compareUnsigned(recordAt(mid), prefix);
+            if (cmp == 0) {
+                return true;
+            } else if (cmp < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return false;
+    }
+
+    private long recordAt(long index) {
+        MappedByteBuffer chunk = chunks[(int) (index >>> RECORDS_PER_CHUNK_SHIFT)];
+        return chunk.getLong((int) ((index & RECORDS_PER_CHUNK_MASK) * RECORD_SIZE));
+    }
+
+    private static double unsignedToDouble(long value) {
+        double d = (double) (value >>> 1) * 2.0;
+        return d + (value & 1);
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.forgotpassword.breach;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Converts a plain-text breach dump into the {@link BreachedPasswordIndex} format.
+ * <p>
+ * Input lines are either hex hashes, optionally followed by {@code :count} as in the Have I
+ * Been Pwned downloads, or raw passwords when {@code --plaintext} is given. The input does not
+ * need to be sorted: prefixes are sorted in memory-sized runs and merged, so a dump with
+ * hundreds of millions of lines only needs {@code --run-size} x 8 bytes of heap.
+ * <pre>
+ * java -cp forgot-password.jar -Dloader.main=com.example.forgotpassword.breach.BreachedPasswordIndexBuilder \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher \
+ *      pwned-passwords-sha1-ordered-by-hash.txt breached.idx [--algorithm=SHA1|NTLM] [--plaintext] [--run-size=N]
+ * </pre>
+ * The output is written to a temporary file and moved into place atomically, so a running
+ * application watching the file never sees a half-written index.
+ */
+public final class BreachedPasswordIndexBuilder {
+
+    private static final int DEFAULT_RUN_SIZE = 32 * 1024 * 1024;
+
+    private final BreachedPasswordIndex.HashAlgorithm algorithm;
+    private final boolean plaintext;
+    private final int runSize;
+
+    public BreachedPasswordIndexBuilder(BreachedPasswordIndex.HashAlgorithm algorithm, boolean plaintext, int runSize) {
+        this.algorithm = algorithm;
+        this.plaintext = plaintext;
+        this.runSize = runSize;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BreachedPasswordIndexBuilder <input> <output> "
+                    + "[--algorithm=SHA1|NTLM] [--plaintext] [--run-size=N]");
+            System.exit(2);
+        }
+
+        BreachedPasswordIndex.HashAlgorithm algorithm = BreachedPasswordIndex.HashAlgorithm.SHA1;
+        boolean plaintext = false;
+        int runSize = DEFAULT_RUN_SIZE;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].startsWith("--algorithm=")) {
+                algorithm = BreachedPasswordIndex.HashAlgorithm.valueOf(args[i].substring("--algorithm=".length()));
+            } else if (args[i].equals("--plaintext")) {
+                plaintext = true;
+            } else if (args[i].startsWith("--run-size=")) {
+                runSize = Integer.parseInt(args[i].substring("--run-size=".length()));
+            } else {
+                throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        long start = System.nanoTime();
+        long count = new BreachedPasswordIndexBuilder(algorithm, plaintext, runSize)
+                .build(Path.of(args[0]), Path.of(args[1]));
+        System.out.printf("Wrote %d prefixes to %s in %d s%n",
+                count, args[1], (System.nanoTime() - start) / 1_000_000_000L);
+    }
+
+    /**
+     * @return number of distinct prefixes written
+     */
+    public long build(Path input, Path output) throws IOException {
+        Path workDir = Files.createTempDirectory(output.toAbsolutePath().getParent(), "bpix-runs");
+        try {
+            List<Path> runs = writeSortedRuns(input, workDir);
+            Path tmp = workDir.resolve("index.tmp");
+            long count = mergeRuns(runs, tmp);
+            Files.move(tmp, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return count;
+        } finally {
+            try (var files = Files.list(workDir)) {
+                files.forEach(BreachedPasswordIndexBuilder::deleteQuietly);
+            }
+            deleteQuietly(workDir);
+        }
+    }
+
+    private List<Path> writeSortedRuns(Path input, Path workDir) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        // values are stored with the sign bit flipped so a signed sort yields unsigned order
+        long[] buffer = new long[runSize];
+        int filled = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                buffer[filled++] = prefixOf(line) ^ Long.MIN_VALUE;
+                if (filled == buffer.length) {
+                    runs.add(writeRun(buffer, filled, workDir, runs.size()));
+                    filled = 0;
+                }
+            }
+        }
+        if (filled > 0 || runs.isEmpty()) {
+            runs.add(writeRun(buffer, filled, workDir, runs.size()));
+        }
+        return runs;
+    }
+
+    private long prefixOf(String line) {
+        if (plaintext) {
+            return algorithm.prefixOf(line);
+        }
+        int end = line.indexOf(':');
+        String hex = (end < 0 ? line : line.substring(0, end)).trim();
+        if (hex.length() < 16) {
+            throw new IllegalArgumentException("Hash too short: " + line);
+        }
+        return HexFormat.fromHexDigitsToLong(hex, 0, 16);
+    }
+
+    private static Path writeRun(long[] buffer, int length, Path workDir, int runNumber) throws IOException {
+        Arrays.sort(buffer, 0, length);
+        Path run = workDir.resolve("run-" + runNumber);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+            for (int i = 0; i < length; i++) {
+                out.writeLong(buffer[i]);
+            }
+        }
+        return run;
+    }
+
+    private long mergeRuns(List<Path> runs, Path target) throws IOException {
+        PriorityQueue<RunReader> heads = new PriorityQueue<>();
+        long count = 0;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(target), 1 << 16))) {
+            out.write(BreachedPasswordIndex.MAGIC);
+            out.writeByte(BreachedPasswordIndex.VERSION);
+            out.writeByte(algorithm.id());
+            out.writeShort(0);
+            out.writeLong(0); // patched below once the count is known
+
+            for (Path run : runs) {
+                RunReader reader = new RunReader(run);
+                if (reader.advance()) {
+                    heads.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+
+            boolean first = true;
+            long previous = 0;
+            while (!heads.isEmpty()) {
+                RunReader reader = heads.poll();
+                long value = reader.current;
+                if (first || value != previous) {
+                    out.writeLong(value ^ Long.MIN_VALUE);
+                    previous = value;
+                    first = false;
+                    count++;
+                }
+                if (reader.advance()) {
+                    heads.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+        } finally {
+            for (RunReader reader : heads) {
+                reader.close();
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, count), 8);
+            channel.force(true);
+        }
+        return count;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class RunReader implements Comparable<RunReader>, AutoCloseable {
+        private final DataInputStream in;
+        private long current;
+
+        RunReader(Path run) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), 1 << 16));
+        }
+
+        boolean advance() throws IOException {
+            try {
+                current = in.readLong();
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public int compareTo(RunReader other) {
+            return Long.compare(current, other.current);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.forgotpassword.breach;
+
+/**
+ * MD4 (RFC 1320), needed for NTLM hashes. The JDK ships an MD4 implementation but does not
+ * expose it through a standard security provider.
+ */
+final class Md4 {
+
+    private Md4() {
+    }
+
+    static byte[] digest(byte[] input) {
+        int paddedLength = ((input.length + 8) / 64 + 1) * 64;
+        byte[] padded = new byte[paddedLength];
+        System.arraycopy(input, 0, padded, 0, input.length);
+        padded[input.length] = (byte) 0x80;
+        long bitLength = (long) input.length * 8;
+        for (int i = 0; i < 8; i++) {
+            padded[paddedLength - 8 + i] = (byte) (bitLength >>> (8 * i));
+        }
+
+        int a = 0x67452301;
+        int b = 0xefcdab89;
+        int c = 0x98badcfe;
+        int d = 0x10325476;
+        int[] x = new int[16];
+
+        for (int block = 0; block < paddedLength; block += 64) {
+            for (int i = 0; i < 16; i++) {
+                int p = block + i * 4;
+                x[i] = (padded[p] & 0xff) | (padded[p + 1] & 0xff) << 8
+                        | (padded[p + 2] & 0xff) << 16 | (padded[p + 3] & 0xff) << 24;
+            }
+            int aa = a, bb = b, cc = c, dd = d;
+
+            for (int i = 0; i < 16; i += 4) {
+                a = Integer.rotateLeft(a + ((b & c) | (~b & d)) + x[i], 3);
+                d = Integer.rotateLeft(d + ((a & b) | (~a & c)) + x[i + 1], 7);
+                c = Integer.rotateLeft(c + ((d & a) | (~d & b)) + x[i + 2], 11);
+                b = Integer.rotateLeft(b + ((c & d) | (~c & a)) + x[i + 3], 19);
+            }
+            for (int i = 0; i < 4; i++) {
+                a = Integer.rotateLeft(a + ((b & c) | (b & d) | (c & d)) + x[i] + 0x5a827999, 3);
+                d = Integer.rotateLeft(d + ((a & b) | (a & c) | (b & c)) + x[i + 4] + 0x5a827999, 5);
+                c = Integer.rotateLeft(c + ((d & a) | (d & b) | (a & b)) + x[i + 8] + 0x5a827999, 9);
+                b = Integer.rotateLeft(b + ((c & d) | (c & a) | (d & a)) + x[i + 12] + 0x5a827999, 13);
+            }
+            int[] order = {0, 2, 1, 3};
+            for (int i : order) {
+                a = Integer.rotateLeft(a + (b ^ c ^ d) + x[i] + 0x6ed9eba1, 3);
+                d = Integer.rotateLeft(d + (a ^ b ^ c) + x[i + 8] + 0x6ed9eba1, 9);
+                c = Integer.rotateLeft(c + (d ^ a ^ b) + x[i + 4] + 0x6ed9eba1, 11);
+                b = Integer.rotateLeft(b + (c ^ d ^ a) + x[i + 12] + 0x6ed9eba1, 15);
+            }
+
+            a += aa;
+            b += bb;
+            c += cc;
+            d += dd;
+        }
+
+        byte[] out = new byte[16];
+        int[] words = {a, b, c, d};
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                out[i * 4 + j] = (byte) (words[i] >>> (8 * j));
+            }
+        }
+        return out;
+    }
+}
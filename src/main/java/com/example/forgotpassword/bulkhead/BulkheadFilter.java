@@ -0,0 +1,67 @@
+package com.example.forgotpassword.bulkhead;
+
+import com.example.forgotpassword.config.RefusedRequests;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Classifies each request into a {@link Workload}, admits it through {@link WorkloadBulkheads}
+ * and sets {@link WorkloadContext} so its queries use that workload's connection pool. A
+ * request that is not admitted gets {@code 503} and a {@code Retry-After}, written as
+ * {@link RefusedRequests} describes.
+ */
+@RequiredArgsConstructor
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    private static final Set<String> RESET_PATHS = Set.of("/forgot-password", "/reset-password", "/reset-success");
+    private static final String RESET_API_PREFIX = "/api/v1/password/";
+
+    private final WorkloadBulkheads bulkheads;
+    private final BulkheadProperties properties;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Workload workload = classify(request);
+        if (bulkheads.tryEnter(workload) != WorkloadBulkheads.Admission.ADMITTED) {
+            RefusedRequests.refuse(request, response, HttpStatus.SERVICE_UNAVAILABLE, properties.getRetryAfter(),
+                    "busy", "Server busy, please retry shortly");
+            return;
+        }
+
+        WorkloadContext.set(workload);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            WorkloadContext.clear();
+            bulkheads.exit(workload);
+        }
+    }
+
+    static Workload classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (RESET_PATHS.contains(path) || path.startsWith(RESET_API_PREFIX)) {
+            return Workload.RESET;
+        }
+        if (path.equals("/login") || isSignedIn(request)) {
+            return Workload.LOGIN;
+        }
+        return Workload.DEFAULT;
+    }
+
+    private static boolean isSignedIn(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        return session != null
+                && session.getAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY) != null;
+    }
+}
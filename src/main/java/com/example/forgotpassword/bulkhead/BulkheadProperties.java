@@ -0,0 +1,67 @@
+package com.example.forgotpassword.bulkhead;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Connection pool size and concurrent request budget per {@link Workload}. The pools share
+ * the {@code spring.datasource.*} connection settings.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.bulkhead")
+public class BulkheadProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Once this many requests are in flight across all workloads, reset requests are refused
+     * so the remaining threads go to login and signed-in traffic. {@code 0} disables it.
+     */
+    private int shedResetAbove = 150;
+
+    /** Sent as {@code Retry-After} with the 503 for refused requests. */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    // 10 connections per shard in all, as many as the single pool they replace
+    private Limits login = new Limits(4, 100);
+
+    private Limits reset = new Limits(3, 60);
+
+    private Limits defaults = new Limits(3, 0);
+
+    public Limits limitsFor(Workload workload) {
+        return switch (workload) {
+            case LOGIN -> login;
+            case RESET -> reset;
+            case DEFAULT -> defaults;
+        };
+    }
+
+    /**
+     * @return the connections each instance opens per shard, which is also the size of the
+     *         single pool used when bulkheads are disabled
+     */
+    public int totalPoolSize() {
+        return login.getPoolSize() + reset.getPoolSize() + defaults.getPoolSize();
+    }
+
+    @Data
+    public static class Limits {
+
+        /** Maximum connections in this workload's Hikari pool. */
+        private int poolSize;
+
+        /** Requests of this workload served at once; {@code 0} means no cap. */
+        private int maxConcurrent;
+
+        public Limits() {
+        }
+
+        public Limits(int poolSize, int maxConcurrent) {
+            this.poolSize = poolSize;
+            this.maxConcurrent = maxConcurrent;
+        }
+    }
+}
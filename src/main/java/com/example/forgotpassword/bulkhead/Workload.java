@@ -0,0 +1,16 @@
+package com.example.forgotpassword.bulkhead;
+
+/**
+ * Classes of traffic that get their own connection pool and request budget.
+ */
+public enum Workload {
+
+    /** Sign-in and requests from signed-in users; protected first when resources run short. */
+    LOGIN,
+
+    /** Public forgot-password and reset-password pages and their JSON API. */
+    RESET,
+
+    /** Everything else: admin API, background jobs, startup. */
+    DEFAULT
+}
@@ -0,0 +1,86 @@
+package com.example.forgotpassword.bulkhead;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-workload budgets of concurrently served requests, i.e. of Tomcat threads.
+ * <p>
+ * Each workload is capped at its own {@code max-concurrent}. On top of that, reset requests
+ * are refused while total in-flight requests exceed {@code shed-reset-above}, so a flood of
+ * reset traffic cannot take the threads that sign-ins need.
+ */
+@Component
+public class WorkloadBulkheads {
+
+    public enum Admission { ADMITTED, FULL, SHED_FOR_PRIORITY }
+
+    private final BulkheadProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<Workload, Semaphore> permits = new EnumMap<>(Workload.class);
+    private final Map<Workload, AtomicInteger> inFlight = new EnumMap<>(Workload.class);
+    private final AtomicInteger totalInFlight = new AtomicInteger();
+
+    public WorkloadBulkheads(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        for (Workload workload : Workload.values()) {
+            int max = properties.limitsFor(workload).getMaxConcurrent();
+            if (max > 0) {
+                permits.put(workload, new Semaphore(max));
+            }
+            AtomicInteger count = new AtomicInteger();
+            inFlight.put(workload, count);
+
+            Tags tags = Tags.of("workload", tag(workload));
+            meterRegistry.gauge("bulkhead.in-flight", tags, count);
+            if (max > 0) {
+                meterRegistry.gauge("bulkhead.utilization", tags, count, c -> (double) c.get() / max);
+            }
+        }
+    }
+
+    public Admission tryEnter(Workload workload) {
+        if (workload == Workload.RESET && properties.getShedResetAbove() > 0
+                && totalInFlight.get() >= properties.getShedResetAbove()) {
+            return reject(workload, Admission.SHED_FOR_PRIORITY);
+        }
+        Semaphore semaphore = permits.get(workload);
+        if (semaphore != null && !semaphore.tryAcquire()) {
+            return reject(workload, Admission.FULL);
+        }
+        inFlight.get(workload).incrementAndGet();
+        totalInFlight.incrementAndGet();
+        return Admission.ADMITTED;
+    }
+
+    public void exit(Workload workload) {
+        totalInFlight.decrementAndGet();
+        inFlight.get(workload).decrementAndGet();
+        Semaphore semaphore = permits.get(workload);
+        if (semaphore != null) {
+            semaphore.release();
+        }
+    }
+
+    public int inFlight(Workload workload) {
+        return inFlight.get(workload).get();
+    }
+
+    private Admission reject(Workload workload, Admission reason) {
+        meterRegistry.counter("bulkhead.rejected", "workload", tag(workload),
+                "reason", reason.name().toLowerCase(Locale.ROOT)).increment();
+        return reason;
+    }
+
+    private static String tag(Workload workload) {
+        return workload.name().toLowerCase(Locale.ROOT);
+    }
+}
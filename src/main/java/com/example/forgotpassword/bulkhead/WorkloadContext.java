@@ -0,0 +1,27 @@
+package com.example.forgotpassword.bulkhead;
+
+/**
+ * The {@link Workload} the current thread is serving, read by {@link WorkloadRoutingDataSource}
+ * to pick a connection pool. Threads that never set one (background jobs) use
+ * {@link Workload#DEFAULT}.
+ */
+public final class WorkloadContext {
+
+    private static final ThreadLocal<Workload> CURRENT = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    public static Workload current() {
+        Workload workload = CURRENT.get();
+        return workload == null ? Workload.DEFAULT : workload;
+    }
+
+    public static void set(Workload workload) {
+        CURRENT.set(workload);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
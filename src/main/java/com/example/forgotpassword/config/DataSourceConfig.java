@@ -0,0 +1,118 @@
+package com.example.forgotpassword.config;
+
+import com.example.forgotpassword.bulkhead.BulkheadProperties;
+import com.example.forgotpassword.bulkhead.Workload;
+import com.example.forgotpassword.bulkhead.WorkloadRoutingDataSource;
+import com.example.forgotpassword.shard.ShardRoutingDataSource;
+import com.example.forgotpassword.shard.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Connection pools, one per shard and {@link Workload}.
+ * <p>
+ * Each workload gets its own Hikari pool, so a burst of reset traffic can exhaust only its own
+ * connections. Pools share the {@code spring.datasource.*} and {@code spring.datasource.hikari.*}
+ * settings; their sizes come from {@code app.bulkhead.*.pool-size}. Each pool reports the
+ * usual {@code hikaricp.connections.*} metrics, tagged with the pool name. With
+ * {@code app.bulkhead.enabled=false} each shard has a single pool as large as the workload
+ * pools together, so the connections opened per shard do not change.
+ * <p>
+ * The application's {@link DataSource} picks the shard from
+ * {@link com.example.forgotpassword.shard.ShardContext} when a connection is first used, and
+ * Flyway migrates every shard.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean(defaultCandidate = false)
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                         ShardingProperties shardingProperties,
+                                                         BulkheadProperties bulkheadProperties,
+                                                         Environment environment,
+                                                         MeterRegistry meterRegistry) {
+        List<ShardingProperties.Shard> configured = shardingProperties.getShards();
+        List<DataSource> shards = new ArrayList<>();
+        for (int shard = 0; shard < shardingProperties.shardCount(); shard++) {
+            ShardingProperties.Shard target = configured.isEmpty() ? null : configured.get(shard);
+            String prefix = configured.isEmpty() ? "" : "shard" + shard + "-";
+
+            if (!bulkheadProperties.isEnabled()) {
+                shards.add(pool(dataSourceProperties, target, prefix + "default",
+                        bulkheadProperties.totalPoolSize(), environment, meterRegistry));
+                continue;
+            }
+            Map<Workload, DataSource> pools = new EnumMap<>(Workload.class);
+            for (Workload workload : Workload.values()) {
+                pools.put(workload, pool(dataSourceProperties, target, prefix + workload.name().toLowerCase(Locale.ROOT),
+                        bulkheadProperties.limitsFor(workload).getPoolSize(), environment, meterRegistry));
+            }
+            shards.add(new WorkloadRoutingDataSource(pools));
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("shardRoutingDataSource") ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    public FlywayMigrationStrategy shardedFlywayMigration(
+            @Qualifier("shardRoutingDataSource") ShardRoutingDataSource shardRoutingDataSource) {
+        return flyway -> {
+            for (int shard = 0; shard < shardRoutingDataSource.shardCount(); shard++) {
+                Map<String, String> placeholders = new HashMap<>(flyway.getConfiguration().getPlaceholders());
+                placeholders.put("shard", String.valueOf(shard));
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shardRoutingDataSource.shard(shard))
+                        .placeholders(placeholders)
+                        .load()
+                        .migrate();
+            }
+        };
+    }
+
+    private static HikariDataSource pool(DataSourceProperties dataSourceProperties, ShardingProperties.Shard shard,
+                                         String name, int size, Environment environment, MeterRegistry meterRegistry) {
+        DataSourceBuilder<?> builder = dataSourceProperties.initializeDataSourceBuilder();
+        if (shard != null) {
+            builder.url(shard.getUrl());
+            if (shard.getUsername() != null) {
+                builder.username(shard.getUsername());
+            }
+            if (shard.getPassword() != null) {
+                builder.password(shard.getPassword());
+            }
+        }
+        HikariDataSource pool = builder.type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setMaximumPoolSize(size);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
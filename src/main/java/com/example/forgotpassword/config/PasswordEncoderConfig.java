@@ -0,0 +1,23 @@
+package com.example.forgotpassword.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Shared by the servlet and the reactive stack, unlike the rest of the security setup.
+ */
+@Configuration
+public class PasswordEncoderConfig {
+
+    /**
+     * Raising the strength takes effect for existing accounts on their next successful login,
+     * when the stored hash is re-encoded.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${app.security.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.forgotpassword.config;
+
+import com.example.forgotpassword.dto.PasswordApiError;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Answers for requests the filters in {@link WebFilterConfig} turn away. They are written
+ * directly rather than with {@code sendError}: that dispatches to {@code /error}, which Spring
+ * Security only lets signed-in users see, so anonymous clients would get a redirect to the
+ * login page instead of the status and {@code Retry-After}.
+ * <p>
+ * The JSON API gets a {@link PasswordApiError} body, everything else a line of text.
+ */
+public final class RefusedRequests {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String API_PREFIX = "/api/";
+
+    private RefusedRequests() {
+    }
+
+    /**
+     * @param retryAfter sent as whole seconds, rounded up so that a client retrying on time is
+     *                   past the limit; {@code null} for none
+     * @param error      the API's error code
+     * @param message    the text for everyone else
+     */
+    public static void refuse(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+                              Duration retryAfter, String error, String message) throws IOException {
+        response.resetBuffer();
+        response.setStatus(status.value());
+        if (retryAfter != null) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (retryAfter.toMillis() + 999) / 1000)));
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        if (request.getRequestURI().startsWith(request.getContextPath() + API_PREFIX)) {
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(JSON.writeValueAsString(PasswordApiError.of(error)));
+        } else {
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getWriter().write(message);
+        }
+        response.flushBuffer();
+    }
+}
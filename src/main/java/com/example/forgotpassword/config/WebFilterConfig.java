@@ -0,0 +1,67 @@
+package com.example.forgotpassword.config;
+
+import com.example.forgotpassword.abuse.AbuseProperties;
+import com.example.forgotpassword.abuse.ResetAbuseFilter;
+import com.example.forgotpassword.abuse.ResetTrafficMonitor;
+import com.example.forgotpassword.bulkhead.BulkheadFilter;
+import com.example.forgotpassword.bulkhead.BulkheadProperties;
+import com.example.forgotpassword.bulkhead.WorkloadBulkheads;
+import com.example.forgotpassword.limiter.AdaptiveConcurrencyLimiter;
+import com.example.forgotpassword.limiter.ConcurrencyLimitFilter;
+import com.example.forgotpassword.limiter.LimiterProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Servlet filters that run ahead of Spring Security, so rejected requests cost as little as
+ * possible.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class WebFilterConfig {
+
+    @Bean
+    public FilterRegistrationBean<ResetAbuseFilter> resetAbuseFilter(ResetTrafficMonitor monitor,
+                                                                     AbuseProperties properties,
+                                                                     ObjectMapper objectMapper) {
+        FilterRegistrationBean<ResetAbuseFilter> registration =
+                new FilterRegistrationBean<>(new ResetAbuseFilter(monitor, properties, objectMapper));
+        registration.addUrlPatterns("/forgot-password", "/reset-password", "/api/v1/password/*");
+        // after the bulkhead, before the limiter: refused requests never count as in flight
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 6);
+        return registration;
+    }
+
+    /**
+     * Covers every request: it also picks the connection pool the request's queries use.
+     * Runs first, so every request, including the ones the abuse filter refuses, is bounded.
+     */
+    @Bean
+    public FilterRegistrationBean<BulkheadFilter> bulkheadFilter(WorkloadBulkheads bulkheads,
+                                                                 BulkheadProperties properties) {
+        FilterRegistrationBean<BulkheadFilter> registration =
+                new FilterRegistrationBean<>(new BulkheadFilter(bulkheads, properties));
+        registration.addUrlPatterns("/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 7);
+        registration.setEnabled(properties.isEnabled());
+        return registration;
+    }
+
+    /**
+     * Runs after the abuse filter, so requests it refuses do not count as in flight.
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter,
+                                                                               LimiterProperties properties) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(limiter, properties));
+        registration.addUrlPatterns("/forgot-password", "/reset-password", "/reset-success", "/api/v1/password/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 5);
+        registration.setEnabled(properties.isEnabled());
+        return registration;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.forgotpassword.controller;
+
+import com.example.forgotpassword.abuse.HeavyHitter;
+import com.example.forgotpassword.abuse.ResetTrafficMonitor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Current heavy hitters of forgot-password and reset traffic.
+ * <pre>
+ * curl -u admin '/admin/abuse/heavy-hitters?limit=10'
+ * </pre>
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/admin/abuse")
+@RequiredArgsConstructor
+public class AdminAbuseController {
+
+    private final ResetTrafficMonitor resetTrafficMonitor;
+
+    @GetMapping("/heavy-hitters")
+    public Map<String, List<HeavyHitter>> heavyHitters(@RequestParam(defaultValue = "20") int limit) {
+        return resetTrafficMonitor.heavyHitters(limit);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.forgotpassword.controller;
+
+import com.example.forgotpassword.dto.BulkResetFilter;
+import com.example.forgotpassword.dto.BulkResetProgress;
+import com.example.forgotpassword.entity.BulkResetJob;
+import com.example.forgotpassword.service.BulkPasswordResetService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Admin entry point for forced password resets.
+ * <pre>
+ * curl -u admin -H 'Content-Type: text/csv' --data-binary @accounts.csv /admin/password-resets/bulk
+ * curl -u admin -H 'Content-Type: application/json' -d '{"emailDomain":"example.com"}' /admin/password-resets/bulk
+ * curl -u admin /admin/password-resets/bulk/42
+ * </pre>
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/admin/password-resets/bulk")
+@RequiredArgsConstructor
+public class AdminBulkResetController {
+
+    private final BulkPasswordResetService bulkPasswordResetService;
+
+    @PostMapping(consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<BulkResetProgress> startFromCsv(HttpServletRequest request) throws IOException {
+        // read straight from the request stream so large lists are never held in memory
+        return accepted(bulkPasswordResetService.startFromCsv(request.getInputStream()));
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkResetProgress> startFromFilter(@RequestBody BulkResetFilter filter) {
+        return accepted(bulkPasswordResetService.startFromFilter(filter));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<BulkResetProgress> progress(@PathVariable Long id) {
+        return bulkPasswordResetService.findJob(id)
+                .map(job -> ResponseEntity.ok(BulkResetProgress.of(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private static ResponseEntity<BulkResetProgress> accepted(BulkResetJob job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/admin/password-resets/bulk/" + job.getId()))
+                .body(BulkResetProgress.of(job));
+    }
+}
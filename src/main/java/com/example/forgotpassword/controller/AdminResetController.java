@@ -0,0 +1,127 @@
+package com.example.forgotpassword.controller;
+
+import com.example.forgotpassword.shard.OutstandingReset;
+import com.example.forgotpassword.shard.ResetFilter;
+import com.example.forgotpassword.shard.ShardedUserQueries;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Lists users holding a reset token, oldest expiry first, as NDJSON (the default) or CSV.
+ * <pre>
+ * curl -u admin '/admin/resets?status=EXPIRED&amp;domain=example.com&amp;limit=1000'
+ * curl -u admin '/admin/resets?expiresFrom=2026-10-01T00:00&amp;expiresTo=2026-10-02T00:00&amp;format=csv'
+ * </pre>
+ * Pass the {@code resetTokenExpiry} and {@code id} of the last row as {@code afterExpiry} and
+ * {@code afterId} to get the next page; {@code afterId} alone is refused. Rows are written as
+ * they are read, so a full export ({@code limit} up to a million) is never held in memory.
+ * <p>
+ * CSV fields that a spreadsheet would read as a formula (starting with {@code =}, {@code +},
+ * {@code -}, {@code @}, tab or carriage return) are prefixed with {@code '}.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/admin/resets")
+@RequiredArgsConstructor
+public class AdminResetController {
+
+    private static final long MAX_LIMIT = 1_000_000;
+
+    private final ShardedUserQueries shardedUserQueries;
+    private final ObjectMapper objectMapper;
+
+    @GetMapping
+    public void list(@RequestParam(defaultValue = "ALL") ResetFilter.Status status,
+                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime expiresFrom,
+                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime expiresTo,
+                     @RequestParam(required = false) String domain,
+                     @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterExpiry,
+                     @RequestParam(required = false) Long afterId,
+                     @RequestParam(defaultValue = "1000") long limit,
+                     @RequestParam(defaultValue = "ndjson") String format,
+                     HttpServletResponse response) throws IOException {
+        if (afterId != null && afterExpiry == null) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "afterId needs afterExpiry");
+            return;
+        }
+        boolean csv = format.equalsIgnoreCase("csv");
+        ResetFilter filter = new ResetFilter(status, expiresFrom, expiresTo, domain,
+                afterExpiry == null ? null : new ResetFilter.Cursor(afterExpiry, afterId == null ? 0 : afterId));
+
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        if (csv) {
+            response.setContentType("text/csv");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"resets.csv\"");
+        } else {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        }
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), 1 << 16);
+        if (csv) {
+            out.write("id,shard,email,username,reset_token_expiry,expired\n");
+        }
+        try {
+            shardedUserQueries.streamResets(filter, Math.min(Math.max(limit, 1), MAX_LIMIT), row -> {
+                try {
+                    if (csv) {
+                        writeCsv(out, row);
+                    } else {
+                        out.write(objectMapper.writeValueAsString(row));
+                        out.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // client went away
+        }
+        out.flush();
+    }
+
+    private static void writeCsv(Writer out, OutstandingReset row) throws IOException {
+        out.write(Long.toString(row.id()));
+        out.write(',');
+        out.write(Integer.toString(row.shard()));
+        out.write(',');
+        out.write(csvField(row.email()));
+        out.write(',');
+        out.write(csvField(row.username()));
+        out.write(',');
+        out.write(row.resetTokenExpiry().toString());
+        out.write(',');
+        out.write(Boolean.toString(row.expired()));
+        out.write('\n');
+    }
+
+    private static String csvField(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        if ("=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value; // keep spreadsheets from evaluating it
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
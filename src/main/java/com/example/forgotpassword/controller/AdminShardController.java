@@ -0,0 +1,42 @@
+package com.example.forgotpassword.controller;
+
+import com.example.forgotpassword.shard.ShardStats;
+import com.example.forgotpassword.shard.ShardedUser;
+import com.example.forgotpassword.shard.ShardedUserQueries;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Queries across all user shards.
+ * <pre>
+ * curl -u admin /admin/shards
+ * curl -u admin '/admin/shards/users?domain=example.com&amp;afterId=0&amp;limit=100'
+ * </pre>
+ * Pass the last id of a page as {@code afterId} to get the next one.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/admin/shards")
+@RequiredArgsConstructor
+public class AdminShardController {
+
+    private final ShardedUserQueries shardedUserQueries;
+
+    @GetMapping
+    public List<ShardStats> stats() {
+        return shardedUserQueries.stats();
+    }
+
+    @GetMapping("/users")
+    public List<ShardedUser> users(@RequestParam(required = false) String domain,
+                                   @RequestParam(defaultValue = "0") long afterId,
+                                   @RequestParam(defaultValue = "100") int limit) {
+        return shardedUserQueries.findUsers(domain, afterId, Math.min(Math.max(limit, 1), 1_000));
+    }
+}
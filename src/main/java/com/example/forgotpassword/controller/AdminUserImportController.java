@@ -0,0 +1,41 @@
+package com.example.forgotpassword.controller;
+
+import com.example.forgotpassword.dto.UserImportResult;
+import com.example.forgotpassword.service.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Streams a user export into the {@code users} table.
+ * <pre>
+ * curl -u admin -H 'Content-Type: text/csv' --data-binary @users.csv /admin/users/import
+ * curl -u admin -H 'Content-Type: application/x-ndjson' --data-binary @users.jsonl /admin/users/import
+ * </pre>
+ * For very large migrations use {@link com.example.forgotpassword.service.UserImportRunner} instead,
+ * which does not hold an HTTP request open for the whole import.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/admin/users/import")
+@RequiredArgsConstructor
+public class AdminUserImportController {
+
+    private final UserImportService userImportService;
+
+    @PostMapping(consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public UserImportResult importCsv(HttpServletRequest request) throws IOException, InterruptedException {
+        return userImportService.importUsers(request.getInputStream(), UserImportService.Format.CSV);
+    }
+
+    @PostMapping(consumes = {MediaType.APPLICATION_NDJSON_VALUE, "application/jsonl"})
+    public UserImportResult importJsonLines(HttpServletRequest request) throws IOException, InterruptedException {
+        return userImportService.importUsers(request.getInputStream(), UserImportService.Format.JSONL);
+    }
+}
@@ -3,8 +3,10 @@ package com.example.forgotpassword.controller;
 import com.example.forgotpassword.dto.ForgotPasswordRequest;
 import com.example.forgotpassword.dto.ResetPasswordRequest;
 import com.example.forgotpassword.service.PasswordResetService;
+import com.example.forgotpassword.service.PasswordReuseException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -18,6 +20,7 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import java.util.stream.Collectors;
 
 @Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequiredArgsConstructor
 public class ForgotPasswordController {
 
@@ -112,7 +115,15 @@ public class ForgotPasswordController {
 
 //        boolean success = passwordResetService.resetPassword(token, password);
 
-        boolean success = passwordResetService.resetPassword(form.getToken(), form.getPassword());
+        boolean success;
+        try {
+            success = passwordResetService.resetPassword(form.getToken(), form.getPassword());
+        } catch (PasswordReuseException e) {
+            model.addAttribute("error", "Please choose a password different from your last "
+                    + e.getHistorySize() + " passwords.");
+            model.addAttribute("token", form.getToken());
+            return "reset-password";
+        }
         if (success) {
             redirectAttributes.addFlashAttribute("message",
                     "Your password has been reset successfully. You can now log in.");
@@ -0,0 +1,123 @@
+package com.example.forgotpassword.controller;
+
+import com.example.forgotpassword.dto.ForgotPasswordRequest;
+import com.example.forgotpassword.dto.PasswordApiError;
+import com.example.forgotpassword.dto.ResetPasswordRequest;
+import com.example.forgotpassword.dto.TokenValidity;
+import com.example.forgotpassword.service.BackgroundPasswordResets;
+import com.example.forgotpassword.service.PasswordResetService;
+import com.example.forgotpassword.service.PasswordReuseException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JSON version of the forgot and reset pages, for the mobile apps and the SPA. Stateless: no
+ * session, no CSRF token (see {@link com.example.forgotpassword.config.SecurityConfig}).
+ * Requests go through the same validators, abuse throttling, concurrency limit and bulkhead
+ * as the pages.
+ * <pre>
+ * POST /api/v1/password/forgot    {"email":"..."}                    202 / 503 when overloaded
+ * GET  /api/v1/password/validate?token=...                           200 {"valid":true} / 404 {"valid":false}
+ * POST /api/v1/password/reset     {"token":"...","password":"..."}   204 / 400 / 409
+ * </pre>
+ * Unlike the page, {@code forgot} answers the same, and as fast, whether or not the account
+ * exists: the lookup and the email happen after the answer.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/v1/password")
+@RequiredArgsConstructor
+public class PasswordApiController {
+
+    // a token that is unknown, used or expired never becomes valid again
+    private static final CacheControl INVALID_TOKEN_CACHE = CacheControl.maxAge(Duration.ofHours(1)).cachePrivate();
+
+    private final PasswordResetService passwordResetService;
+    private final BackgroundPasswordResets backgroundPasswordResets;
+
+    /**
+     * The reset runs in the background, so an email that cannot be sent is only logged. 503 only
+     * when the background queue is full, whichever account was asked for.
+     */
+    @PostMapping("/forgot")
+    public ResponseEntity<?> forgot(@Valid @RequestBody ForgotPasswordRequest request, HttpServletRequest http) {
+        if (!backgroundPasswordResets.submit(request.getEmail(), http.getRemoteAddr())) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(PasswordApiError.of("busy"));
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/validate")
+    public ResponseEntity<TokenValidity> validate(@RequestParam String token) {
+        if (passwordResetService.validateResetToken(token)) {
+            // valid only until it is used
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(new TokenValidity(true));
+        }
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).cacheControl(INVALID_TOKEN_CACHE).body(new TokenValidity(false));
+    }
+
+    /**
+     * {@code confirmPassword} is optional here; if sent, it has to match.
+     */
+    @PostMapping("/reset")
+    public ResponseEntity<?> reset(@Valid @RequestBody ResetPasswordRequest request) {
+        if (request.getConfirmPassword() != null && !request.getConfirmPassword().equals(request.getPassword())) {
+            return ResponseEntity.badRequest()
+                    .body(new PasswordApiError("invalid_request", Map.of("confirmPassword", "Passwords do not match.")));
+        }
+        if (request.getToken() == null || request.getToken().isBlank()) {
+            return ResponseEntity.badRequest().body(PasswordApiError.of("invalid_token"));
+        }
+
+        try {
+            if (!passwordResetService.resetPassword(request.getToken(), request.getPassword())) {
+                return ResponseEntity.badRequest().body(PasswordApiError.of("invalid_token"));
+            }
+        } catch (PasswordReuseException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new PasswordApiError("password_reused",
+                    Map.of("password", "Please choose a password different from your last " + e.getHistorySize() + " passwords.")));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<PasswordApiError> invalidRequest(MethodArgumentNotValidException e) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (FieldError error : e.getBindingResult().getFieldErrors()) {
+            fields.merge(error.getField(), error.getDefaultMessage(), (a, b) -> a + " " + b);
+        }
+        return ResponseEntity.badRequest().body(new PasswordApiError("invalid_request", fields));
+    }
+
+    /**
+     * Malformed JSON or a missing parameter. Answered here rather than through the error page,
+     * which the API's security chain does not cover.
+     */
+    @ExceptionHandler({HttpMessageNotReadableException.class, MissingServletRequestParameterException.class})
+    public ResponseEntity<PasswordApiError> unreadableRequest() {
+        return ResponseEntity.badRequest().body(PasswordApiError.of("invalid_request"));
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.forgotpassword.dto;
+
+/**
+ * Selects accounts for a bulk reset without uploading a list. All criteria are optional
+ * and combined with AND; an empty filter selects every account.
+ */
+public class BulkResetFilter {
+
+    private String emailDomain;
+
+    private Long idFrom;
+
+    private Long idTo;
+
+    // getters & setters
+    public String getEmailDomain() { return emailDomain; }
+    public void setEmailDomain(String emailDomain) { this.emailDomain = emailDomain; }
+
+    public Long getIdFrom() { return idFrom; }
+    public void setIdFrom(Long idFrom) { this.idFrom = idFrom; }
+
+    public Long getIdTo() { return idTo; }
+    public void setIdTo(Long idTo) { this.idTo = idTo; }
+}
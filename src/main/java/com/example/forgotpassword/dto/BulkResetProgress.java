@@ -0,0 +1,33 @@
+package com.example.forgotpassword.dto;
+
+import com.example.forgotpassword.entity.BulkResetJob;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+public record BulkResetProgress(Long id,
+                                BulkResetJob.Status status,
+                                BulkResetJob.Source source,
+                                long processed,
+                                long tokensIssued,
+                                long notFound,
+                                long emailsQueued,
+                                long emailsFailed,
+                                long accountsPerMinute,
+                                LocalDateTime startedAt,
+                                LocalDateTime finishedAt,
+                                String lastError) {
+
+    public static BulkResetProgress of(BulkResetJob job) {
+        long perMinute = 0;
+        if (job.getStartedAt() != null) {
+            LocalDateTime end = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+            long seconds = Math.max(1, Duration.between(job.getStartedAt(), end).toSeconds());
+            perMinute = job.getProcessed() * 60 / seconds;
+        }
+        return new BulkResetProgress(job.getId(), job.getStatus(), job.getSource(),
+                job.getProcessed(), job.getTokensIssued(), job.getNotFound(),
+                job.getEmailsQueued(), job.getEmailsFailed(), perMinute,
+                job.getStartedAt(), job.getFinishedAt(), job.getLastError());
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.forgotpassword.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+/**
+ * Error body of the JSON password API.
+ *
+ * @param error  machine-readable code, e.g. {@code invalid_request} or {@code invalid_token}
+ * @param fields validation messages by request field; omitted when empty
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record PasswordApiError(String error, Map<String, String> fields) {
+
+    public static PasswordApiError of(String error) {
+        return new PasswordApiError(error, Map.of());
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.forgotpassword.dto;
+
+public record TokenValidity(boolean valid) {
+}
@@ -0,0 +1,20 @@
+package com.example.forgotpassword.dto;
+
+import java.time.Duration;
+
+/**
+ * @param read        records read from the input
+ * @param written     rows inserted or updated
+ * @param rejected    records skipped because of an invalid email or missing password
+ * @param skipped     valid records dropped because hashing failed or the import was interrupted
+ * @param hashed      plaintext passwords hashed during the import
+ * @param carriedOver existing BCrypt hashes imported unchanged
+ */
+public record UserImportResult(long read,
+                               long written,
+                               long rejected,
+                               long skipped,
+                               long hashed,
+                               long carriedOver,
+                               Duration elapsed) {
+}
@@ -0,0 +1,52 @@
+package com.example.forgotpassword.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "bulk_reset_jobs")
+@Data
+public class BulkResetJob {
+
+    public enum Status { PENDING, RUNNING, COMPLETED, FAILED }
+
+    public enum Source { CSV, FILTER }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status = Status.PENDING;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Source source;
+
+    // CSV jobs: spooled upload, checkpoint = input lines consumed
+    private String inputFile;
+
+    // FILTER jobs: checkpoint = last user id handled
+    private String filterDomain;
+    private Long filterIdFrom;
+    private Long filterIdTo;
+
+    private long checkpoint;
+
+    private long processed;
+    private long tokensIssued;
+    private long notFound;
+    private long emailsQueued;
+    private long emailsFailed;
+
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+}
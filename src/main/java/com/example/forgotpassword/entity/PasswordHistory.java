@@ -0,0 +1,31 @@
+package com.example.forgotpassword.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.ToString;
+import java.time.LocalDateTime;
+
+/**
+ * A password a user had before, kept so it cannot be chosen again.
+ */
+@Entity
+@Table(name = "password_history")
+@Data
+public class PasswordHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    @ToString.Exclude
+    private User user;
+
+    // BCrypt hash, as it was in users.password
+    @Column(nullable = false)
+    private String password;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
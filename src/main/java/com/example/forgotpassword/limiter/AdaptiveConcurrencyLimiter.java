@@ -0,0 +1,108 @@
+package com.example.forgotpassword.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that follows observed latency, after the gradient algorithm used by
+ * Netflix's concurrency-limits library.
+ * <p>
+ * Two moving averages of request latency are kept: a long one that tracks the baseline and a
+ * short one that tracks the last few requests. While recent latency stays within
+ * {@code rttTolerance} of the baseline the limit grows by about {@code sqrt(limit)} per
+ * sample; once requests start queueing somewhere (MySQL, SMTP, the connection pool) recent
+ * latency rises, the ratio drops below one and the limit shrinks in proportion. Failed
+ * requests shrink it by 10%. Requests beyond the limit are refused straight away instead of
+ * joining the queue, so the ones admitted keep their latency.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private final LimiterProperties properties;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter admitted;
+    private final Counter rejected;
+
+    private volatile double limit;
+    private double longRttNanos;
+    private double shortRttNanos;
+
+    public AdaptiveConcurrencyLimiter(LimiterProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limit = properties.getInitialLimit();
+        this.admitted = meterRegistry.counter("limiter.requests", "outcome", "admitted");
+        this.rejected = meterRegistry.counter("limiter.requests", "outcome", "rejected");
+        meterRegistry.gauge("limiter.limit", this, AdaptiveConcurrencyLimiter::getLimit);
+        meterRegistry.gauge("limiter.in-flight", inFlight);
+    }
+
+    /**
+     * @return a permit to release when the request completes, or {@code null} if the request
+     *         should be shed
+     */
+    public Permit tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                admitted.increment();
+                return new Permit(System.nanoTime(), current + 1);
+            }
+        }
+    }
+
+    /**
+     * @param failed whether the request failed in a way that suggests overload (5xx, exception)
+     */
+    public void release(Permit permit, boolean failed) {
+        inFlight.decrementAndGet();
+        onSample(System.nanoTime() - permit.startNanos(), permit.inFlightAtStart(), failed);
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    synchronized void onSample(long rttNanos, int inFlightAtStart, boolean failed) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+            shortRttNanos = rttNanos;
+        } else {
+            longRttNanos += (rttNanos - longRttNanos) * 2.0 / (properties.getLongWindow() + 1);
+            shortRttNanos += (rttNanos - shortRttNanos) * 2.0 / (properties.getShortWindow() + 1);
+        }
+        // after a long slow spell the baseline itself is inflated; let it recover faster
+        if (longRttNanos > 2 * shortRttNanos) {
+            longRttNanos *= 0.95;
+        }
+
+        double current = limit;
+        double estimate;
+        if (failed) {
+            estimate = current * 0.9;
+        } else if (inFlightAtStart < current / 2) {
+            // not using the limit we have: latency says nothing about whether more would fit
+            return;
+        } else {
+            double gradient = Math.max(0.5, Math.min(1.0,
+                    properties.getRttTolerance() * longRttNanos / shortRttNanos));
+            estimate = current * gradient + Math.sqrt(current);
+        }
+
+        double smoothed = current * (1 - properties.getSmoothing()) + estimate * properties.getSmoothing();
+        limit = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), smoothed));
+    }
+
+    public record Permit(long startNanos, int inFlightAtStart) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.forgotpassword.limiter;
+
+import com.example.forgotpassword.config.RefusedRequests;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Sheds requests above the current {@link AdaptiveConcurrencyLimiter} limit with an immediate
+ * {@code 503 Service Unavailable} and a {@code Retry-After} hint, written as
+ * {@link RefusedRequests} describes.
+ */
+@RequiredArgsConstructor
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final LimiterProperties properties;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            RefusedRequests.refuse(request, response, HttpStatus.SERVICE_UNAVAILABLE, properties.getRetryAfter(),
+                    "busy", "Server busy, please retry shortly");
+            return;
+        }
+
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            limiter.release(permit, failed);
+        }
+    }
+}
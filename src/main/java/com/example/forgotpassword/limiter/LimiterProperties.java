@@ -0,0 +1,39 @@
+package com.example.forgotpassword.limiter;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link AdaptiveConcurrencyLimiter}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.limiter")
+public class LimiterProperties {
+
+    private boolean enabled = true;
+
+    /** Concurrent requests admitted before any latency has been observed. */
+    private int initialLimit = 20;
+
+    private int minLimit = 4;
+
+    /** Upper bound; no point admitting more than Tomcat has threads for. */
+    private int maxLimit = 200;
+
+    /** How far latency may rise above the long-term baseline before the limit shrinks. */
+    private double rttTolerance = 1.5;
+
+    /** Weight of each new limit estimate, between 0 and 1. */
+    private double smoothing = 0.2;
+
+    /** Samples averaged into the long-term (baseline) latency. */
+    private int longWindow = 600;
+
+    /** Samples averaged into the recent latency. */
+    private int shortWindow = 10;
+
+    /** Sent as {@code Retry-After} with shed requests. */
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
@@ -0,0 +1,38 @@
+package com.example.forgotpassword.reactive;
+
+/**
+ * Derives R2DBC URLs from the JDBC ones in {@code spring.datasource.url} and
+ * {@code app.sharding.shards[n].url}, so each shard is configured once.
+ */
+final class R2dbcUrls {
+
+    private R2dbcUrls() {
+    }
+
+    /**
+     * {@code jdbc:mysql://host:port/db?...} becomes {@code r2dbc:mysql://host:port/db}; the
+     * query holds Connector/J options the R2DBC driver does not know. {@code jdbc:h2:mem:name;K=V}
+     * and {@code jdbc:h2:file:/path;K=V} become {@code r2dbc:h2:mem:///name?K=V} and
+     * {@code r2dbc:h2:file:////path?K=V}.
+     */
+    static String fromJdbc(String jdbcUrl) {
+        if (jdbcUrl.startsWith("jdbc:mysql://")) {
+            int query = jdbcUrl.indexOf('?');
+            return "r2dbc:" + jdbcUrl.substring("jdbc:".length(), query < 0 ? jdbcUrl.length() : query);
+        }
+        if (jdbcUrl.startsWith("jdbc:h2:")) {
+            String rest = jdbcUrl.substring("jdbc:h2:".length());
+            int colon = rest.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("H2 URL without mem: or file: " + jdbcUrl);
+            }
+            String[] parts = rest.substring(colon + 1).split(";");
+            StringBuilder url = new StringBuilder("r2dbc:h2:").append(rest, 0, colon).append(":///").append(parts[0]);
+            for (int i = 1; i < parts.length; i++) {
+                url.append(i == 1 ? '?' : '&').append(parts[i]);
+            }
+            return url.toString();
+        }
+        throw new IllegalArgumentException("No R2DBC driver for " + jdbcUrl);
+    }
+}
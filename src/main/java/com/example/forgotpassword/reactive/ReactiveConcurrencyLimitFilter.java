@@ -0,0 +1,51 @@
+package com.example.forgotpassword.reactive;
+
+import com.example.forgotpassword.limiter.AdaptiveConcurrencyLimiter;
+import com.example.forgotpassword.limiter.LimiterProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Set;
+
+/**
+ * {@link com.example.forgotpassword.limiter.ConcurrencyLimitFilter} for the reactive stack:
+ * sheds reset page requests above the current {@link AdaptiveConcurrencyLimiter} limit with an
+ * immediate {@code 503 Service Unavailable} and a {@code Retry-After} hint. A request is in
+ * flight until its response completes, fails or is cancelled.
+ */
+@RequiredArgsConstructor
+public class ReactiveConcurrencyLimitFilter implements WebFilter {
+
+    private static final Set<String> PATHS = Set.of("/forgot-password", "/reset-password", "/reset-success");
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final LimiterProperties properties;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!PATHS.contains(exchange.getRequest().getPath().pathWithinApplication().value())) {
+            return chain.filter(exchange);
+        }
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(Math.max(1, properties.getRetryAfter().toSeconds())));
+            return response.setComplete();
+        }
+
+        return chain.filter(exchange).doFinally(signal -> {
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            limiter.release(permit, signal == SignalType.ON_ERROR || status != null && status.is5xxServerError());
+        });
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.forgotpassword.reactive;
+
+import com.example.forgotpassword.shard.ShardingProperties;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * R2DBC pools for the reactive stack, one per shard, pointing at the same databases as the
+ * JDBC pools in {@link com.example.forgotpassword.config.DataSourceConfig}. The schema is
+ * still migrated by Flyway over JDBC before the server starts.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveDataConfig {
+
+    @Bean
+    public ReactiveUserRepository reactiveUserRepository(DataSourceProperties dataSourceProperties,
+                                                         ShardingProperties shardingProperties,
+                                                         ReactiveProperties reactiveProperties) {
+        List<ShardingProperties.Shard> configured = shardingProperties.getShards();
+        List<ConnectionPool> pools = new ArrayList<>();
+        for (int shard = 0; shard < shardingProperties.shardCount(); shard++) {
+            ShardingProperties.Shard target = configured.isEmpty() ? null : configured.get(shard);
+            String url = target == null ? dataSourceProperties.determineUrl() : target.getUrl();
+            String username = target == null || target.getUsername() == null
+                    ? dataSourceProperties.determineUsername() : target.getUsername();
+            String password = target == null || target.getPassword() == null
+                    ? dataSourceProperties.determinePassword() : target.getPassword();
+
+            ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(R2dbcUrls.fromJdbc(url)).mutate();
+            if (username != null) {
+                options.option(ConnectionFactoryOptions.USER, username);
+            }
+            if (password != null) {
+                options.option(ConnectionFactoryOptions.PASSWORD, password);
+            }
+            pools.add(new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                    .name("r2dbc-shard" + shard)
+                    .initialSize(0)
+                    .maxSize(reactiveProperties.getPoolSize())
+                    .build()));
+        }
+        return new ReactiveUserRepository(pools);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.forgotpassword.reactive;
+
+import com.example.forgotpassword.dto.ForgotPasswordRequest;
+import com.example.forgotpassword.dto.ResetPasswordRequest;
+import com.example.forgotpassword.service.PasswordReuseException;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.stream.Collectors;
+
+/**
+ * {@link com.example.forgotpassword.controller.ForgotPasswordController} for the reactive
+ * stack, with the same templates, form objects and messages. There is no session to carry
+ * flash attributes, so the forgot page shows its outcome directly instead of after a redirect.
+ */
+@Slf4j
+@Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveForgotPasswordController {
+
+    private final ReactivePasswordResetService passwordResetService;
+
+    @GetMapping("/forgot-password")
+    public String showForgotPasswordPage() {
+        return "forgot-password";
+    }
+
+    @GetMapping("/reset-success")
+    public String resetSuccess() {
+        return "reset-success";
+    }
+
+    @PostMapping("/forgot-password")
+    public Mono<String> processForgotPassword(@Valid @ModelAttribute("form") ForgotPasswordRequest form,
+                                              BindingResult bindingResult,
+                                              Model model,
+                                              ServerWebExchange exchange) {
+        if (bindingResult.hasErrors()) {
+            model.addAttribute("error", errors(bindingResult, " "));
+            return Mono.just("forgot-password");
+        }
+
+        return passwordResetService.initiatePasswordReset(form.getEmail(), clientIp(exchange))
+                .map(userExists -> {
+                    model.addAttribute("message", userExists
+                            ? "A password reset link has been sent. Please check your inbox."
+                            : "The email address you entered doesn't exist");
+                    return "forgot-password";
+                })
+                .onErrorResume(e -> {
+                    log.warn("Failed to send password reset email: {}", e.getMessage());
+                    model.addAttribute("error",
+                            "Unable to send reset email at this time. Please try again later or contact support.");
+                    return Mono.just("forgot-password");
+                });
+    }
+
+    @GetMapping("/reset-password")
+    public Mono<String> showResetPasswordPage(@RequestParam("token") String token, Model model,
+                                              ServerWebExchange exchange) {
+        return passwordResetService.validateResetToken(token, clientIp(exchange))
+                .map(valid -> {
+                    if (!valid) {
+                        model.addAttribute("error", "Invalid or expired reset link.");
+                        return "reset-password-error";
+                    }
+                    model.addAttribute("token", token);
+                    return "reset-password";
+                });
+    }
+
+    @PostMapping("/reset-password")
+    public Mono<String> processResetPassword(@Valid @ModelAttribute("form") ResetPasswordRequest form,
+                                             BindingResult bindingResult,
+                                             Model model,
+                                             ServerWebExchange exchange) {
+        if (form.getPassword() != null && !form.getPassword().equals(form.getConfirmPassword())) {
+            bindingResult.rejectValue("confirmPassword", "password.mismatch", "Passwords do not match.");
+        }
+        model.addAttribute("token", form.getToken());
+        if (bindingResult.hasErrors()) {
+            model.addAttribute("error", errors(bindingResult, "\n"));
+            return Mono.just("reset-password");
+        }
+
+        return passwordResetService.resetPassword(form.getToken(), form.getPassword(), clientIp(exchange))
+                .map(success -> {
+                    if (success) {
+                        return "redirect:/reset-success";
+                    }
+                    model.addAttribute("error", "Invalid or expired reset link.");
+                    return "reset-password";
+                })
+                .onErrorResume(PasswordReuseException.class, e -> {
+                    model.addAttribute("error", "Please choose a password different from your last "
+                            + e.getHistorySize() + " passwords.");
+                    return Mono.just("reset-password");
+                });
+    }
+
+    private static String errors(BindingResult bindingResult, String separator) {
+        return bindingResult.getAllErrors().stream()
+                .map(DefaultMessageSourceResolvable::getDefaultMessage)
+                .collect(Collectors.joining(separator));
+    }
+
+    private static String clientIp(ServerWebExchange exchange) {
+        InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+        return remote == null || remote.getAddress() == null ? null : remote.getAddress().getHostAddress();
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.forgotpassword.reactive;
+
+import com.example.forgotpassword.audit.AuditEvent;
+import com.example.forgotpassword.audit.AuditLog;
+import com.example.forgotpassword.repository.UserCacheEvictor;
+import com.example.forgotpassword.service.EmailService;
+import com.example.forgotpassword.service.PasswordChangedEvent;
+import com.example.forgotpassword.service.PasswordHistoryProperties;
+import com.example.forgotpassword.service.PasswordReuseException;
+import com.example.forgotpassword.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.OptionalInt;
+
+/**
+ * The flows of {@link com.example.forgotpassword.service.PasswordResetService} without blocking
+ * a request thread: queries go through {@link ReactiveUserRepository}, BCrypt runs on the
+ * parallel scheduler, and emails, which JavaMail can only send blocking, on a bounded pool of
+ * mail threads. Errors are signalled as in the servlet service, including
+ * {@link PasswordReuseException}.
+ */
+@Slf4j
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePasswordResetService {
+
+    private final ReactiveUserRepository userRepository;
+    private final EmailService emailService;
+    private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardRouter shardRouter;
+    private final AuditLog auditLog;
+    private final PasswordHistoryProperties historyProperties;
+    private final UserCacheEvictor userCacheEvictor;
+    private final Scheduler mailScheduler;
+    private final Counter historyTimeouts;
+
+    @Value("${app.base-url:http://localhost:8080}")
+    private String baseUrl;
+
+    public ReactivePasswordResetService(ReactiveUserRepository userRepository,
+                                        EmailService emailService,
+                                        PasswordEncoder passwordEncoder,
+                                        ApplicationEventPublisher eventPublisher,
+                                        ShardRouter shardRouter,
+                                        AuditLog auditLog,
+                                        PasswordHistoryProperties historyProperties,
+                                        UserCacheEvictor userCacheEvictor,
+                                        ReactiveProperties properties,
+                                        MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.emailService = emailService;
+        this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
+        this.shardRouter = shardRouter;
+        this.auditLog = auditLog;
+        this.historyProperties = historyProperties;
+        this.userCacheEvictor = userCacheEvictor;
+        this.mailScheduler = Schedulers.newBoundedElastic(
+                properties.getMailThreads(), properties.getMailQueueCapacity(), "reactive-mail");
+        this.historyTimeouts = meterRegistry.counter("password.history.timeouts");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        mailScheduler.dispose();
+    }
+
+    /**
+     * @return {@code true} once the token is stored and the email sent, {@code false} for an
+     *         unknown address; errors if the email cannot be sent
+     */
+    public Mono<Boolean> initiatePasswordReset(String email, String clientIp) {
+        int shard = shardRouter.shardFor(email);
+        return userRepository.findByEmail(shard, email)
+                .flatMap(user -> {
+                    String resetToken = shardRouter.newResetToken(shard);
+                    String resetLink = baseUrl + "/reset-password?token=" + resetToken;
+                    return userRepository.updateResetToken(shard, user.id(), resetToken, LocalDateTime.now().plusHours(1))
+                            .then(Mono.fromRunnable(() -> userCacheEvictor.evict(List.of(user.id()))))
+                            .then(Mono.fromCallable(() -> {
+                                emailService.sendPasswordResetEmail(user.email(), resetLink, user.username());
+                                return true;
+                            }).subscribeOn(mailScheduler))
+                            .doOnNext(sent -> auditLog.record(AuditEvent.Type.FORGOT, AuditEvent.Outcome.OK,
+                                    user.id(), user.email(), clientIp));
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    auditLog.record(AuditEvent.Type.FORGOT, AuditEvent.Outcome.UNKNOWN_ACCOUNT, 0, email, clientIp);
+                    return false;
+                }));
+    }
+
+    public Mono<Boolean> validateResetToken(String token, String clientIp) {
+        OptionalInt shard = shardRouter.shardOfToken(token);
+        if (shard.isEmpty()) {
+            return invalidToken(AuditEvent.Type.VALIDATE, clientIp);
+        }
+        return userRepository.findByResetToken(shard.getAsInt(), token)
+                .map(user -> {
+                    boolean valid = !user.tokenExpired();
+                    auditLog.record(AuditEvent.Type.VALIDATE,
+                            valid ? AuditEvent.Outcome.OK : AuditEvent.Outcome.EXPIRED_TOKEN,
+                            user.id(), user.email(), clientIp);
+                    return valid;
+                })
+                .switchIfEmpty(Mono.defer(() -> invalidToken(AuditEvent.Type.VALIDATE, clientIp)));
+    }
+
+    /**
+     * Errors with {@link PasswordReuseException} if the new password is the current one or a
+     * recent one; the token stays valid.
+     */
+    public Mono<Boolean> resetPassword(String token, String newPassword, String clientIp) {
+        OptionalInt shardOfToken = shardRouter.shardOfToken(token);
+        if (shardOfToken.isEmpty()) {
+            return invalidToken(AuditEvent.Type.RESET, clientIp);
+        }
+        int shard = shardOfToken.getAsInt();
+        return userRepository.findByResetToken(shard, token)
+                .flatMap(user -> {
+                    if (user.tokenExpired()) {
+                        auditLog.record(AuditEvent.Type.RESET, AuditEvent.Outcome.EXPIRED_TOKEN,
+                                user.id(), user.email(), clientIp);
+                        return Mono.just(false);
+                    }
+                    // compare with past passwords while the new one is being hashed
+                    Mono<String> newHash = Mono.fromCallable(() -> passwordEncoder.encode(newPassword))
+                            .subscribeOn(Schedulers.parallel());
+                    return Mono.zip(isReused(shard, user, newPassword), newHash)
+                            .flatMap(checked -> {
+                                if (checked.getT1()) {
+                                    auditLog.record(AuditEvent.Type.RESET, AuditEvent.Outcome.REUSED_PASSWORD,
+                                            user.id(), user.email(), clientIp);
+                                    return Mono.error(new PasswordReuseException(historyProperties.getSize()));
+                                }
+                                return store(shard, user, token, checked.getT2(), clientIp);
+                            });
+                })
+                .switchIfEmpty(Mono.defer(() -> invalidToken(AuditEvent.Type.RESET, clientIp)));
+    }
+
+    /**
+     * Compares {@code candidate} with the current and recent hashes in parallel and completes
+     * at the first match. Waiting holds no thread, so the check always runs to the end; one
+     * slower than {@code app.password-history.max-wait} is only counted as a timeout.
+     */
+    private Mono<Boolean> isReused(int shard, ReactiveUser user, String candidate) {
+        int size = historyProperties.getSize();
+        if (size <= 0) {
+            return Mono.just(false);
+        }
+        Flux<String> hashes = Flux.just(user.password());
+        if (size > 1) {
+            hashes = hashes.concatWith(userRepository.findRecentPasswords(shard, user.id(), size - 1));
+        }
+        return hashes
+                .flatMap(hash -> Mono.fromCallable(() -> matches(candidate, hash, user.id()))
+                        .subscribeOn(Schedulers.parallel()))
+                .any(Boolean::booleanValue)
+                .elapsed()
+                .map(timed -> {
+                    if (timed.getT1() > historyProperties.getMaxWait().toMillis()) {
+                        historyTimeouts.increment();
+                    }
+                    return timed.getT2();
+                });
+    }
+
+    private boolean matches(String candidate, String hash, long userId) {
+        try {
+            return passwordEncoder.matches(candidate, hash);
+        } catch (RuntimeException e) {
+            log.warn("Password history: unreadable hash for user {}", userId);
+            return false;
+        }
+    }
+
+    /**
+     * Writes the new password and the history entry in one transaction. The update is
+     * conditional on the token, so of two concurrent resets with the same link only one wins.
+     */
+    private Mono<Boolean> store(int shard, ReactiveUser user, String token, String newHash, String clientIp) {
+        int keep = historyProperties.getSize() - 1;
+        Mono<Boolean> write = userRepository.updatePasswordIfToken(shard, user.id(), token, newHash)
+                .flatMap(updated -> !updated || keep <= 0
+                        ? Mono.just(updated)
+                        : userRepository.rememberPassword(shard, user.id(), user.password(), keep).thenReturn(true));
+        return userRepository.inTransaction(shard, write)
+                .doOnNext(updated -> {
+                    if (!updated) {
+                        auditLog.record(AuditEvent.Type.RESET, AuditEvent.Outcome.INVALID_TOKEN, 0, null, clientIp);
+                        return;
+                    }
+                    userCacheEvictor.evict(List.of(user.id()));
+                    eventPublisher.publishEvent(new PasswordChangedEvent(user.email()));
+                    auditLog.record(AuditEvent.Type.RESET, AuditEvent.Outcome.OK, user.id(), user.email(), clientIp);
+                });
+    }
+
+    private Mono<Boolean> invalidToken(AuditEvent.Type type, String clientIp) {
+        auditLog.record(type, AuditEvent.Outcome.INVALID_TOKEN, 0, null, clientIp);
+        return Mono.just(false);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.forgotpassword.reactive;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the reactive stack (profile {@code reactive}).
+ */
+@Data
+@ConfigurationProperties(prefix = "app.reactive")
+public class ReactiveProperties {
+
+    /** R2DBC connections per shard. */
+    private int poolSize = 32;
+
+    /**
+     * Threads that hand reset emails to the SMTP server. JavaMail blocks, so sends run here
+     * rather than on the event loop; this caps concurrent SMTP sessions.
+     */
+    private int mailThreads = 64;
+
+    /** Sends waiting for a mail thread; beyond this a forgot request fails as if SMTP were down. */
+    private int mailQueueCapacity = 10000;
+}
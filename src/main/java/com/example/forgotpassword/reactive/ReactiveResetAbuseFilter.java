@@ -0,0 +1,68 @@
+package com.example.forgotpassword.reactive;
+
+import com.example.forgotpassword.abuse.AbuseProperties;
+import com.example.forgotpassword.abuse.ResetTrafficMonitor;
+import com.example.forgotpassword.warmup.WarmupRequests;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * {@link com.example.forgotpassword.abuse.ResetAbuseFilter} for the reactive stack: feeds the
+ * forgot-password and reset pages to the same {@link ResetTrafficMonitor} and answers
+ * throttled and blocked requests with {@code 429 Too Many Requests} and a {@code Retry-After}.
+ * <p>
+ * The email comes from the {@code email} form field. Form data is parsed once per exchange,
+ * so the controller binds the same parsed form.
+ */
+@RequiredArgsConstructor
+public class ReactiveResetAbuseFilter implements WebFilter {
+
+    private static final Set<String> PATHS = Set.of("/forgot-password", "/reset-password");
+
+    private final ResetTrafficMonitor monitor;
+    private final AbuseProperties properties;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!PATHS.contains(request.getPath().pathWithinApplication().value()) || WarmupRequests.isWarmup(request)) {
+            return chain.filter(exchange);
+        }
+        // only the forgot-password requests name an account; reset requests carry a token instead
+        Mono<Optional<String>> email = HttpMethod.POST.equals(request.getMethod())
+                ? exchange.getFormData().map(form -> Optional.ofNullable(form.getFirst("email")))
+                : Mono.just(Optional.empty());
+
+        return email.flatMap(address -> switch (monitor.record(clientIp(request), address.orElse(null))) {
+            case BLOCK -> tooManyRequests(exchange.getResponse(), properties.getWindow());
+            case THROTTLE -> tooManyRequests(exchange.getResponse(), properties.getRetryAfter());
+            case ALLOW -> chain.filter(exchange);
+        });
+    }
+
+    private static Mono<Void> tooManyRequests(ServerHttpResponse response, Duration retryAfter) {
+        // whole seconds, rounded up so that a client retrying on time is past the limit
+        long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        return response.setComplete();
+    }
+
+    private static String clientIp(ServerHttpRequest request) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        return remote == null || remote.getAddress() == null ? null : remote.getAddress().getHostAddress();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.forgotpassword.reactive;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a {@code users} row the reset flows need.
+ */
+public record ReactiveUser(long id, String email, String username, String password, LocalDateTime resetTokenExpiry) {
+
+    public boolean tokenExpired() {
+        return resetTokenExpiry == null || !resetTokenExpiry.isAfter(LocalDateTime.now());
+    }
+}
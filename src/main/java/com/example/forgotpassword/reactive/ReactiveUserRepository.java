@@ -0,0 +1,129 @@
+package com.example.forgotpassword.reactive;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reactive counterpart of {@link com.example.forgotpassword.repository.UserRepository} and
+ * {@link com.example.forgotpassword.repository.PasswordHistoryRepository} for the reset flows,
+ * over one R2DBC pool per shard.
+ * <p>
+ * Writes bypass Hibernate, so callers evict the users they change from its cache.
+ */
+public class ReactiveUserRepository implements AutoCloseable {
+
+    private static final String USER_COLUMNS = "id, email, username, password, reset_token_expiry";
+
+    private final List<ConnectionPool> pools;
+    private final List<DatabaseClient> clients;
+    private final List<TransactionalOperator> transactions;
+
+    public ReactiveUserRepository(List<ConnectionPool> pools) {
+        this.pools = List.copyOf(pools);
+        this.clients = pools.stream().map(DatabaseClient::create).toList();
+        this.transactions = pools.stream()
+                .map(pool -> TransactionalOperator.create(new R2dbcTransactionManager(pool)))
+                .toList();
+    }
+
+    public Mono<ReactiveUser> findByEmail(int shard, String email) {
+        return clients.get(shard).sql("SELECT " + USER_COLUMNS + " FROM users WHERE email = :email")
+                .bind("email", email)
+                .map(ReactiveUserRepository::user)
+                .one();
+    }
+
+    public Mono<ReactiveUser> findByResetToken(int shard, String token) {
+        return clients.get(shard).sql("SELECT " + USER_COLUMNS + " FROM users WHERE reset_token = :token")
+                .bind("token", token)
+                .map(ReactiveUserRepository::user)
+                .one();
+    }
+
+    public Mono<Void> updateResetToken(int shard, long userId, String token, LocalDateTime expiry) {
+        return clients.get(shard).sql("UPDATE users SET reset_token = :token, reset_token_expiry = :expiry WHERE id = :id")
+                .bind("token", token)
+                .bind("expiry", expiry)
+                .bind("id", userId)
+                .then();
+    }
+
+    /**
+     * Sets the new password and clears the token, unless a concurrent reset used the token first.
+     *
+     * @return whether the row was changed
+     */
+    public Mono<Boolean> updatePasswordIfToken(int shard, long userId, String token, String newHash) {
+        return clients.get(shard).sql("UPDATE users SET password = :password, reset_token = NULL, reset_token_expiry = NULL"
+                        + " WHERE id = :id AND reset_token = :token")
+                .bind("password", newHash)
+                .bind("id", userId)
+                .bind("token", token)
+                .fetch()
+                .rowsUpdated()
+                .map(rows -> rows == 1);
+    }
+
+    /** Previous password hashes, newest first. */
+    public Flux<String> findRecentPasswords(int shard, long userId, int limit) {
+        return clients.get(shard).sql("SELECT password FROM password_history WHERE user_id = :userId ORDER BY id DESC LIMIT :limit")
+                .bind("userId", userId)
+                .bind("limit", limit)
+                .map(row -> row.get("password", String.class))
+                .all();
+    }
+
+    /**
+     * Remembers {@code previousHash} and keeps the user's newest {@code keep} entries, as
+     * {@link com.example.forgotpassword.service.PasswordHistoryService#remember} does.
+     */
+    public Mono<Void> rememberPassword(int shard, long userId, String previousHash, int keep) {
+        DatabaseClient client = clients.get(shard);
+        Mono<Void> insert = client.sql("INSERT INTO password_history (user_id, password, created_at) VALUES (:userId, :password, :createdAt)")
+                .bind("userId", userId)
+                .bind("password", previousHash)
+                .bind("createdAt", LocalDateTime.now())
+                .then();
+        Mono<Void> trim = client.sql("SELECT id FROM password_history WHERE user_id = :userId ORDER BY id DESC LIMIT 1 OFFSET :keep")
+                .bind("userId", userId)
+                .bind("keep", keep)
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .flatMap(oldest -> client.sql("DELETE FROM password_history WHERE user_id = :userId AND id <= :oldest")
+                        .bind("userId", userId)
+                        .bind("oldest", oldest)
+                        .then());
+        return insert.then(trim);
+    }
+
+    /** Runs {@code work} in one transaction on {@code shard}. */
+    public <T> Mono<T> inTransaction(int shard, Mono<T> work) {
+        return transactions.get(shard).transactional(work);
+    }
+
+    public int shardCount() {
+        return clients.size();
+    }
+
+    @Override
+    public void close() {
+        pools.forEach(ConnectionPool::dispose);
+    }
+
+    private static ReactiveUser user(Readable row) {
+        return new ReactiveUser(
+                row.get("id", Long.class),
+                row.get("email", String.class),
+                row.get("username", String.class),
+                row.get("password", String.class),
+                row.get("reset_token_expiry", LocalDateTime.class));
+    }
+}
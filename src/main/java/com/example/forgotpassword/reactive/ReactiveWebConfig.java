@@ -0,0 +1,78 @@
+package com.example.forgotpassword.reactive;
+
+import com.example.forgotpassword.abuse.AbuseProperties;
+import com.example.forgotpassword.abuse.ResetTrafficMonitor;
+import com.example.forgotpassword.limiter.AdaptiveConcurrencyLimiter;
+import com.example.forgotpassword.limiter.LimiterProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+/**
+ * Server, security and request filters for the reactive stack (profile {@code reactive}): the
+ * same abuse throttling and concurrency limit as the servlet stack, as WebFilters.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebConfig {
+
+    // order of Spring Security's WebFilterChainProxy; the filters below run ahead of it
+    private static final int SECURITY_FILTER_ORDER = -100;
+
+    /**
+     * Tomcat is on the classpath for the servlet stack and would otherwise be picked for
+     * WebFlux too; Netty keeps every request on the event loops.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Only the reset pages are served: no login, no session, and no CSRF token, which the
+     * servlet stack does not require on these two form posts either.
+     */
+    @Bean
+    public SecurityWebFilterChain resetSecurityWebFilterChain(ServerHttpSecurity http) {
+        return http
+                .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers("/forgot-password", "/reset-password", "/reset-success", "/css/**", "/js/**").permitAll()
+                        .pathMatchers("/actuator/health/**").permitAll()
+                        .anyExchange().denyAll()
+                )
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.NOT_FOUND))
+                )
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .requestCache(cache -> cache.disable())
+                .csrf(csrf -> csrf.disable())
+                .build();
+    }
+
+    /**
+     * Runs before the limiter, so refused requests never count as in flight.
+     */
+    @Bean
+    @Order(SECURITY_FILTER_ORDER - 2)
+    public ReactiveResetAbuseFilter reactiveResetAbuseFilter(ResetTrafficMonitor monitor, AbuseProperties properties) {
+        return new ReactiveResetAbuseFilter(monitor, properties);
+    }
+
+    @Bean
+    @Order(SECURITY_FILTER_ORDER - 1)
+    @ConditionalOnProperty(prefix = "app.limiter", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public ReactiveConcurrencyLimitFilter reactiveConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter,
+                                                                         LimiterProperties properties) {
+        return new ReactiveConcurrencyLimitFilter(limiter, properties);
+    }
+}
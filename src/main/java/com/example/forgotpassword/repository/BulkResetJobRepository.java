@@ -0,0 +1,13 @@
+package com.example.forgotpassword.repository;
+
+import com.example.forgotpassword.entity.BulkResetJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BulkResetJobRepository extends JpaRepository<BulkResetJob, Long> {
+
+    List<BulkResetJob> findByStatusInOrderByIdAsc(Collection<BulkResetJob.Status> statuses);
+}
@@ -0,0 +1,32 @@
+package com.example.forgotpassword.repository;
+
+/**
+ * {@code LIKE} patterns that match the emails of one domain, for the plain SQL listings. The
+ * domain comes from an admin and is matched literally: {@code _} and {@code %} in it are
+ * escaped, so {@code corp_example} does not also match {@code corp.example}. Use the pattern as
+ * {@code email LIKE ? } followed by {@link #ESCAPE}.
+ * <p>
+ * The escape character is {@code !} rather than a backslash, which MySQL and H2 read
+ * differently inside a string literal.
+ */
+public final class EmailDomainMatch {
+
+    public static final String ESCAPE = " ESCAPE '!'";
+
+    private EmailDomainMatch() {
+    }
+
+    /**
+     * @return a pattern for emails ending in {@code @domain}
+     */
+    public static String likePattern(String domain) {
+        StringBuilder pattern = new StringBuilder("%@");
+        for (char c : domain.toCharArray()) {
+            if (c == '!' || c == '%' || c == '_') {
+                pattern.append('!');
+            }
+            pattern.append(c);
+        }
+        return pattern.toString();
+    }
+}
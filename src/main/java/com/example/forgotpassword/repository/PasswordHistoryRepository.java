@@ -0,0 +1,20 @@
+package com.example.forgotpassword.repository;
+
+import com.example.forgotpassword.entity.PasswordHistory;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PasswordHistoryRepository extends JpaRepository<PasswordHistory, Long> {
+
+    @Query("select h.password from PasswordHistory h where h.user.id = :userId order by h.id desc")
+    List<String> findRecentPasswords(@Param("userId") Long userId, Limit limit);
+
+    @Query("select h.id from PasswordHistory h where h.user.id = :userId order by h.id desc")
+    List<Long> findIdsNewestFirst(@Param("userId") Long userId);
+}
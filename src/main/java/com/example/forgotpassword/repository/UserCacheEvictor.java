@@ -0,0 +1,39 @@
+package com.example.forgotpassword.repository;
+
+import com.example.forgotpassword.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Drops cached {@link User} state after writes that bypass Hibernate (plain JDBC batches).
+ * Writes through the entity manager, including JPQL bulk updates, invalidate the cache on
+ * their own.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public void evict(Collection<Long> userIds) {
+        Cache cache = cache();
+        for (Long id : userIds) {
+            cache.evictEntityData(User.class, id);
+        }
+    }
+
+    public void evictAll() {
+        Cache cache = cache();
+        cache.evictEntityData(User.class);
+        cache.evictNaturalIdData(User.class);
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.forgotpassword.repository;
+
+/**
+ * The columns needed to authenticate a user; loading this projection avoids fetching
+ * the whole {@code User} row on every login.
+ */
+public interface UserCredentials {
+
+    String getEmail();
+
+    String getPassword();
+
+    boolean isEnabled();
+
+    String getRole();
+}
@@ -0,0 +1,14 @@
+package com.example.forgotpassword.repository;
+
+import com.example.forgotpassword.entity.User;
+
+import java.util.Optional;
+
+/**
+ * Lookups by the {@code email} natural id. Unlike a derived query these go through Hibernate's
+ * natural-id and second-level caches, so a warm lookup does not touch the database.
+ */
+public interface UserNaturalIdRepository {
+
+    Optional<User> findByEmail(String email);
+}
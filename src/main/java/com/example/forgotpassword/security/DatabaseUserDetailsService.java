@@ -0,0 +1,118 @@
+package com.example.forgotpassword.security;
+
+import com.example.forgotpassword.repository.UserCredentials;
+import com.example.forgotpassword.repository.UserRepository;
+import com.example.forgotpassword.service.PasswordChangedEvent;
+import com.example.forgotpassword.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads login credentials from the {@code users} table, keyed by email.
+ * <p>
+ * Only the columns authentication needs are read, and lookups are cached for a short TTL so
+ * that repeated logins (and HTTP Basic calls on the admin API) do not hit the database every
+ * time. A password reset evicts the entry once its transaction commits.
+ */
+@Service
+public class DatabaseUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    private final UserRepository userRepository;
+    private final ShardRouter shardRouter;
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Map<String, CachedUser> cache = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+
+    public DatabaseUserDetailsService(UserRepository userRepository,
+                                      ShardRouter shardRouter,
+                                      @Value("${app.security.user-cache.ttl:30s}") Duration ttl,
+                                      @Value("${app.security.user-cache.max-entries:10000}") int maxEntries,
+                                      MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.shardRouter = shardRouter;
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.hits = meterRegistry.counter("auth.user-cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("auth.user-cache.requests", "result", "miss");
+        meterRegistry.gauge("auth.user-cache.size", cache, Map::size);
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        String email = normalize(username);
+        long now = System.nanoTime();
+
+        CachedUser cached = cache.get(email);
+        if (cached != null && now - cached.loadedAt() < ttl.toNanos()) {
+            hits.increment();
+            return copyOf(cached.user());
+        }
+        misses.increment();
+
+        UserCredentials credentials = shardRouter.onShard(shardRouter.shardFor(email),
+                        () -> userRepository.findCredentialsByEmail(email))
+                .orElseThrow(() -> new UsernameNotFoundException("Unknown user"));
+        UserDetails user = User.withUsername(credentials.getEmail())
+                .password(credentials.getPassword())
+                .disabled(!credentials.isEnabled())
+                .roles(credentials.getRole() == null ? "USER" : credentials.getRole())
+                .build();
+        put(email, new CachedUser(user, now));
+        return copyOf(user);
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        shardRouter.onShard(shardRouter.shardFor(user.getUsername()),
+                () -> userRepository.updatePasswordByEmail(user.getUsername(), newPassword));
+        evict(user.getUsername());
+        return User.withUserDetails(user).password(newPassword).build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPasswordChanged(PasswordChangedEvent event) {
+        evict(event.email());
+    }
+
+    public void evict(String email) {
+        cache.remove(normalize(email));
+    }
+
+    private void put(String email, CachedUser entry) {
+        if (cache.size() >= maxEntries) {
+            long now = System.nanoTime();
+            cache.values().removeIf(e -> now - e.loadedAt() >= ttl.toNanos());
+            if (cache.size() >= maxEntries) {
+                return;
+            }
+        }
+        cache.put(email, entry);
+    }
+
+    // the provider erases credentials on the returned instance, so never hand out the cached one
+    private static UserDetails copyOf(UserDetails user) {
+        return User.withUserDetails(user).build();
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record CachedUser(UserDetails user, long loadedAt) {
+    }
+}
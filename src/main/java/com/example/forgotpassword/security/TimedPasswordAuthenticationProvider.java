@@ -0,0 +1,152 @@
+package com.example.forgotpassword.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.authentication.AccountStatusException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.AbstractUserDetailsAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsChecker;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Username/password authentication against {@link DatabaseUserDetailsService}.
+ * <p>
+ * BCrypt verification dominates the cost of a login, so it is timed
+ * ({@code auth.password.verification}) and a moving average of its duration is kept. Requests
+ * for unknown or disabled accounts skip the hash entirely and instead wait for that average,
+ * so they take as long as a wrong password for a real account without burning a core. After a
+ * successful login, hashes stored with a weaker BCrypt strength than the configured encoder
+ * are re-encoded.
+ */
+@Component
+public class TimedPasswordAuthenticationProvider extends AbstractUserDetailsAuthenticationProvider {
+
+    // weight of each new sample in the moving average is 1/8
+    private static final int EWMA_SHIFT = 3;
+
+    private static final String DUMMY_PASSWORD = "userNotFoundPassword";
+
+    private final DatabaseUserDetailsService userDetailsService;
+    private final PasswordEncoder passwordEncoder;
+    private final Timer matchTimer;
+    private final Timer mismatchTimer;
+    private final Counter unknownUsers;
+    private final Counter disabledAccounts;
+    private final Counter rehashed;
+
+    private final AtomicLong averageVerifyNanos = new AtomicLong();
+    private volatile String dummyHash;
+
+    public TimedPasswordAuthenticationProvider(DatabaseUserDetailsService userDetailsService,
+                                               PasswordEncoder passwordEncoder,
+                                               MeterRegistry meterRegistry) {
+        this.userDetailsService = userDetailsService;
+        this.passwordEncoder = passwordEncoder;
+        this.matchTimer = meterRegistry.timer("auth.password.verification", "result", "match");
+        this.mismatchTimer = meterRegistry.timer("auth.password.verification", "result", "mismatch");
+        this.unknownUsers = meterRegistry.counter("auth.login.rejected", "reason", "unknown-user");
+        this.disabledAccounts = meterRegistry.counter("auth.login.rejected", "reason", "account-status");
+        this.rehashed = meterRegistry.counter("auth.password.rehashed");
+
+        UserDetailsChecker statusChecks = getPreAuthenticationChecks();
+        setPreAuthenticationChecks(user -> {
+            try {
+                statusChecks.check(user);
+            } catch (AccountStatusException e) {
+                disabledAccounts.increment();
+                padForVerification();
+                throw e;
+            }
+        });
+    }
+
+    @Override
+    protected UserDetails retrieveUser(String username, UsernamePasswordAuthenticationToken authentication)
+            throws AuthenticationException {
+        UserDetails user;
+        try {
+            user = userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            unknownUsers.increment();
+            padForVerification();
+            throw e;
+        } catch (RuntimeException e) {
+            throw new InternalAuthenticationServiceException(e.getMessage(), e);
+        }
+        if (user == null) {
+            throw new InternalAuthenticationServiceException("UserDetailsService returned null");
+        }
+        return user;
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails,
+                                                  UsernamePasswordAuthenticationToken authentication)
+            throws AuthenticationException {
+        if (authentication.getCredentials() == null) {
+            throw new BadCredentialsException(messages.getMessage(
+                    "AbstractUserDetailsAuthenticationProvider.badCredentials", "Bad credentials"));
+        }
+        if (!verify(authentication.getCredentials().toString(), userDetails.getPassword())) {
+            throw new BadCredentialsException(messages.getMessage(
+                    "AbstractUserDetailsAuthenticationProvider.badCredentials", "Bad credentials"));
+        }
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                         UserDetails user) {
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            String presented = authentication.getCredentials().toString();
+            user = userDetailsService.updatePassword(user, passwordEncoder.encode(presented));
+            rehashed.increment();
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+
+    long averageVerifyNanos() {
+        return averageVerifyNanos.get();
+    }
+
+    private boolean verify(String presented, String encoded) {
+        long start = System.nanoTime();
+        boolean matches = passwordEncoder.matches(presented, encoded);
+        long elapsed = System.nanoTime() - start;
+
+        (matches ? matchTimer : mismatchTimer).record(elapsed, TimeUnit.NANOSECONDS);
+        averageVerifyNanos.accumulateAndGet(elapsed,
+                (avg, sample) -> avg == 0 ? sample : avg + ((sample - avg) >> EWMA_SHIFT));
+        return matches;
+    }
+
+    /**
+     * Waits as long as a password check would have taken. Until a real login has been timed,
+     * one dummy verification is run to seed the average.
+     */
+    private void padForVerification() {
+        if (averageVerifyNanos.get() == 0) {
+            if (dummyHash == null) {
+                dummyHash = passwordEncoder.encode(DUMMY_PASSWORD);
+            }
+            verify(DUMMY_PASSWORD + "-", dummyHash);
+            return;
+        }
+        long deadline = System.nanoTime() + averageVerifyNanos.get();
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.forgotpassword.service;
+
+import com.example.forgotpassword.bulkhead.Workload;
+import com.example.forgotpassword.bulkhead.WorkloadContext;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs {@link PasswordResetService#initiatePasswordReset(String, String)} off the request
+ * thread, for the JSON API. The caller is answered before the account is even looked up, so
+ * neither the answer nor its timing tells whether the account exists; a failed email is only
+ * logged. Each reset runs under the submitting request's {@link Workload}, so its queries use
+ * the same connection pool the request would have.
+ */
+@Slf4j
+@Component
+public class BackgroundPasswordResets {
+
+    private final PasswordResetService passwordResetService;
+    private final ThreadPoolExecutor workers;
+
+    public BackgroundPasswordResets(PasswordResetService passwordResetService,
+                                    @Value("${app.forgot.background.threads:8}") int threads,
+                                    @Value("${app.forgot.background.queue-capacity:1000}") int queueCapacity) {
+        this.passwordResetService = passwordResetService;
+        AtomicInteger ids = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "forgot-background-" + ids.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param clientIp recorded in the audit log, since the request is gone by the time it runs
+     * @return {@code false} if too many resets are already waiting; the same for every account
+     */
+    public boolean submit(String email, String clientIp) {
+        // the request's bulkhead, so the reset keeps to the reset pool rather than the default one
+        Workload workload = WorkloadContext.current();
+        try {
+            workers.execute(() -> {
+                WorkloadContext.set(workload);
+                try {
+                    passwordResetService.initiatePasswordReset(email, clientIp);
+                } catch (Exception e) {
+                    log.warn("Password reset for an API request failed: {}", e.getMessage(), e);
+                } finally {
+                    WorkloadContext.clear();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+}
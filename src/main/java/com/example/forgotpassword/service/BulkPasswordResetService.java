@@ -0,0 +1,394 @@
+package com.example.forgotpassword.service;
+
+import com.example.forgotpassword.dto.BulkResetFilter;
+import com.example.forgotpassword.entity.BulkResetJob;
+import com.example.forgotpassword.repository.BulkResetJobRepository;
+import com.example.forgotpassword.repository.EmailDomainMatch;
+import com.example.forgotpassword.repository.UserCacheEvictor;
+import com.example.forgotpassword.shard.ShardRouter;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Forces password resets for large sets of accounts.
+ * <p>
+ * A job reads its targets in chunks, either from an uploaded CSV of emails / user ids or by
+ * walking the {@code users} table in id order. Each chunk gets its tokens in one batched
+ * {@code UPDATE} and one transaction, then its emails are handed to {@link DomainMailScheduler},
+ * whose bounded queue throttles the job to what the relay can take.
+ * <p>
+ * The job's checkpoint only advances once every email of a chunk has been handed to the relay,
+ * so after a crash the job resumes at the first unfinished chunk. Accounts in that chunk get a
+ * fresh token and a second email; the newest link is always the valid one.
+ * <p>
+ * With several shards, emails are looked up on their own shard, ids and filters on every
+ * shard, and each chunk's tokens are written in one transaction per shard.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkPasswordResetService {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final DomainMailScheduler mailScheduler;
+    private final BulkResetJobRepository jobRepository;
+    private final UserCacheEvictor userCacheEvictor;
+    private final ShardRouter shardRouter;
+
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "bulk-reset");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Value("${app.base-url:http://localhost:8080}")
+    private String baseUrl;
+
+    @Value("${app.bulk-reset.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.bulk-reset.max-chunks-in-flight:4}")
+    private int maxChunksInFlight;
+
+    @Value("${app.bulk-reset.token-validity:72h}")
+    private Duration tokenValidity;
+
+    @Value("${app.bulk-reset.spool-dir:./data/bulk-reset}")
+    private Path spoolDir;
+
+    public BulkResetJob startFromCsv(InputStream csv) throws IOException {
+        Files.createDirectories(spoolDir);
+        Path file = Files.createTempFile(spoolDir, "bulk-reset-", ".csv");
+        Files.copy(csv, file, StandardCopyOption.REPLACE_EXISTING);
+
+        BulkResetJob job = new BulkResetJob();
+        job.setSource(BulkResetJob.Source.CSV);
+        job.setInputFile(file.toAbsolutePath().toString());
+        return schedule(jobRepository.save(job));
+    }
+
+    public BulkResetJob startFromFilter(BulkResetFilter filter) {
+        BulkResetJob job = new BulkResetJob();
+        job.setSource(BulkResetJob.Source.FILTER);
+        if (filter.getEmailDomain() != null && !filter.getEmailDomain().isBlank()) {
+            job.setFilterDomain(filter.getEmailDomain().trim().toLowerCase(Locale.ROOT));
+        }
+        job.setFilterIdFrom(filter.getIdFrom());
+        job.setFilterIdTo(filter.getIdTo());
+        return schedule(jobRepository.save(job));
+    }
+
+    public Optional<BulkResetJob> findJob(Long id) {
+        return jobRepository.findById(id);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        for (BulkResetJob job : jobRepository.findByStatusInOrderByIdAsc(
+                EnumSet.of(BulkResetJob.Status.PENDING, BulkResetJob.Status.RUNNING))) {
+            log.info("Resuming bulk reset job {} at checkpoint {}", job.getId(), job.getCheckpoint());
+            schedule(job);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    private BulkResetJob schedule(BulkResetJob job) {
+        Long id = job.getId();
+        runner.submit(() -> run(id));
+        return job;
+    }
+
+    void run(Long jobId) {
+        BulkResetJob job = jobRepository.findById(jobId).orElseThrow();
+        if (job.getStatus() == BulkResetJob.Status.COMPLETED || job.getStatus() == BulkResetJob.Status.FAILED) {
+            return;
+        }
+
+        job.setStatus(BulkResetJob.Status.RUNNING);
+        if (job.getStartedAt() == null) {
+            job.setStartedAt(LocalDateTime.now());
+        }
+        job = jobRepository.save(job);
+
+        try (TargetSource source = job.getSource() == BulkResetJob.Source.CSV ? new CsvSource(job) : new FilterSource(job)) {
+            job = process(job, source);
+            job.setStatus(BulkResetJob.Status.COMPLETED);
+            job.setFinishedAt(LocalDateTime.now());
+            if (job.getInputFile() != null) {
+                Files.deleteIfExists(Path.of(job.getInputFile()));
+            }
+        } catch (InterruptedException e) {
+            // shutting down: leave the job RUNNING so it resumes on the next start
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            log.error("Bulk reset job {} failed", jobId, e);
+            job.setStatus(BulkResetJob.Status.FAILED);
+            job.setLastError(e.getMessage());
+            job.setFinishedAt(LocalDateTime.now());
+        }
+        jobRepository.save(job);
+    }
+
+    private BulkResetJob process(BulkResetJob job, TargetSource source) throws IOException, InterruptedException {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Deque<InFlightChunk> inFlight = new ArrayDeque<>();
+        AtomicLong failedDeliveries = new AtomicLong();
+        long failedBefore = job.getEmailsFailed();
+
+        Chunk chunk;
+        while ((chunk = source.next()) != null) {
+            List<OutboundResetEmail> emails = issueTokens(chunk.targets(), transactionTemplate);
+
+            List<CompletableFuture<Void>> deliveries = new ArrayList<>(emails.size());
+            for (OutboundResetEmail email : emails) {
+                // blocks while the mail scheduler is full
+                deliveries.add(mailScheduler.submit(email).whenComplete((ignored, failure) -> {
+                    if (failure != null) {
+                        failedDeliveries.incrementAndGet();
+                    }
+                }));
+            }
+            inFlight.addLast(new InFlightChunk(chunk, CompletableFuture.allOf(deliveries.toArray(CompletableFuture[]::new))));
+
+            while (!inFlight.isEmpty() && (inFlight.size() > maxChunksInFlight || inFlight.peekFirst().deliveries().isDone())) {
+                job = checkpoint(job, inFlight.pollFirst(), failedBefore + failedDeliveries.get());
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            job = checkpoint(job, inFlight.pollFirst(), failedBefore + failedDeliveries.get());
+        }
+        job.setEmailsFailed(failedBefore + failedDeliveries.get());
+        return job;
+    }
+
+    private List<OutboundResetEmail> issueTokens(List<Target> targets, TransactionTemplate transactionTemplate) {
+        if (targets.isEmpty()) {
+            return List.of();
+        }
+
+        LocalDateTime expiry = LocalDateTime.now().plus(tokenValidity);
+        List<OutboundResetEmail> emails = new ArrayList<>(targets.size());
+        Map<Integer, List<SqlParameterSource>> updatesByShard = new TreeMap<>();
+        for (Target target : targets) {
+            String token = shardRouter.newResetToken(target.shard());
+            updatesByShard.computeIfAbsent(target.shard(), shard -> new ArrayList<>()).add(new MapSqlParameterSource()
+                    .addValue("id", target.id())
+                    .addValue("token", token)
+                    .addValue("expiry", expiry));
+            emails.add(new OutboundResetEmail(target.email(), baseUrl + "/reset-password?token=" + token, target.username()));
+        }
+
+        updatesByShard.forEach((shard, updates) -> shardRouter.onShard(shard, () ->
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                        "UPDATE users SET reset_token = :token, reset_token_expiry = :expiry WHERE id = :id",
+                        updates.toArray(SqlParameterSource[]::new)))));
+        userCacheEvictor.evict(targets.stream().map(Target::id).toList());
+        return emails;
+    }
+
+    private BulkResetJob checkpoint(BulkResetJob job, InFlightChunk chunk, long failedDeliveries) {
+        // delivery failures are counted, not fatal: the chunk is done once every email was attempted
+        chunk.deliveries().handle((ignored, failure) -> null).join();
+
+        Chunk done = chunk.chunk();
+        job.setCheckpoint(done.checkpointAfter());
+        job.setProcessed(job.getProcessed() + done.rows());
+        job.setTokensIssued(job.getTokensIssued() + done.targets().size());
+        job.setEmailsQueued(job.getEmailsQueued() + done.targets().size());
+        job.setNotFound(job.getNotFound() + done.rows() - done.targets().size());
+        job.setEmailsFailed(failedDeliveries);
+        return jobRepository.save(job);
+    }
+
+    private static RowMapper<Target> targetMapper(int shard) {
+        return (rs, rowNum) -> new Target(rs.getLong("id"), shard, rs.getString("email"), rs.getString("username"));
+    }
+
+    private record Target(long id, int shard, String email, String username) {
+    }
+
+    /**
+     * @param rows            input rows consumed by this chunk
+     * @param checkpointAfter job checkpoint once this chunk is done
+     */
+    private record Chunk(List<Target> targets, int rows, long checkpointAfter) {
+    }
+
+    private record InFlightChunk(Chunk chunk, CompletableFuture<Void> deliveries) {
+    }
+
+    private interface TargetSource extends AutoCloseable {
+
+        /**
+         * @return the next chunk, or {@code null} when the input is exhausted
+         */
+        Chunk next() throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    /**
+     * Reads the first column of a spooled CSV. Values containing {@code @} are emails, numeric
+     * values are user ids, and a leading header row is skipped. The checkpoint is the number of
+     * lines consumed.
+     */
+    private final class CsvSource implements TargetSource {
+        private final BufferedReader reader;
+        private long linesConsumed;
+
+        CsvSource(BulkResetJob job) throws IOException {
+            this.reader = Files.newBufferedReader(Path.of(job.getInputFile()), StandardCharsets.UTF_8);
+            for (long i = 0; i < job.getCheckpoint() && reader.readLine() != null; i++) {
+                linesConsumed++;
+            }
+        }
+
+        @Override
+        public Chunk next() throws IOException {
+            List<String> emails = new ArrayList<>();
+            List<Long> ids = new ArrayList<>();
+            int rows = 0;
+
+            String line;
+            while (rows < chunkSize && (line = reader.readLine()) != null) {
+                linesConsumed++;
+                String value = firstColumn(line);
+                if (value.isEmpty() || (linesConsumed == 1 && !value.contains("@") && !isNumeric(value))) {
+                    continue;
+                }
+                rows++;
+                if (value.contains("@")) {
+                    emails.add(value.toLowerCase(Locale.ROOT));
+                } else if (isNumeric(value)) {
+                    ids.add(Long.parseLong(value));
+                }
+            }
+            if (rows == 0) {
+                return null;
+            }
+
+            List<Target> targets = new ArrayList<>(rows);
+            Map<Integer, List<String>> emailsByShard = new TreeMap<>();
+            for (String email : emails) {
+                emailsByShard.computeIfAbsent(shardRouter.shardFor(email), shard -> new ArrayList<>()).add(email);
+            }
+            emailsByShard.forEach((shard, shardEmails) -> targets.addAll(shardRouter.onShard(shard, () ->
+                    jdbcTemplate.query("SELECT id, email, username FROM users WHERE email IN (:emails)",
+                            new MapSqlParameterSource("emails", shardEmails), targetMapper(shard)))));
+            if (!ids.isEmpty()) {
+                // ids are unique across shards, but say nothing about which shard holds them
+                shardRouter.onEachShard(shard -> targets.addAll(
+                        jdbcTemplate.query("SELECT id, email, username FROM users WHERE id IN (:ids)",
+                                new MapSqlParameterSource("ids", ids), targetMapper(shard))));
+            }
+            return new Chunk(targets, rows, linesConsumed);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        private static String firstColumn(String line) {
+            int comma = line.indexOf(',');
+            String value = (comma < 0 ? line : line.substring(0, comma)).trim();
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1).trim();
+            }
+            return value;
+        }
+
+        private static boolean isNumeric(String value) {
+            return value.chars().allMatch(Character::isDigit);
+        }
+    }
+
+    /**
+     * Walks matching users in id order with keyset pagination. The checkpoint is the last id
+     * handled. Every shard returns its next page and the pages are merged, keeping the lowest ids.
+     */
+    private final class FilterSource implements TargetSource {
+        private final BulkResetJob job;
+        private long lastId;
+
+        FilterSource(BulkResetJob job) {
+            this.job = job;
+            long from = job.getFilterIdFrom() != null ? job.getFilterIdFrom() - 1 : 0;
+            this.lastId = Math.max(job.getCheckpoint(), from);
+        }
+
+        @Override
+        public Chunk next() {
+            StringBuilder sql = new StringBuilder("SELECT id, email, username FROM users WHERE id > :after");
+            MapSqlParameterSource params = new MapSqlParameterSource("after", lastId);
+            if (job.getFilterIdTo() != null) {
+                sql.append(" AND id <= :idTo");
+                params.addValue("idTo", job.getFilterIdTo());
+            }
+            if (job.getFilterDomain() != null) {
+                sql.append(" AND email LIKE :domain").append(EmailDomainMatch.ESCAPE);
+                params.addValue("domain", EmailDomainMatch.likePattern(job.getFilterDomain()));
+            }
+            sql.append(" ORDER BY id LIMIT :limit");
+            params.addValue("limit", chunkSize);
+
+            List<Target> targets = shardRouter.onEachShard(shard -> jdbcTemplate.query(sql.toString(), params,
+                            targetMapper(shard))).stream()
+                    .flatMap(List::stream)
+                    .sorted(Comparator.comparingLong(Target::id))
+                    .limit(chunkSize)
+                    .toList();
+            if (targets.isEmpty()) {
+                return null;
+            }
+            lastId = targets.get(targets.size() - 1).id();
+            return new Chunk(targets, targets.size(), lastId);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.example.forgotpassword.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers queued reset emails grouped by recipient domain.
+ * <p>
+ * Every domain has its own FIFO queue, concurrency limit and token-bucket rate limit. A single
+ * dispatcher thread walks the domains with deficit round robin, giving each domain up to
+ * {@code weight} sends per turn, so a large provider that is rate limited does not hold back
+ * small domains and vice versa. Sends run on a fixed worker pool through {@link EmailService}.
+ * <p>
+ * {@link #submit} blocks once {@code queueCapacity} emails are queued or in flight, which gives
+ * bulk producers natural backpressure.
+ */
+@Slf4j
+@Service
+public class DomainMailScheduler {
+
+    static final String OTHER_DOMAINS = "other";
+
+    private static final long MAX_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final EmailService emailService;
+    private final MailSchedulerProperties properties;
+    private final Semaphore capacity;
+    private final ExecutorService workers;
+    private final Thread dispatcher;
+
+    private final ConcurrentHashMap<String, DomainQueue> queues = new ConcurrentHashMap<>();
+    private final AtomicInteger totalInFlight = new AtomicInteger();
+    private volatile boolean running = true;
+
+    // Owned by the dispatcher thread
+    private final ArrayDeque<DomainQueue> active = new ArrayDeque<>();
+
+    public DomainMailScheduler(EmailService emailService,
+                               MailSchedulerProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.emailService = emailService;
+        this.properties = properties;
+        this.capacity = new Semaphore(properties.getQueueCapacity());
+
+        AtomicInteger workerIds = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(properties.getWorkerThreads(), r -> {
+            Thread t = new Thread(r, "mail-worker-" + workerIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.dispatcher = new Thread(this::dispatchLoop, "mail-dispatcher");
+        this.dispatcher.setDaemon(true);
+
+        for (String domain : properties.getDomains().keySet()) {
+            Gauge.builder("mail.scheduler.queue.depth", () -> queueDepth(domain))
+                    .tag("domain", domain)
+                    .register(meterRegistry);
+        }
+        Gauge.builder("mail.scheduler.queue.depth", () -> queueDepth(OTHER_DOMAINS))
+                .tag("domain", OTHER_DOMAINS)
+                .register(meterRegistry);
+        Gauge.builder("mail.scheduler.in-flight", totalInFlight, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(dispatcher);
+        dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+
+        for (DomainQueue queue : queues.values()) {
+            Job job;
+            while ((job = queue.pending.poll()) != null) {
+                job.result.completeExceptionally(new CancellationException("Mail scheduler shut down"));
+            }
+        }
+    }
+
+    /**
+     * Queues an email for delivery, blocking while the scheduler is at capacity.
+     *
+     * @return a future completed once the email was handed to the relay, or completed
+     *         exceptionally with the delivery failure
+     */
+    public CompletableFuture<Void> submit(OutboundResetEmail email) throws InterruptedException {
+        capacity.acquire();
+        if (!running) {
+            capacity.release();
+            throw new IllegalStateException("Mail scheduler is shut down");
+        }
+
+        Job job = new Job(email, new CompletableFuture<>());
+        queues.compute(email.recipientDomain(), (domain, queue) -> {
+            DomainQueue target = queue != null ? queue : new DomainQueue(domain, properties.limitsFor(domain));
+            target.pending.add(job);
+            return target;
+        });
+        LockSupport.unpark(dispatcher);
+        return job.result;
+    }
+
+    /**
+     * Current number of queued (not yet dispatched) emails per recipient domain.
+     */
+    public Map<String, Integer> queueDepths() {
+        Map<String, Integer> depths = new TreeMap<>();
+        queues.forEach((domain, queue) -> depths.put(domain, queue.pending.size()));
+        return depths;
+    }
+
+    private int queueDepth(String domain) {
+        if (!OTHER_DOMAINS.equals(domain)) {
+            DomainQueue queue = queues.get(domain);
+            return queue == null ? 0 : queue.pending.size();
+        }
+        return queues.values().stream()
+                .filter(queue -> !properties.getDomains().containsKey(queue.domain))
+                .mapToInt(queue -> queue.pending.size())
+                .sum();
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                LockSupport.parkNanos(this, dispatchRound());
+            } catch (RuntimeException e) {
+                log.error("Mail dispatcher iteration failed", e);
+            }
+        }
+    }
+
+    /**
+     * Dispatches as much as the limits allow.
+     *
+     * @return how long the dispatcher may sleep before something could become sendable
+     */
+    private long dispatchRound() {
+        admitNewlyActiveDomains();
+
+        long wait = MAX_IDLE_PARK_NANOS;
+        int blockedInARow = 0;
+
+        while (!active.isEmpty() && blockedInARow < active.size()) {
+            if (totalInFlight.get() >= properties.getWorkerThreads()) {
+                // woken up again when a worker finishes
+                return MAX_IDLE_PARK_NANOS;
+            }
+
+            DomainQueue queue = active.peekFirst();
+            if (queue.pending.isEmpty()) {
+                active.pollFirst();
+                queue.active = false;
+                queue.deficit = 0;
+                continue;
+            }
+
+            if (queue.deficit == 0) {
+                queue.deficit = Math.max(1, queue.limits.getWeight());
+            }
+
+            long now = System.nanoTime();
+            if (queue.inFlight.get() >= queue.limits.getConcurrency()) {
+                active.addLast(active.pollFirst());
+                blockedInARow++;
+                continue;
+            }
+            if (!queue.bucket.tryConsume(now)) {
+                wait = Math.min(wait, queue.bucket.nanosUntilNextToken(now));
+                active.addLast(active.pollFirst());
+                blockedInARow++;
+                continue;
+            }
+
+            dispatch(queue, queue.pending.poll());
+            blockedInARow = 0;
+
+            if (--queue.deficit == 0) {
+                active.addLast(active.pollFirst());
+            }
+        }
+        return Math.max(wait, 1);
+    }
+
+    private void admitNewlyActiveDomains() {
+        for (DomainQueue queue : queues.values()) {
+            if (queue.active) {
+                continue;
+            }
+            if (!queue.pending.isEmpty()) {
+                queue.active = true;
+                active.addLast(queue);
+            } else if (!properties.getDomains().containsKey(queue.domain)) {
+                // forget idle ad-hoc domains so the map does not grow without bound
+                queues.computeIfPresent(queue.domain,
+                        (domain, q) -> q.pending.isEmpty() && q.inFlight.get() == 0 ? null : q);
+            }
+        }
+    }
+
+    private void dispatch(DomainQueue queue, Job job) {
+        queue.inFlight.incrementAndGet();
+        totalInFlight.incrementAndGet();
+        workers.execute(() -> {
+            try {
+                OutboundResetEmail email = job.email;
+                emailService.sendPasswordResetEmail(email.toEmail(), email.resetLink(), email.username());
+                job.result.complete(null);
+            } catch (Exception e) {
+                job.result.completeExceptionally(e);
+            } finally {
+                queue.inFlight.decrementAndGet();
+                totalInFlight.decrementAndGet();
+                capacity.release();
+                LockSupport.unpark(dispatcher);
+            }
+        });
+    }
+
+    private record Job(OutboundResetEmail email, CompletableFuture<Void> result) {
+    }
+
+    private static final class DomainQueue {
+        final String domain;
+        final MailSchedulerProperties.DomainLimits limits;
+        final Queue<Job> pending = new ConcurrentLinkedQueue<>();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final TokenBucket bucket;
+
+        // dispatcher-owned
+        boolean active;
+        int deficit;
+
+        DomainQueue(String domain, MailSchedulerProperties.DomainLimits limits) {
+            this.domain = domain;
+            this.limits = limits;
+            this.bucket = new TokenBucket(limits.getRatePerSecond(), limits.getBurst());
+        }
+    }
+
+    /**
+     * Token bucket used only from the dispatcher thread. A non-positive rate means unlimited.
+     */
+    private static final class TokenBucket {
+        private final double tokensPerNano;
+        private final double maxTokens;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        TokenBucket(double ratePerSecond, int burst) {
+            this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.maxTokens = Math.max(1, burst);
+            this.tokens = maxTokens;
+        }
+
+        boolean tryConsume(long now) {
+            if (tokensPerNano <= 0) {
+                return true;
+            }
+            tokens = Math.min(maxTokens, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        }
+
+        long nanosUntilNextToken(long now) {
+            if (tokensPerNano <= 0) {
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+    }
+}
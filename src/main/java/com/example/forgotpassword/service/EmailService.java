@@ -1,21 +1,48 @@
 package com.example.forgotpassword.service;
 
+import com.example.forgotpassword.bounce.SuppressionList;
 import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSenderFailedException;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
 @Service
 @RequiredArgsConstructor
 public class EmailService {
     private final JavaMailSender mailSender;
     private final TemplateEngine templateEngine;
+    private final MailCircuitBreaker circuitBreaker;
+    private final MailRetryPolicy retryPolicy;
+    private final SuppressionList suppressionList;
 
+    /**
+     * Does nothing for addresses on the {@link SuppressionList}: they hard-bounced recently,
+     * and another attempt would only cost quota and sender reputation.
+     */
     public void sendPasswordResetEmail(String toEmail, String resetLink, String username) throws MessagingException {
+        if (suppressionList.isSuppressed(toEmail)) {
+            return;
+        }
         MimeMessage message = mailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
@@ -29,6 +56,128 @@ public class EmailService {
         String htmlContent = templateEngine.process("email/password-reset-email", context);
         helper.setText(htmlContent, true);
 
-        mailSender.send(message);
+        send(message);
+    }
+
+    /**
+     * Sends the message through the circuit breaker, retrying transient failures with
+     * exponential backoff until the attempt count or the elapsed-time budget runs out. A retry
+     * starts only if it can time out before the budget ends. A permanent rejection (a 5xx reply
+     * or a refused recipient) is neither retried nor held against the relay.
+     */
+    private void send(MimeMessage message) throws MessagingException {
+        long deadline = System.nanoTime() + retryPolicy.getMaxElapsed().toNanos();
+        long attemptTimeout = attemptTimeout().toNanos();
+        MailException lastFailure = null;
+
+        for (int attempt = 1; attempt <= retryPolicy.getMaxAttempts(); attempt++) {
+            if (attempt > 1) {
+                Duration backoff = retryPolicy.backoffBefore(attempt - 1);
+                if (System.nanoTime() + backoff.toNanos() + attemptTimeout >= deadline) {
+                    break;
+                }
+                sleep(backoff);
+            }
+
+            if (!circuitBreaker.tryAcquirePermission()) {
+                throw new MailDeliveryUnavailableException("Mail relay unavailable (circuit open)", lastFailure);
+            }
+
+            try {
+                mailSender.send(message);
+                circuitBreaker.onSuccess();
+                return;
+            } catch (MailException e) {
+                if (isPermanent(e)) {
+                    // the relay answered; this also settles a half-open probe
+                    circuitBreaker.onSuccess();
+                    throw e;
+                }
+                circuitBreaker.onFailure();
+                lastFailure = e;
+                if (!isRetryable(e)) {
+                    throw e;
+                }
+            }
+        }
+
+        throw new MailDeliveryUnavailableException("Mail delivery failed after retries", lastFailure);
+    }
+
+    private static boolean isRetryable(MailException e) {
+        return !(e instanceof MailAuthenticationException
+                || e instanceof MailParseException
+                || e instanceof MailPreparationException);
+    }
+
+    /**
+     * Whether every message in {@code e} failed for good: a 5xx reply or a recipient the relay
+     * refused. Connection failures and 4xx replies are transient.
+     */
+    private static boolean isPermanent(MailException e) {
+        if (!(e instanceof MailSendException sendException)) {
+            return false;
+        }
+        List<Exception> failures = new ArrayList<>(Arrays.asList(sendException.getMessageExceptions()));
+        if (failures.isEmpty() && e.getCause() instanceof Exception cause) {
+            failures.add(cause);
+        }
+        return !failures.isEmpty() && failures.stream().allMatch(EmailService::isPermanent);
+    }
+
+    private static boolean isPermanent(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            int code = smtpReturnCode(t);
+            if (code >= 400) {
+                return code >= 500;
+            }
+            if (t instanceof SendFailedException sendFailed
+                    && sendFailed.getInvalidAddresses() != null && sendFailed.getInvalidAddresses().length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int smtpReturnCode(Throwable t) {
+        if (t instanceof SMTPAddressFailedException e) {
+            return e.getReturnCode();
+        }
+        if (t instanceof SMTPSenderFailedException e) {
+            return e.getReturnCode();
+        }
+        if (t instanceof SMTPSendFailedException e) {
+            return e.getReturnCode();
+        }
+        return -1;
+    }
+
+    /**
+     * Longest one attempt can wait on a stalled relay: the connect timeout plus a read timeout
+     * from the JavaMail properties. Zero when they are not known.
+     */
+    private Duration attemptTimeout() {
+        if (!(mailSender instanceof JavaMailSenderImpl impl)) {
+            return Duration.ZERO;
+        }
+        Properties properties = impl.getJavaMailProperties();
+        return Duration.ofMillis(millis(properties, "mail.smtp.connectiontimeout") + millis(properties, "mail.smtp.timeout"));
+    }
+
+    private static long millis(Properties properties, String name) {
+        try {
+            return Long.parseLong(properties.getProperty(name, "0").trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void sleep(Duration duration) throws MailDeliveryUnavailableException {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailDeliveryUnavailableException("Interrupted while waiting to retry mail delivery", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,100 @@
+package com.example.forgotpassword.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Circuit breaker guarding the SMTP relay.
+ * <p>
+ * After {@code failureThreshold} consecutive failures the breaker opens and every caller is
+ * rejected immediately for {@code openDuration}. After that a single probe is let through
+ * (half-open); its outcome decides whether the breaker closes again or re-opens.
+ */
+@Component
+public class MailCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+    private volatile long openedAt;
+
+    private final Counter successes;
+    private final Counter failures;
+    private final Counter rejections;
+
+    public MailCircuitBreaker(@Value("${app.mail.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                              @Value("${app.mail.circuit-breaker.open-duration:30s}") Duration openDuration,
+                              MeterRegistry meterRegistry) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+
+        Gauge.builder("mail.circuit.state", state, s -> s.get().ordinal())
+                .description("SMTP circuit breaker state (0 = closed, 1 = open, 2 = half-open)")
+                .register(meterRegistry);
+        this.successes = meterRegistry.counter("mail.circuit.calls", "outcome", "success");
+        this.failures = meterRegistry.counter("mail.circuit.calls", "outcome", "failure");
+        this.rejections = meterRegistry.counter("mail.circuit.calls", "outcome", "rejected");
+    }
+
+    /**
+     * @return {@code true} if the caller may attempt a send, {@code false} if it must fail fast
+     */
+    public boolean tryAcquirePermission() {
+        State current = state.get();
+
+        if (current == State.OPEN && System.nanoTime() - openedAt >= openDurationNanos) {
+            state.compareAndSet(State.OPEN, State.HALF_OPEN);
+            current = state.get();
+        }
+
+        boolean permitted = switch (current) {
+            case CLOSED -> true;
+            case HALF_OPEN -> probeInFlight.compareAndSet(false, true);
+            case OPEN -> false;
+        };
+
+        if (!permitted) {
+            rejections.increment();
+        }
+        return permitted;
+    }
+
+    public void onSuccess() {
+        successes.increment();
+        consecutiveFailures.set(0);
+        state.set(State.CLOSED);
+        probeInFlight.set(false);
+    }
+
+    public void onFailure() {
+        failures.increment();
+
+        if (state.get() == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            open();
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    private void open() {
+        openedAt = System.nanoTime();
+        state.set(State.OPEN);
+        consecutiveFailures.set(0);
+        probeInFlight.set(false);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.forgotpassword.service;
+
+import jakarta.mail.MessagingException;
+
+/**
+ * Thrown when an email is not sent because the SMTP circuit breaker is open
+ * or the delivery time budget ran out.
+ */
+public class MailDeliveryUnavailableException extends MessagingException {
+
+    public MailDeliveryUnavailableException(String message) {
+        super(message);
+    }
+
+    public MailDeliveryUnavailableException(String message, Exception cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.forgotpassword.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with full jitter for SMTP retries.
+ * <p>
+ * The delay before retry {@code n} (1-based) is a random value in
+ * {@code [0, min(maxBackoff, initialBackoff * 2^(n-1))]}, so callers that failed together
+ * do not hammer the relay again in lock-step.
+ */
+@Component
+public class MailRetryPolicy {
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration maxElapsed;
+
+    public MailRetryPolicy(@Value("${app.mail.retry.max-attempts:3}") int maxAttempts,
+                           @Value("${app.mail.retry.initial-backoff:200ms}") Duration initialBackoff,
+                           @Value("${app.mail.retry.max-backoff:2s}") Duration maxBackoff,
+                           @Value("${app.mail.retry.max-elapsed:12s}") Duration maxElapsed) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.maxElapsed = maxElapsed;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Total time budget for one delivery, including all attempts and backoff sleeps.
+     */
+    public Duration getMaxElapsed() {
+        return maxElapsed;
+    }
+
+    public Duration backoffBefore(int retry) {
+        long cap = maxBackoff.toMillis();
+        long exponential = initialBackoff.toMillis() << Math.min(retry - 1, 30);
+        long ceiling = Math.min(cap, exponential < 0 ? cap : exponential);
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.forgotpassword.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Limits for {@link DomainMailScheduler}. Domains that are not listed under {@code domains}
+ * get their own queue with the {@code defaults} limits.
+ * <pre>
+ * app.mail.scheduler.domains[gmail.com].concurrency=8
+ * app.mail.scheduler.domains[gmail.com].rate-per-second=20
+ * app.mail.scheduler.domains[gmail.com].weight=4
+ * </pre>
+ */
+@Data
+@ConfigurationProperties(prefix = "app.mail.scheduler")
+public class MailSchedulerProperties {
+
+    /** Number of threads talking to the SMTP relay. */
+    private int workerThreads = 16;
+
+    /** Emails that may be queued or in flight across all domains before submitters block. */
+    private int queueCapacity = 10_000;
+
+    private DomainLimits defaults = new DomainLimits();
+
+    private Map<String, DomainLimits> domains = new LinkedHashMap<>();
+
+    @Data
+    public static class DomainLimits {
+
+        /** Maximum concurrent SMTP transactions for the domain. */
+        private int concurrency = 2;
+
+        /** Sustained sends per second for the domain. */
+        private double ratePerSecond = 2.0;
+
+        /** Sends allowed in a burst above the sustained rate. */
+        private int burst = 5;
+
+        /** Share of dispatch turns relative to other domains. */
+        private int weight = 1;
+    }
+
+    public DomainLimits limitsFor(String domain) {
+        return domains.getOrDefault(domain, defaults);
+    }
+}
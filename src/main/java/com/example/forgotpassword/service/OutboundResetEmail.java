@@ -0,0 +1,12 @@
+package com.example.forgotpassword.service;
+
+/**
+ * A password reset email waiting in {@link DomainMailScheduler}.
+ */
+public record OutboundResetEmail(String toEmail, String resetLink, String username) {
+
+    public String recipientDomain() {
+        int at = toEmail.lastIndexOf('@');
+        return at < 0 ? "" : toEmail.substring(at + 1).toLowerCase();
+    }
+}
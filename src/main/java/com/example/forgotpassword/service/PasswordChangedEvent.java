@@ -0,0 +1,7 @@
+package com.example.forgotpassword.service;
+
+/**
+ * Published when a user's password hash changes, so anything caching credentials can drop them.
+ */
+public record PasswordChangedEvent(String email) {
+}
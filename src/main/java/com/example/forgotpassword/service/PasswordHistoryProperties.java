@@ -0,0 +1,27 @@
+package com.example.forgotpassword.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link PasswordHistoryService}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.password-history")
+public class PasswordHistoryProperties {
+
+    /** Recent passwords, the current one included, that cannot be chosen again; 0 turns the check off. */
+    private int size = 5;
+
+    /** Threads comparing hashes; 0 means one per core. */
+    private int threads = 0;
+
+    /**
+     * How long a reset waits for the pool to finish the check after hashing the new password.
+     * After that the request thread finishes the check itself, and it is counted as a timeout.
+     * The password is never accepted unchecked.
+     */
+    private Duration maxWait = Duration.ofMillis(250);
+}
@@ -0,0 +1,214 @@
+package com.example.forgotpassword.service;
+
+import com.example.forgotpassword.entity.PasswordHistory;
+import com.example.forgotpassword.entity.User;
+import com.example.forgotpassword.repository.PasswordHistoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps each user's recent password hashes and checks new passwords against them.
+ * <p>
+ * A check compares the candidate with every remembered hash at once on a bounded pool and
+ * finishes at the first match; comparisons that have not started by then are skipped. Callers
+ * start the check, hash the new password meanwhile, and only then wait, so the latency a
+ * reset gains is whatever the slowest comparison takes beyond its own hashing. That wait is
+ * recorded in the {@code password.history.wait} timer.
+ * <p>
+ * A check is never skipped. If the pool has not finished it within {@code max-wait}, the
+ * request thread takes over the comparisons that have not started yet, so a backlog in the
+ * pool costs latency rather than letting a reused password through.
+ */
+@Slf4j
+@Service
+public class PasswordHistoryService {
+
+    private final PasswordHistoryRepository passwordHistoryRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final PasswordHistoryProperties properties;
+    private final ThreadPoolExecutor hashers;
+    private final Timer waitTimer;
+    private final Counter timeouts;
+
+    public PasswordHistoryService(PasswordHistoryRepository passwordHistoryRepository,
+                                  PasswordEncoder passwordEncoder,
+                                  PasswordHistoryProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.passwordHistoryRepository = passwordHistoryRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.properties = properties;
+
+        int threads = properties.getThreads() > 0 ? properties.getThreads() : Runtime.getRuntime().availableProcessors();
+        AtomicInteger ids = new AtomicInteger();
+        // full queue -> the request thread compares itself, as it would without the pool
+        this.hashers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 16), r -> {
+                    Thread t = new Thread(r, "password-history-" + ids.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+
+        this.waitTimer = Timer.builder("password.history.wait")
+                .description("Time a reset waited for the password history check after hashing")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.timeouts = meterRegistry.counter("password.history.timeouts");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashers.shutdownNow();
+    }
+
+    public int historySize() {
+        return properties.getSize();
+    }
+
+    /**
+     * Starts comparing {@code candidate} with the user's current and recent passwords. Pass the
+     * result to {@link #awaitReuseCheck}.
+     */
+    public ReuseCheck startReuseCheck(User user, String candidate) {
+        if (properties.getSize() <= 0) {
+            return new ReuseCheck(CompletableFuture.completedFuture(false), List.of());
+        }
+        List<String> hashes = new ArrayList<>(properties.getSize());
+        hashes.add(user.getPassword());
+        if (properties.getSize() > 1) {
+            hashes.addAll(passwordHistoryRepository.findRecentPasswords(user.getId(), Limit.of(properties.getSize() - 1)));
+        }
+
+        CompletableFuture<Boolean> reused = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(hashes.size());
+        List<Comparison> comparisons = new ArrayList<>(hashes.size());
+        List<Future<?>> submitted = new ArrayList<>(hashes.size());
+        for (String hash : hashes) {
+            Comparison comparison = new Comparison(() -> {
+                if (reused.isDone()) {
+                    return;
+                }
+                boolean match;
+                try {
+                    match = passwordEncoder.matches(candidate, hash);
+                } catch (RuntimeException e) {
+                    log.warn("Password history: unreadable hash for user {}", user.getId());
+                    match = false;
+                }
+                if (match) {
+                    reused.complete(true);
+                } else if (remaining.decrementAndGet() == 0) {
+                    reused.complete(false);
+                }
+            });
+            comparisons.add(comparison);
+            submitted.add(hashers.submit(comparison));
+        }
+        reused.whenComplete((result, failure) -> submitted.forEach(c -> c.cancel(false)));
+        return new ReuseCheck(reused, comparisons);
+    }
+
+    /**
+     * Waits for a check started by {@link #startReuseCheck}. After {@code max-wait} this thread
+     * runs the comparisons the pool has not started and then waits for the rest, which are
+     * each one hash away from done.
+     *
+     * @return whether the candidate was found
+     */
+    public boolean awaitReuseCheck(ReuseCheck check) {
+        long start = System.nanoTime();
+        try {
+            try {
+                return check.reused.get(properties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                timeouts.increment();
+                log.warn("Password history check exceeded {}; finishing it on the request thread",
+                        properties.getMaxWait());
+                // runs only the comparisons the pool has not started
+                check.comparisons.forEach(Comparison::run);
+                return check.reused.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during password history check", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password history check failed", e.getCause());
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Remembers the password a user is moving away from and drops entries beyond the history
+     * size. Call in the transaction that changes the password.
+     */
+    public void remember(User user, String previousHash) {
+        int keep = properties.getSize() - 1;
+        if (keep <= 0) {
+            return;
+        }
+        PasswordHistory entry = new PasswordHistory();
+        entry.setUser(user);
+        entry.setPassword(previousHash);
+        entry.setCreatedAt(LocalDateTime.now());
+        passwordHistoryRepository.save(entry);
+
+        List<Long> ids = passwordHistoryRepository.findIdsNewestFirst(user.getId());
+        if (ids.size() > keep) {
+            passwordHistoryRepository.deleteAllByIdInBatch(ids.subList(keep, ids.size()));
+        }
+    }
+
+    /**
+     * A password history check in progress.
+     */
+    public static final class ReuseCheck {
+
+        private final CompletableFuture<Boolean> reused;
+        private final List<Comparison> comparisons;
+
+        private ReuseCheck(CompletableFuture<Boolean> reused, List<Comparison> comparisons) {
+            this.reused = reused;
+            this.comparisons = comparisons;
+        }
+    }
+
+    /**
+     * One hash comparison, run by whichever thread gets to it first: a pool thread or, after
+     * {@code max-wait}, the request thread.
+     */
+    private static final class Comparison implements Runnable {
+
+        private final Runnable work;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        Comparison(Runnable work) {
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            if (claimed.compareAndSet(false, true)) {
+                work.run();
+            }
+        }
+    }
+}
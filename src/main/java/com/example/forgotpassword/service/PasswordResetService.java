@@ -1,69 +1,131 @@
 package com.example.forgotpassword.service;
 
+import com.example.forgotpassword.audit.AuditEvent;
+import com.example.forgotpassword.audit.AuditLog;
 import com.example.forgotpassword.entity.User;
+import com.example.forgotpassword.repository.UserCacheEvictor;
 import com.example.forgotpassword.repository.UserRepository;
+import com.example.forgotpassword.shard.ShardContext;
+import com.example.forgotpassword.shard.ShardRouter;
 import jakarta.mail.MessagingException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.OptionalInt;
 
 @Service
 @RequiredArgsConstructor
 public class PasswordResetService {
 
+    private static final String UPDATE_TOKEN =
+            "UPDATE users SET reset_token = :token, reset_token_expiry = :expiry WHERE id = :id";
+
     private final UserRepository userRepository;
     private final EmailService emailService;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardRouter shardRouter;
+    private final AuditLog auditLog;
+    private final PasswordHistoryService passwordHistoryService;
+    private final ResetTokenBatcher resetTokenBatcher;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final UserCacheEvictor userCacheEvictor;
 
     @Value("${app.base-url:http://localhost:8080}")
     private String baseUrl;
 
-    @Transactional
+    /**
+     * Not one transaction: the lookup and the token write each commit on their own, so no
+     * connection is held while a batched token waits for its batch or while the email is sent.
+     */
     public boolean initiatePasswordReset(String email) throws MessagingException {
-        Optional<User> userOpt = userRepository.findByEmail(email);
+        return initiatePasswordReset(email, AuditLog.currentClientIp());
+    }
+
+    /**
+     * As {@link #initiatePasswordReset(String)}, for callers off the request thread, which pass
+     * the client address for the audit log themselves.
+     */
+    public boolean initiatePasswordReset(String email, String clientIp) throws MessagingException {
+        int shard = shardRouter.shardFor(email);
+        Optional<User> userOpt = shardRouter.onShard(shard, () -> userRepository.findByEmail(email));
 
         // User not found is expected behavior - return false silently
         if (userOpt.isEmpty()) {
+            auditLog.record(AuditEvent.Type.FORGOT, AuditEvent.Outcome.UNKNOWN_ACCOUNT, 0, email, clientIp);
             return false;
         }
 
         User user = userOpt.get();
-        String resetToken = UUID.randomUUID().toString();
-
-        user.setResetToken(resetToken);
-        user.setResetTokenExpiry(LocalDateTime.now().plusHours(1));
-        userRepository.save(user);
+        String resetToken = shardRouter.newResetToken(shard);
+        LocalDateTime expiry = LocalDateTime.now().plusHours(1);
+
+        if (resetTokenBatcher.isEnabled()) {
+            // committed together with other requests' tokens
+            resetTokenBatcher.issue(shard, user.getId(), resetToken, expiry);
+        } else {
+            // user may be a stale cached copy: saving it would write its password hash back too
+            shardRouter.onShard(shard, () -> jdbcTemplate.update(UPDATE_TOKEN, new MapSqlParameterSource()
+                    .addValue("id", user.getId())
+                    .addValue("token", resetToken)
+                    .addValue("expiry", expiry)));
+            userCacheEvictor.evict(List.of(user.getId()));
+        }
 
         String resetLink = baseUrl + "/reset-password?token=" + resetToken;
 
         // Let the exception propagate if email fails to send
         emailService.sendPasswordResetEmail(user.getEmail(), resetLink, user.getUsername());
+        auditLog.record(AuditEvent.Type.FORGOT, AuditEvent.Outcome.OK, user.getId(), user.getEmail(), clientIp);
         return true;
     }
 
     public boolean validateResetToken(String token) {
-        Optional<User> userOpt = userRepository.findByResetToken(token);
+        OptionalInt shard = shardRouter.shardOfToken(token);
+        if (shard.isEmpty()) {
+            auditLog.record(AuditEvent.Type.VALIDATE, AuditEvent.Outcome.INVALID_TOKEN, 0, null);
+            return false;
+        }
+        Optional<User> userOpt = shardRouter.onShard(shard.getAsInt(), () -> userRepository.findByResetToken(token));
 
         if (userOpt.isEmpty()) {
+            auditLog.record(AuditEvent.Type.VALIDATE, AuditEvent.Outcome.INVALID_TOKEN, 0, null);
             return false;
         }
 
         User user = userOpt.get();
-        return user.getResetTokenExpiry() != null &&
+        boolean valid = user.getResetTokenExpiry() != null &&
                 user.getResetTokenExpiry().isAfter(LocalDateTime.now());
+        auditLog.record(AuditEvent.Type.VALIDATE, valid ? AuditEvent.Outcome.OK : AuditEvent.Outcome.EXPIRED_TOKEN,
+                user.getId(), user.getEmail());
+        return valid;
     }
 
+    /**
+     * @throws PasswordReuseException if the new password is the current one or a recent one;
+     *                                the token stays valid
+     */
     @Transactional
     public boolean resetPassword(String token, String newPassword) {
+        OptionalInt shard = shardRouter.shardOfToken(token);
+        if (shard.isEmpty()) {
+            auditLog.record(AuditEvent.Type.RESET, AuditEvent.Outcome.INVALID_TOKEN, 0, null);
+            return false;
+        }
+        ShardContext.bindToTransaction(shard.getAsInt());
         Optional<User> userOpt = userRepository.findByResetToken(token);
 
         if (userOpt.isEmpty()) {
+            auditLog.record(AuditEvent.Type.RESET, AuditEvent.Outcome.INVALID_TOKEN, 0, null);
             return false;
         }
 
@@ -71,13 +133,25 @@ public class PasswordResetService {
 
         if (user.getResetTokenExpiry() == null ||
                 user.getResetTokenExpiry().isBefore(LocalDateTime.now())) {
+            auditLog.record(AuditEvent.Type.RESET, AuditEvent.Outcome.EXPIRED_TOKEN, user.getId(), user.getEmail());
             return false;
         }
 
-        user.setPassword(passwordEncoder.encode(newPassword));
+        // compare with past passwords while the new one is being hashed
+        PasswordHistoryService.ReuseCheck reuseCheck = passwordHistoryService.startReuseCheck(user, newPassword);
+        String newHash = passwordEncoder.encode(newPassword);
+        if (passwordHistoryService.awaitReuseCheck(reuseCheck)) {
+            auditLog.record(AuditEvent.Type.RESET, AuditEvent.Outcome.REUSED_PASSWORD, user.getId(), user.getEmail());
+            throw new PasswordReuseException(passwordHistoryService.historySize());
+        }
+
+        passwordHistoryService.remember(user, user.getPassword());
+        user.setPassword(newHash);
         user.setResetToken(null);
         user.setResetTokenExpiry(null);
         userRepository.save(user);
+        eventPublisher.publishEvent(new PasswordChangedEvent(user.getEmail()));
+        auditLog.record(AuditEvent.Type.RESET, AuditEvent.Outcome.OK, user.getId(), user.getEmail());
 
         return true;
     }
@@ -0,0 +1,18 @@
+package com.example.forgotpassword.service;
+
+/**
+ * Thrown when a new password matches the current one or one of the user's recent passwords.
+ */
+public class PasswordReuseException extends RuntimeException {
+
+    private final int historySize;
+
+    public PasswordReuseException(int historySize) {
+        super("Password matches one of the last " + historySize + " passwords");
+        this.historySize = historySize;
+    }
+
+    public int getHistorySize() {
+        return historySize;
+    }
+}
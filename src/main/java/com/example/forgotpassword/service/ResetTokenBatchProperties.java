@@ -0,0 +1,32 @@
+package com.example.forgotpassword.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link ResetTokenBatcher}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.reset-token-batch")
+public class ResetTokenBatchProperties {
+
+    /** Write reset tokens in shared transactions instead of one transaction per request. */
+    private boolean enabled = false;
+
+    /** Most tokens written in one transaction. */
+    private int maxBatchSize = 64;
+
+    /**
+     * How long the first token of a batch waits for others to join it. With 0 a batch holds
+     * whatever queued up while the previous one was being committed.
+     */
+    private Duration window = Duration.ofMillis(2);
+
+    /**
+     * Longest a request waits for its token to be committed before failing. Covers a writer
+     * stuck on its shard, not ordinary batching, which adds at most {@code window} plus a commit.
+     */
+    private Duration maxWait = Duration.ofSeconds(5);
+}
@@ -0,0 +1,228 @@
+package com.example.forgotpassword.service;
+
+import com.example.forgotpassword.repository.UserCacheEvictor;
+import com.example.forgotpassword.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group commit for reset tokens issued by {@link PasswordResetService}.
+ * <p>
+ * Instead of committing its own single-row update, a request queues its token and waits. One
+ * writer thread per shard takes the first queued token, gathers more for up to {@code window}
+ * or {@code max-batch-size} tokens, writes them with one batched {@code UPDATE} in one
+ * transaction and then releases every waiting request. Under load this turns many commits
+ * (and log flushes) into one, at the cost of up to {@code window} of added latency.
+ * <p>
+ * A request waits at most {@code max-wait} for its commit, and is refused at once after
+ * {@link #shutdown()} or if its shard's writer thread has died.
+ * <p>
+ * Each writer holds at most one connection, from the default pool. Metrics:
+ * {@code reset.token.batch.size}, {@code reset.token.batch.wait} (queueing plus commit, per
+ * token) and {@code reset.token.batch.commits}.
+ */
+@Slf4j
+@Service
+public class ResetTokenBatcher {
+
+    private static final String UPDATE_TOKEN =
+            "UPDATE users SET reset_token = :token, reset_token_expiry = :expiry WHERE id = :id";
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final UserCacheEvictor userCacheEvictor;
+    private final ResetTokenBatchProperties properties;
+    private final List<BlockingQueue<PendingToken>> queues = new ArrayList<>();
+    private final List<Thread> writers = new ArrayList<>();
+    private final DistributionSummary batchSize;
+    private final Timer waitTimer;
+    private final Counter commits;
+    private volatile boolean running = true;
+
+    public ResetTokenBatcher(NamedParameterJdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ShardRouter shardRouter,
+                             UserCacheEvictor userCacheEvictor,
+                             ResetTokenBatchProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+        this.userCacheEvictor = userCacheEvictor;
+        this.properties = properties;
+
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            BlockingQueue<PendingToken> queue = new LinkedBlockingQueue<>();
+            int writerShard = shard;
+            Thread writer = new Thread(() -> writeLoop(writerShard, queue), "reset-token-batch-" + shard);
+            writer.setDaemon(true);
+            queues.add(queue);
+            writers.add(writer);
+        }
+
+        this.batchSize = DistributionSummary.builder("reset.token.batch.size")
+                .description("Reset tokens written per transaction")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("reset.token.batch.wait")
+                .description("Time from queueing a reset token to its commit")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.commits = meterRegistry.counter("reset.token.batch.commits");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (properties.isEnabled()) {
+            writers.forEach(Thread::start);
+        }
+    }
+
+    /**
+     * Writes what is still queued, then stops the writer threads.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for (Thread writer : writers) {
+            if (writer.isAlive()) {
+                writer.join(TimeUnit.SECONDS.toMillis(10));
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Sets the user's reset token and returns once it is committed, together with tokens from
+     * other requests.
+     *
+     * @throws DataAccessResourceFailureException at once if the shard's writer is not running
+     * @throws QueryTimeoutException              if the token was not committed within {@code max-wait};
+     *                                            it may still be committed later
+     * @throws org.springframework.dao.DataAccessException if the batch could not be written
+     */
+    public void issue(int shard, long userId, String token, LocalDateTime expiry) {
+        if (!running || !writers.get(shard).isAlive()) {
+            throw new DataAccessResourceFailureException("Reset token writer for shard " + shard + " is not running");
+        }
+        PendingToken pending = new PendingToken(userId, token, expiry, System.nanoTime(), new CompletableFuture<>());
+        BlockingQueue<PendingToken> queue = queues.get(shard);
+        queue.add(pending);
+        try {
+            pending.committed().get(properties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new DataAccessResourceFailureException("Writing reset token failed", e.getCause());
+        } catch (TimeoutException e) {
+            // still queued: the writer never gets to it, otherwise it is being written right now
+            queue.remove(pending);
+            throw new QueryTimeoutException("Reset token not committed within " + properties.getMaxWait()
+                    + " on shard " + shard);
+        } catch (InterruptedException e) {
+            queue.remove(pending);
+            Thread.currentThread().interrupt();
+            throw new DataAccessResourceFailureException("Interrupted waiting for reset token commit", e);
+        }
+    }
+
+    private void writeLoop(int shard, BlockingQueue<PendingToken> queue) {
+        int maxBatchSize = Math.max(properties.getMaxBatchSize(), 1);
+        long windowNanos = properties.getWindow().toNanos();
+        List<PendingToken> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingToken first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingToken next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // nothing interrupts the writers; write what was gathered and carry on until shutdown()
+                Thread.interrupted();
+            }
+            if (!batch.isEmpty()) {
+                write(shard, batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(int shard, List<PendingToken> batch) {
+        SqlParameterSource[] updates = new SqlParameterSource[batch.size()];
+        List<Long> userIds = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            PendingToken pending = batch.get(i);
+            updates[i] = new MapSqlParameterSource()
+                    .addValue("id", pending.userId())
+                    .addValue("token", pending.token())
+                    .addValue("expiry", pending.expiry());
+            userIds.add(pending.userId());
+        }
+
+        RuntimeException failure = null;
+        try {
+            // same user twice in a batch: the later token wins, as it would with separate commits
+            shardRouter.onShard(shard, () ->
+                    transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_TOKEN, updates)));
+            commits.increment();
+            batchSize.record(batch.size());
+            userCacheEvictor.evict(userIds);
+        } catch (RuntimeException e) {
+            log.warn("Writing {} reset tokens on shard {} failed", batch.size(), shard, e);
+            failure = e;
+        }
+
+        long now = System.nanoTime();
+        for (PendingToken pending : batch) {
+            waitTimer.record(now - pending.queuedAtNanos(), TimeUnit.NANOSECONDS);
+            if (failure == null) {
+                pending.committed().complete(null);
+            } else {
+                pending.committed().completeExceptionally(failure);
+            }
+        }
+    }
+
+    private record PendingToken(long userId, String token, LocalDateTime expiry, long queuedAtNanos,
+                                CompletableFuture<Void> committed) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.forgotpassword.service;
+
+import com.example.forgotpassword.dto.UserImportResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Command-line import, for migrations too large for a single HTTP request:
+ * <pre>
+ * java -jar forgot-password.jar --app.user-import.file=users.jsonl --spring.main.web-application-type=none
+ * </pre>
+ * The format is taken from the file extension ({@code .jsonl} / {@code .ndjson}, otherwise CSV).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.user-import", name = "file")
+public class UserImportRunner implements ApplicationRunner {
+
+    private final UserImportService userImportService;
+
+    @Value("${app.user-import.file}")
+    private Path file;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        String name = file.getFileName().toString().toLowerCase();
+        UserImportService.Format format = name.endsWith(".jsonl") || name.endsWith(".ndjson")
+                ? UserImportService.Format.JSONL
+                : UserImportService.Format.CSV;
+
+        log.info("Importing users from {} as {}", file, format);
+        try (InputStream in = Files.newInputStream(file)) {
+            UserImportResult result = userImportService.importUsers(in, format);
+            log.info("User import finished: {}", result);
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package com.example.forgotpassword.service;
+
+import com.example.forgotpassword.dto.UserImportResult;
+import com.example.forgotpassword.repository.UserCacheEvictor;
+import com.example.forgotpassword.shard.ShardRouter;
+import com.example.forgotpassword.validation.EmailConstraintValidator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+/**
+ * Streams users from CSV or JSON Lines into the {@code users} table.
+ * <p>
+ * Records flow through three bounded stages: the calling thread parses and validates, a pool
+ * of hashing threads (one per core by default) BCrypt-encodes plaintext passwords, and a
+ * single writer thread upserts in JDBC batches keyed on the unique email. Every hand-off is a
+ * bounded queue, so memory use does not depend on the size of the input. Each batch is split
+ * by shard, one JDBC batch per shard. Records that fail to hash, or are dropped because the
+ * import is interrupted, are counted as skipped; either way the writer is always stopped.
+ * <p>
+ * Recognised fields: {@code email} (required), {@code username}, {@code password} (plaintext,
+ * hashed here), {@code password_hash} (an existing BCrypt hash, carried over as is) and
+ * {@code enabled}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserImportService {
+
+    public enum Format { CSV, JSONL }
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO users (email, password, username, enabled) VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE password = VALUES(password), username = VALUES(username), enabled = VALUES(enabled)
+            """;
+
+    private static final ImportRow END_OF_INPUT = new ImportRow(null, null, null, false);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final UserCacheEvictor userCacheEvictor;
+    private final ShardRouter shardRouter;
+
+    private final EmailConstraintValidator emailValidator = new EmailConstraintValidator();
+
+    @Value("${app.user-import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.user-import.hash-threads:0}")
+    private int hashThreads;
+
+    public UserImportResult importUsers(InputStream input, Format format) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+
+        // full hashing queue -> the parsing thread hashes the record itself, which throttles reading
+        ExecutorService hashers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4), new ThreadPoolExecutor.CallerRunsPolicy());
+        BlockingQueue<ImportRow> toWrite = new ArrayBlockingQueue<>(batchSize * 2);
+        Counters counters = new Counters();
+        AtomicReference<Throwable> writerFailure = new AtomicReference<>();
+
+        Thread writer = new Thread(() -> writeLoop(toWrite, counters, writerFailure), "user-import-writer");
+        writer.start();
+
+        boolean interrupted = false;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16)) {
+            Iterator<Map<String, String>> records = format == Format.CSV ? csvRecords(reader) : jsonRecords(reader);
+            long recordNumber = 0;
+
+            while (records.hasNext()) {
+                Map<String, String> record = records.next();
+                recordNumber++;
+                counters.read.incrementAndGet();
+                if (writerFailure.get() != null) {
+                    break;
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    // a record hashed on this thread would be dropped, and so would every one after it
+                    counters.skipped.incrementAndGet();
+                    interrupted = true;
+                    break;
+                }
+
+                ImportRow row = normalize(record, recordNumber, counters);
+                if (row == null) {
+                    continue;
+                }
+                if (row.passwordHash() != null) {
+                    counters.carriedOver.incrementAndGet();
+                    toWrite.put(row);
+                } else {
+                    String plaintext = record.get("password");
+                    long number = recordNumber;
+                    hashers.execute(() -> hashAndHandOver(row, plaintext, number, toWrite, counters));
+                }
+            }
+        } catch (InterruptedException e) {
+            // only a carried-over row can be waiting here
+            counters.skipped.incrementAndGet();
+            interrupted = true;
+        } finally {
+            hashers.shutdown();
+            try {
+                if (!interrupted) {
+                    hashers.awaitTermination(1, TimeUnit.HOURS);
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+            if (interrupted) {
+                // queued records are never hashed; running tasks see the interrupt and drop theirs
+                counters.skipped.addAndGet(hashers.shutdownNow().size());
+                while (!hashers.isTerminated()) {
+                    try {
+                        hashers.awaitTermination(1, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        // already interrupted; the running tasks finish within one hash
+                    }
+                }
+            }
+            // the writer only stops on the end marker, so it must get one whatever happened above
+            interrupted |= endInput(toWrite, writer);
+            // rows were upserted behind Hibernate's back
+            userCacheEvictor.evictAll();
+        }
+
+        if (writerFailure.get() != null) {
+            throw new IllegalStateException("User import failed while writing", writerFailure.get());
+        }
+        UserImportResult result = new UserImportResult(counters.read.get(), counters.written.get(),
+                counters.rejected.get(), counters.skipped.get(), counters.hashed.get(), counters.carriedOver.get(),
+                Duration.ofNanos(System.nanoTime() - start));
+        if (interrupted) {
+            log.warn("User import interrupted: {}", result);
+            throw new InterruptedException("User import interrupted after writing " + result.written() + " rows, "
+                    + result.skipped() + " rows skipped");
+        }
+        return result;
+    }
+
+    private void hashAndHandOver(ImportRow row, String plaintext, long recordNumber,
+                                 BlockingQueue<ImportRow> toWrite, Counters counters) {
+        ImportRow hashed;
+        try {
+            hashed = row.withPasswordHash(passwordEncoder.encode(plaintext));
+        } catch (RuntimeException e) {
+            skip(recordNumber, e, counters);
+            return;
+        }
+        counters.hashed.incrementAndGet();
+        try {
+            toWrite.put(hashed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            skip(recordNumber, e, counters);
+        }
+    }
+
+    private void skip(long recordNumber, Exception cause, Counters counters) {
+        if (counters.skipped.incrementAndGet() <= 100) {
+            log.warn("User import: record {} skipped ({})", recordNumber, cause.toString());
+        }
+    }
+
+    /**
+     * Hands the writer its end marker and waits for it to finish, even if this thread is
+     * interrupted meanwhile. Gives up only if the writer has already died.
+     *
+     * @return whether this thread was interrupted while waiting
+     */
+    private static boolean endInput(BlockingQueue<ImportRow> toWrite, Thread writer) {
+        boolean interrupted = false;
+        boolean ended = false;
+        while (writer.isAlive()) {
+            try {
+                if (!ended) {
+                    ended = toWrite.offer(END_OF_INPUT, 100, TimeUnit.MILLISECONDS);
+                } else {
+                    writer.join();
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        return interrupted;
+    }
+
+    /**
+     * @return the row to import, or {@code null} if the record is rejected
+     */
+    private ImportRow normalize(Map<String, String> record, long recordNumber, Counters counters) {
+        String email = trimToNull(record.get("email"));
+        email = email == null ? null : email.toLowerCase(Locale.ROOT);
+        if (!emailValidator.isValid(email, null)) {
+            reject(recordNumber, "invalid email", counters);
+            return null;
+        }
+
+        String username = trimToNull(record.get("username"));
+        if (username == null) {
+            username = email.substring(0, email.indexOf('@'));
+        }
+
+        String enabledValue = trimToNull(record.get("enabled"));
+        boolean enabled = enabledValue == null || Boolean.parseBoolean(enabledValue) || enabledValue.equals("1");
+
+        String hash = trimToNull(record.get("password_hash"));
+        if (hash != null) {
+            if (!BCRYPT_HASH.matcher(hash).matches()) {
+                reject(recordNumber, "password_hash is not a BCrypt hash", counters);
+                return null;
+            }
+            return new ImportRow(email, hash, username, enabled);
+        }
+
+        String password = record.get("password");
+        if (password == null || password.isEmpty()) {
+            reject(recordNumber, "no password or password_hash", counters);
+            return null;
+        }
+        return new ImportRow(email, null, username, enabled);
+    }
+
+    private void reject(long recordNumber, String reason, Counters counters) {
+        if (counters.rejected.incrementAndGet() <= 100) {
+            log.warn("User import: record {} rejected ({})", recordNumber, reason);
+        }
+    }
+
+    private void writeLoop(BlockingQueue<ImportRow> toWrite, Counters counters, AtomicReference<Throwable> failure) {
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        try {
+            while (true) {
+                ImportRow row = toWrite.take();
+                if (row == END_OF_INPUT) {
+                    break;
+                }
+                if (failure.get() != null) {
+                    continue; // drain so producers never block on a dead writer
+                }
+                batch.add(row);
+                if (batch.size() >= batchSize) {
+                    flush(batch, counters, failure);
+                }
+            }
+            flush(batch, counters, failure);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    private void flush(List<ImportRow> batch, Counters counters, AtomicReference<Throwable> failure) {
+        if (batch.isEmpty() || failure.get() != null) {
+            batch.clear();
+            return;
+        }
+        try {
+            Map<Integer, List<ImportRow>> byShard = new TreeMap<>();
+            for (ImportRow row : batch) {
+                byShard.computeIfAbsent(shardRouter.shardFor(row.email()), shard -> new ArrayList<>()).add(row);
+            }
+            byShard.forEach((shard, rows) -> {
+                shardRouter.onShard(shard, () -> jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), (ps, row) -> {
+                    ps.setString(1, row.email());
+                    ps.setString(2, row.passwordHash());
+                    ps.setString(3, row.username());
+                    ps.setBoolean(4, row.enabled());
+                }));
+                counters.written.addAndGet(rows.size());
+            });
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+        }
+        batch.clear();
+    }
+
+    private Iterator<Map<String, String>> csvRecords(BufferedReader reader) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return Collections.emptyIterator();
+        }
+        List<String> columns = header.stream().map(h -> h.trim().toLowerCase(Locale.ROOT)).toList();
+
+        return new Iterator<>() {
+            private List<String> next = advance();
+
+            private List<String> advance() {
+                try {
+                    List<String> fields;
+                    do {
+                        fields = csv.next();
+                    } while (fields != null && fields.size() == 1 && fields.get(0).isBlank());
+                    return fields;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Map<String, String> next() {
+                Map<String, String> record = new HashMap<>();
+                for (int i = 0; i < columns.size() && i < next.size(); i++) {
+                    record.put(columns.get(i), next.get(i));
+                }
+                next = advance();
+                return record;
+            }
+        };
+    }
+
+    private Iterator<Map<String, String>> jsonRecords(BufferedReader reader) throws IOException {
+        MappingIterator<Map<String, Object>> values = objectMapper.readerForMapOf(Object.class).readValues(reader);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return values.hasNext();
+            }
+
+            @Override
+            public Map<String, String> next() {
+                Map<String, String> record = new HashMap<>();
+                values.next().forEach((key, value) ->
+                        record.put(toSnakeCase(key), value == null ? null : String.valueOf(value)));
+                return record;
+            }
+        };
+    }
+
+    private static String toSnakeCase(String key) {
+        return key.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT);
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private record ImportRow(String email, String passwordHash, String username, boolean enabled) {
+        ImportRow withPasswordHash(String hash) {
+            return new ImportRow(email, hash, username, enabled);
+        }
+    }
+
+    private static final class Counters {
+        final AtomicLong read = new AtomicLong();
+        final AtomicLong written = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong skipped = new AtomicLong();
+        final AtomicLong hashed = new AtomicLong();
+        final AtomicLong carriedOver = new AtomicLong();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.forgotpassword.shard;
+
+import java.time.LocalDateTime;
+
+/**
+ * A user holding a reset token, as listed by {@link ShardedUserQueries#streamResets}. The token
+ * itself is never listed.
+ *
+ * @param expired whether the token had expired when the listing started
+ */
+public record OutstandingReset(long id, int shard, String email, String username,
+                               LocalDateTime resetTokenExpiry, boolean expired) {
+}
@@ -0,0 +1,26 @@
+package com.example.forgotpassword.shard;
+
+import java.time.LocalDateTime;
+
+/**
+ * Selects users with a reset token. All criteria except {@code status} are optional.
+ *
+ * @param expiresFrom only tokens expiring at or after this time
+ * @param expiresTo   only tokens expiring before this time
+ * @param domain      only users whose email ends in {@code @domain}
+ * @param after       the last row of the previous page; {@code null} for the first page
+ */
+public record ResetFilter(Status status,
+                          LocalDateTime expiresFrom,
+                          LocalDateTime expiresTo,
+                          String domain,
+                          Cursor after) {
+
+    public enum Status { PENDING, EXPIRED, ALL }
+
+    /**
+     * Position in the listing order, {@code (reset_token_expiry, id)}.
+     */
+    public record Cursor(LocalDateTime resetTokenExpiry, long id) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.forgotpassword.shard;
+
+import java.time.Duration;
+
+/**
+ * Outcome of a {@link ReshardService} run.
+ *
+ * @param scanned users read across all shards
+ * @param moved   users copied to the shard their email hashes to and removed from the old one
+ */
+public record ReshardResult(long scanned, long moved, Duration elapsed) {
+}
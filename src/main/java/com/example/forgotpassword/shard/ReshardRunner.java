@@ -0,0 +1,31 @@
+package com.example.forgotpassword.shard;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Command-line reshard / backfill, run against the new shard list:
+ * <pre>
+ * java -jar forgot-password.jar --app.sharding.reshard=true --spring.main.web-application-type=none
+ * </pre>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.sharding", name = "reshard", havingValue = "true")
+public class ReshardRunner implements ApplicationRunner {
+
+    private final ReshardService reshardService;
+    private final ShardingProperties properties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Resharding users over {} shards", properties.shardCount());
+        ReshardResult result = reshardService.reshard(properties.getReshardBatchSize());
+        log.info("Reshard finished: {}", result);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.forgotpassword.shard;
+
+import com.example.forgotpassword.repository.UserCacheEvictor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Moves every user to the shard their email hashes to, after shards were added or when
+ * backfilling from the old single database (list it as shard 0 next to the new shards).
+ * <p>
+ * Each shard is walked in id order, up to the highest id it had when the run started, so
+ * users moved in by this run are not read again. A misplaced user is upserted on its new shard, keyed on
+ * the unique email, and only then deleted from the old one, so a run that dies halfway can
+ * simply be started again. Moved users get a new id from their new shard, and their pending
+ * reset link stops working because the token routes to the old shard; the token is dropped.
+ * Their password history moves with them.
+ * <p>
+ * Running instances cache users by id and by email for up to 60 seconds (the TTL in
+ * {@code ehcache.xml}), so reshard with the application stopped, or restart it afterwards.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReshardService {
+
+    private static final String SELECT_SQL = """
+            SELECT id, email, password, username, enabled, role FROM users
+            WHERE id > ? AND id <= ? ORDER BY id LIMIT ?
+            """;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO users (email, password, username, enabled, role) VALUES (?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE password = VALUES(password), username = VALUES(username),
+                enabled = VALUES(enabled), role = VALUES(role), reset_token = NULL, reset_token_expiry = NULL
+            """;
+
+    private static final String COPY_HISTORY_SQL = """
+            INSERT INTO password_history (user_id, password, created_at)
+            SELECT id, ?, ? FROM users WHERE email = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final UserCacheEvictor userCacheEvictor;
+
+    public ReshardResult reshard(int batchSize) {
+        long start = System.nanoTime();
+        long scanned = 0;
+        long moved = 0;
+
+        List<Long> maxIds = shardRouter.onEachShard(shard ->
+                jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM users", Long.class));
+
+        for (int source = 0; source < shardRouter.shardCount(); source++) {
+            int from = source;
+            long maxId = maxIds.get(source);
+            long lastId = 0;
+            while (true) {
+                long after = lastId;
+                List<Row> rows = shardRouter.onShard(from, () -> jdbcTemplate.query(SELECT_SQL,
+                        (rs, rowNum) -> new Row(rs.getLong("id"), rs.getString("email"), rs.getString("password"),
+                                rs.getString("username"), rs.getBoolean("enabled"), rs.getString("role")),
+                        after, maxId, batchSize));
+                if (rows.isEmpty()) {
+                    break;
+                }
+                scanned += rows.size();
+                lastId = rows.get(rows.size() - 1).id();
+                moved += move(from, rows);
+            }
+            log.info("Reshard: shard {} done, {} users scanned, {} moved so far", from, scanned, moved);
+        }
+
+        userCacheEvictor.evictAll();
+        return new ReshardResult(scanned, moved, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private int move(int from, List<Row> rows) {
+        Map<Integer, List<Row>> byTarget = new TreeMap<>();
+        for (Row row : rows) {
+            int target = shardRouter.shardFor(row.email());
+            if (target != from) {
+                byTarget.computeIfAbsent(target, t -> new ArrayList<>()).add(row);
+            }
+        }
+        if (byTarget.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> deletes = new ArrayList<>();
+        byTarget.forEach((target, misplaced) -> {
+            shardRouter.onShard(target, () -> jdbcTemplate.batchUpdate(UPSERT_SQL, misplaced, misplaced.size(), (ps, row) -> {
+                ps.setString(1, row.email());
+                ps.setString(2, row.password());
+                ps.setString(3, row.username());
+                ps.setBoolean(4, row.enabled());
+                ps.setString(5, row.role());
+            }));
+            moveHistory(from, target, misplaced);
+            misplaced.forEach(row -> deletes.add(new Object[]{row.id()}));
+        });
+        // password_history rows go with the users (ON DELETE CASCADE)
+        shardRouter.onShard(from, () -> jdbcTemplate.batchUpdate("DELETE FROM users WHERE id = ?", deletes));
+        return deletes.size();
+    }
+
+    private void moveHistory(int from, int target, List<Row> misplaced) {
+        Map<Long, String> emails = new HashMap<>();
+        misplaced.forEach(row -> emails.put(row.id(), row.email()));
+        String ids = String.join(",", Collections.nCopies(emails.size(), "?"));
+        List<Object[]> history = shardRouter.onShard(from, () -> jdbcTemplate.query(
+                "SELECT user_id, password, created_at FROM password_history WHERE user_id IN (" + ids + ") ORDER BY id",
+                (rs, rowNum) -> new Object[]{rs.getString("password"), rs.getTimestamp("created_at"),
+                        emails.get(rs.getLong("user_id"))},
+                emails.keySet().toArray()));
+
+        shardRouter.onShard(target, () -> {
+            // a run that died after copying but before deleting the originals copied them already
+            jdbcTemplate.batchUpdate("DELETE FROM password_history WHERE user_id = (SELECT id FROM users WHERE email = ?)",
+                    misplaced.stream().map(row -> new Object[]{row.email()}).toList());
+            if (!history.isEmpty()) {
+                jdbcTemplate.batchUpdate(COPY_HISTORY_SQL, history);
+            }
+        });
+    }
+
+    private record Row(long id, String email, String password, String username, boolean enabled, String role) {
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.forgotpassword.shard;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * The shard the current thread's queries go to, read by {@link ShardRoutingDataSource}.
+ * Threads that never set one use shard 0.
+ * <p>
+ * The connection is picked when the first statement runs, so the shard has to be set before
+ * that and stay set until the transaction completes: use {@link ShardRouter#onShard} around
+ * non-transactional work and {@link #bindToTransaction} inside a {@code @Transactional} method.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard == null ? 0 : shard;
+    }
+
+    /**
+     * Routes the rest of the current transaction, including the flush at commit, to
+     * {@code shard}. The previous shard is restored once the transaction completes.
+     */
+    public static void bindToTransaction(int shard) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("No transaction to bind shard " + shard + " to");
+        }
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                restore(previous);
+            }
+        });
+    }
+
+    static Integer set(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
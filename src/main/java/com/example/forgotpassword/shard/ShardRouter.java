@@ -0,0 +1,132 @@
+package com.example.forgotpassword.shard;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.OptionalInt;
+import java.util.UUID;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Decides which shard holds a user and runs work against a given shard.
+ * <p>
+ * A user lives on the shard picked by a jump consistent hash of their normalized email, so
+ * growing from N to N + 1 shards moves only about 1 / (N + 1) of the users (see
+ * {@link ReshardService}). Reset tokens start with the issuing shard's number,
+ * {@code <shard>.<uuid>}, so a reset link is routed without knowing the email. Tokens from
+ * before sharding have no prefix and belong to shard 0.
+ * <p>
+ * The email hash is part of the data layout: changing it requires a full reshard.
+ */
+@Component
+public class ShardRouter {
+
+    private final int shardCount;
+
+    @Autowired
+    public ShardRouter(ShardingProperties properties) {
+        this(properties.shardCount());
+    }
+
+    public ShardRouter(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be at least 1");
+        }
+        this.shardCount = shardCount;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardFor(String email) {
+        return jumpHash(emailHash(email), shardCount);
+    }
+
+    public String newResetToken(int shard) {
+        return shard + "." + UUID.randomUUID();
+    }
+
+    /**
+     * @return the shard that issued {@code token}, or empty if the token cannot be valid
+     */
+    public OptionalInt shardOfToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return OptionalInt.empty();
+        }
+        int dot = token.indexOf('.');
+        if (dot < 0) {
+            return OptionalInt.of(0);
+        }
+        if (dot == 0 || dot > 6) {
+            return OptionalInt.empty();
+        }
+        int shard = 0;
+        for (int i = 0; i < dot; i++) {
+            char c = token.charAt(i);
+            if (c < '0' || c > '9') {
+                return OptionalInt.empty();
+            }
+            shard = shard * 10 + (c - '0');
+        }
+        return shard < shardCount ? OptionalInt.of(shard) : OptionalInt.empty();
+    }
+
+    public <T> T onShard(int shard, Supplier<T> work) {
+        Integer previous = ShardContext.set(shard);
+        try {
+            return work.get();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    public void onShard(int shard, Runnable work) {
+        onShard(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs {@code work} once per shard, in shard order.
+     */
+    public <T> List<T> onEachShard(IntFunction<T> work) {
+        List<T> results = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int s = shard;
+            results.add(onShard(s, () -> work.apply(s)));
+        }
+        return results;
+    }
+
+    static long emailHash(String email) {
+        // FNV-1a over the UTF-8 bytes of the normalized email
+        byte[] bytes = email.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Lamping and Veach, "A Fast, Minimal Memory, Consistent Hash Algorithm".
+     */
+    static int jumpHash(long key, int buckets) {
+        long b = -1;
+        long j = 0;
+        while (j < buckets) {
+            b = j;
+            key = key * 2862933555777941757L + 1;
+            j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) b;
+    }
+}
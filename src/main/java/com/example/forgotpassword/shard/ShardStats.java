@@ -0,0 +1,9 @@
+package com.example.forgotpassword.shard;
+
+/**
+ * Row counts of one shard.
+ *
+ * @param pendingResets users holding an unexpired reset token
+ */
+public record ShardStats(int shard, long users, long pendingResets) {
+}
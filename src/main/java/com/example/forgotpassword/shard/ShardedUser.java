@@ -0,0 +1,7 @@
+package com.example.forgotpassword.shard;
+
+/**
+ * A user as listed by cross-shard admin queries.
+ */
+public record ShardedUser(long id, int shard, String email, String username, boolean enabled) {
+}
@@ -0,0 +1,189 @@
+package com.example.forgotpassword.shard;
+
+import com.example.forgotpassword.repository.EmailDomainMatch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Admin queries that span every shard. Each shard answers the same query and the results are
+ * merged; listings use keyset pagination on the id, which is unique across shards.
+ * <p>
+ * Outstanding resets are listed in {@code (reset_token_expiry, id)} order, which
+ * {@code idx_users_reset_expiry} serves directly. Every shard is read in small seek batches and
+ * the batches are merged as they are consumed, so neither memory use nor the cost of a page
+ * depends on how deep into the listing it starts.
+ */
+@Service
+@RequiredArgsConstructor
+public class ShardedUserQueries {
+
+    private static final int RESET_SEEK_BATCH = 500;
+
+    private static final Comparator<OutstandingReset> RESET_ORDER =
+            Comparator.comparing(OutstandingReset::resetTokenExpiry).thenComparingLong(OutstandingReset::id);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+
+    public List<ShardStats> stats() {
+        LocalDateTime now = LocalDateTime.now();
+        return shardRouter.onEachShard(shard -> new ShardStats(shard,
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class),
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE reset_token_expiry > ?", Long.class, now)));
+    }
+
+    /**
+     * @param domain  only users whose email ends in {@code @domain}; {@code null} for all
+     * @param afterId the last id of the previous page, {@code 0} for the first page
+     * @return up to {@code limit} users in id order
+     */
+    public List<ShardedUser> findUsers(String domain, long afterId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT id, email, username, enabled FROM users WHERE id > ?");
+        List<Object> args = new ArrayList<>(List.of(afterId));
+        if (domain != null && !domain.isBlank()) {
+            sql.append(" AND email LIKE ?").append(EmailDomainMatch.ESCAPE);
+            args.add(EmailDomainMatch.likePattern(domain.trim().toLowerCase(Locale.ROOT)));
+        }
+        sql.append(" ORDER BY id LIMIT ?");
+        args.add(limit);
+
+        // each shard's first page holds every row the merged page can contain
+        List<List<ShardedUser>> pages = shardRouter.onEachShard(shard -> jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> new ShardedUser(rs.getLong("id"), shard, rs.getString("email"),
+                        rs.getString("username"), rs.getBoolean("enabled")),
+                args.toArray()));
+        return pages.stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparingLong(ShardedUser::id))
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Feeds up to {@code limit} users holding a reset token to {@code sink}, in
+     * {@code (reset_token_expiry, id)} order. Pass the last row as {@link ResetFilter#after()}
+     * to continue.
+     *
+     * @return the number of rows fed to the sink
+     */
+    public long streamResets(ResetFilter filter, long limit, Consumer<OutstandingReset> sink) {
+        LocalDateTime now = LocalDateTime.now();
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, email, username, reset_token_expiry FROM users WHERE reset_token_expiry IS NOT NULL");
+        List<Object> args = new ArrayList<>();
+        if (filter.status() == ResetFilter.Status.PENDING) {
+            sql.append(" AND reset_token_expiry > ?");
+            args.add(now);
+        } else if (filter.status() == ResetFilter.Status.EXPIRED) {
+            sql.append(" AND reset_token_expiry <= ?");
+            args.add(now);
+        }
+        if (filter.expiresFrom() != null) {
+            sql.append(" AND reset_token_expiry >= ?");
+            args.add(filter.expiresFrom());
+        }
+        if (filter.expiresTo() != null) {
+            sql.append(" AND reset_token_expiry < ?");
+            args.add(filter.expiresTo());
+        }
+        if (filter.domain() != null && !filter.domain().isBlank()) {
+            sql.append(" AND email LIKE ?").append(EmailDomainMatch.ESCAPE);
+            args.add(EmailDomainMatch.likePattern(filter.domain().trim().toLowerCase(Locale.ROOT)));
+        }
+        int batch = (int) Math.min(RESET_SEEK_BATCH, Math.max(limit, 1));
+
+        PriorityQueue<ResetSeek> heads = new PriorityQueue<>(Comparator.comparing(ResetSeek::head, RESET_ORDER));
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            ResetSeek seek = new ResetSeek(shard, sql.toString(), args, filter.after(), batch, now);
+            if (seek.advance()) {
+                heads.add(seek);
+            }
+        }
+        long fed = 0;
+        while (fed < limit && !heads.isEmpty()) {
+            ResetSeek seek = heads.poll();
+            sink.accept(seek.head());
+            fed++;
+            if (seek.advance()) {
+                heads.add(seek);
+            }
+        }
+        return fed;
+    }
+
+    /**
+     * One shard's position in a reset listing. Holds at most one batch; the next batch seeks
+     * past the last row of this one.
+     */
+    private final class ResetSeek {
+
+        private final int shard;
+        private final String sql;
+        private final List<Object> args;
+        private final int batch;
+        private final LocalDateTime now;
+        private final Deque<OutstandingReset> buffered = new ArrayDeque<>();
+        private ResetFilter.Cursor cursor;
+        private boolean exhausted;
+        private OutstandingReset head;
+
+        ResetSeek(int shard, String sql, List<Object> args, ResetFilter.Cursor after, int batch, LocalDateTime now) {
+            this.shard = shard;
+            this.sql = sql;
+            this.args = args;
+            this.cursor = after;
+            this.batch = batch;
+            this.now = now;
+        }
+
+        OutstandingReset head() {
+            return head;
+        }
+
+        boolean advance() {
+            if (buffered.isEmpty() && !exhausted) {
+                fetch();
+            }
+            head = buffered.poll();
+            return head != null;
+        }
+
+        private void fetch() {
+            StringBuilder page = new StringBuilder(sql);
+            List<Object> pageArgs = new ArrayList<>(args);
+            if (cursor != null) {
+                page.append(" AND (reset_token_expiry > ? OR (reset_token_expiry = ? AND id > ?))");
+                pageArgs.add(cursor.resetTokenExpiry());
+                pageArgs.add(cursor.resetTokenExpiry());
+                pageArgs.add(cursor.id());
+            }
+            page.append(" ORDER BY reset_token_expiry, id LIMIT ?");
+            pageArgs.add(batch);
+
+            List<OutstandingReset> rows = shardRouter.onShard(shard, () -> jdbcTemplate.query(page.toString(),
+                    (rs, rowNum) -> {
+                        LocalDateTime expiry = rs.getObject("reset_token_expiry", LocalDateTime.class);
+                        return new OutstandingReset(rs.getLong("id"), shard, rs.getString("email"),
+                                rs.getString("username"), expiry, !expiry.isAfter(now));
+                    },
+                    pageArgs.toArray()));
+            buffered.addAll(rows);
+            exhausted = rows.size() < batch;
+            if (!rows.isEmpty()) {
+                OutstandingReset last = rows.get(rows.size() - 1);
+                cursor = new ResetFilter.Cursor(last.resetTokenExpiry(), last.id());
+            }
+        }
+    }
+}
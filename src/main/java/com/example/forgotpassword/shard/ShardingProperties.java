@@ -0,0 +1,44 @@
+package com.example.forgotpassword.shard;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Databases the {@code users} table is spread over. With no shards listed there is a single
+ * shard, the {@code spring.datasource.*} database.
+ * <pre>
+ * app.sharding.shards[0].url=jdbc:mysql://users-0/forgot_password
+ * app.sharding.shards[1].url=jdbc:mysql://users-1/forgot_password
+ * </pre>
+ * Shard 0 also holds every other table (e.g. {@code bulk_reset_jobs}). Shards inherit the
+ * {@code spring.datasource} username and password unless they set their own.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.sharding")
+public class ShardingProperties {
+
+    private List<Shard> shards = new ArrayList<>();
+
+    /** Run {@link ReshardRunner} at startup. */
+    private boolean reshard;
+
+    /** Rows per batch when {@link ReshardRunner} moves users between shards. */
+    private int reshardBatchSize = 1_000;
+
+    public int shardCount() {
+        return Math.max(1, shards.size());
+    }
+
+    @Data
+    public static class Shard {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+    }
+}
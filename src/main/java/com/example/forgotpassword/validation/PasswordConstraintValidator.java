@@ -1,10 +1,16 @@
 package com.example.forgotpassword.validation;
 
+import com.example.forgotpassword.breach.BreachedPasswordChecker;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
+import org.springframework.beans.factory.annotation.Autowired;
 
 public class PasswordConstraintValidator implements ConstraintValidator<ValidPassword, String> {
 
+    // Only present when app.breached-passwords.enabled=true
+    @Autowired(required = false)
+    private BreachedPasswordChecker breachedPasswordChecker;
+
     @Override
     public boolean isValid(String password, ConstraintValidatorContext context) {
 
@@ -59,6 +65,14 @@ public class PasswordConstraintValidator implements ConstraintValidator<ValidPas
             valid = false;
         }
 
+        // Only worth the lookup once the password is otherwise acceptable
+        if (valid && breachedPasswordChecker != null && breachedPasswordChecker.isBreached(password)) {
+            context.buildConstraintViolationWithTemplate(
+                            "This password has appeared in a known data breach. Please choose a different one.")
+                    .addConstraintViolation();
+            valid = false;
+        }
+
         return valid;
     }
 }
@@ -0,0 +1,58 @@
+package com.example.forgotpassword.warmup;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.UUID;
+
+/**
+ * Recognises the requests {@link WarmupRunner} sends, so the audit log and the abuse counters
+ * can leave them out. They carry {@value #HEADER} with a secret generated at startup and must
+ * arrive over loopback, so outside clients cannot use the header to skip either.
+ */
+public final class WarmupRequests {
+
+    static final String HEADER = "X-Warmup";
+    static final String SECRET = UUID.randomUUID().toString();
+
+    private WarmupRequests() {
+    }
+
+    public static boolean isWarmup(HttpServletRequest request) {
+        return SECRET.equals(request.getHeader(HEADER)) && isLoopback(request.getRemoteAddr());
+    }
+
+    /**
+     * As {@link #isWarmup(HttpServletRequest)}, for the reactive stack.
+     */
+    public static boolean isWarmup(ServerHttpRequest request) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        return SECRET.equals(request.getHeaders().getFirst(HEADER))
+                && remote != null && remote.getAddress() != null && remote.getAddress().isLoopbackAddress();
+    }
+
+    /**
+     * @return whether the servlet request bound to the current thread, if any, is a warm-up request
+     */
+    public static boolean isCurrentRequestWarmup() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                && isWarmup(attributes.getRequest());
+    }
+
+    private static boolean isLoopback(String address) {
+        if (address == null) {
+            return false;
+        }
+        try {
+            // an address literal, so no lookup
+            return InetAddress.getByName(address).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.forgotpassword.warmup;
+
+import com.example.forgotpassword.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.reactive.context.ReactiveWebApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.IOException;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives synthetic traffic through the hot paths before the instance reports ready, so the
+ * first real requests do not run in the interpreter.
+ * <p>
+ * Spring Boot only moves the readiness state to {@code ACCEPTING_TRAFFIC} after all
+ * {@link ApplicationRunner}s return, so running the warm-up here keeps
+ * {@code /actuator/health/readiness} down until it finishes. Each iteration sends the page
+ * requests a user would (forgot-password, login, reset-password with a weak password and with
+ * an unknown token) to this instance over loopback, which covers the controllers, both
+ * validators, Thymeleaf and the repository queries; it also renders the reset email and,
+ * every few iterations, runs a BCrypt check. No row is written and no email is sent.
+ * <p>
+ * The requests are marked (see {@link WarmupRequests}), so they are neither audited nor
+ * counted by the abuse filter. The reactive stack's audit log cannot see that mark, so there the
+ * warm-up only fetches the forgot-password page and calls the repositories directly.
+ * <p>
+ * The loop stops once JIT compilation has settled, meaning compiler time stayed under
+ * {@code app.warmup.settled-compile-time} for three consecutive windows, or when
+ * {@code app.warmup.max-duration} is reached.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Order(Ordered.LOWEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = "app.warmup", name = "enabled", havingValue = "true")
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final int QUIET_WINDOWS_TO_SETTLE = 3;
+    private static final int BCRYPT_EVERY = 10;
+
+    private final Environment environment;
+    private final ApplicationContext applicationContext;
+    private final TemplateEngine templateEngine;
+    private final PasswordEncoder passwordEncoder;
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.warmup.threads:2}")
+    private int threads;
+
+    @Value("${app.warmup.max-duration:60s}")
+    private Duration maxDuration;
+
+    @Value("${app.warmup.window:1s}")
+    private Duration window;
+
+    @Value("${app.warmup.settled-compile-time:20ms}")
+    private Duration settledCompileTime;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        String baseUrl = port == null ? null : "http://127.0.0.1:" + port;
+        boolean reactive = applicationContext instanceof ReactiveWebApplicationContext;
+        String bcryptHash = passwordEncoder.encode("Warmup-Passw0rd!");
+
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        boolean canWatchCompiler = compiler != null && compiler.isCompilationTimeMonitoringSupported();
+
+        long start = System.nanoTime();
+        long deadline = start + maxDuration.toNanos();
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicLong iterations = new AtomicLong();
+        List<Long> firstWindowLatencies = Collections.synchronizedList(new ArrayList<>());
+        List<Long> currentWindowLatencies = Collections.synchronizedList(new ArrayList<>());
+        List<Long> lastWindowLatencies = new ArrayList<>();
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads, r -> new Thread(r, "warmup"));
+        for (int i = 0; i < threads; i++) {
+            workers.execute(() -> {
+                while (!stop.get()) {
+                    long n = iterations.incrementAndGet();
+                    try {
+                        iteration(n, baseUrl, reactive, bcryptHash, System.nanoTime() - start < window.toNanos()
+                                ? firstWindowLatencies : currentWindowLatencies);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (Exception e) {
+                        log.debug("Warm-up iteration failed", e);
+                    }
+                }
+            });
+        }
+
+        long lastCompileMillis = canWatchCompiler ? compiler.getTotalCompilationTime() : 0;
+        int quietWindows = 0;
+        boolean settled = false;
+        try {
+            while (System.nanoTime() < deadline) {
+                Thread.sleep(window.toMillis());
+                if (System.nanoTime() - start > window.toNanos()) {
+                    synchronized (currentWindowLatencies) {
+                        lastWindowLatencies = new ArrayList<>(currentWindowLatencies);
+                        currentWindowLatencies.clear();
+                    }
+                }
+                if (!canWatchCompiler) {
+                    continue;
+                }
+                long compileMillis = compiler.getTotalCompilationTime();
+                quietWindows = compileMillis - lastCompileMillis <= settledCompileTime.toMillis() ? quietWindows + 1 : 0;
+                lastCompileMillis = compileMillis;
+                if (quietWindows >= QUIET_WINDOWS_TO_SETTLE) {
+                    settled = true;
+                    break;
+                }
+            }
+        } finally {
+            stop.set(true);
+            workers.shutdown();
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        meterRegistry.timer("app.warmup.duration").record(elapsed);
+        log.info("Warm-up {} after {} ms and {} iterations; request p99 {} ms in the first window, {} ms in the last",
+                settled ? "settled" : "hit its time budget", elapsed.toMillis(), iterations.get(),
+                p99Millis(firstWindowLatencies), p99Millis(lastWindowLatencies));
+    }
+
+    private void iteration(long n, String baseUrl, boolean reactive, String bcryptHash, List<Long> latencies)
+            throws IOException, InterruptedException {
+        if (baseUrl != null && !reactive) {
+            String token = UUID.randomUUID().toString();
+            timed(latencies, get(baseUrl + "/forgot-password"));
+            timed(latencies, get(baseUrl + "/login"));
+            timed(latencies, post(baseUrl + "/forgot-password", "email=warmup-" + n + "@example.invalid"));
+            timed(latencies, get(baseUrl + "/reset-password?token=" + token));
+            timed(latencies, post(baseUrl + "/reset-password",
+                    "token=" + token + "&password=weak&confirmPassword=weaker"));
+            timed(latencies, post(baseUrl + "/reset-password",
+                    "token=" + token + "&password=" + encode("Warmup-Passw0rd!") + "&confirmPassword="
+                            + encode("Warmup-Passw0rd!")));
+        } else {
+            if (baseUrl != null) {
+                timed(latencies, get(baseUrl + "/forgot-password"));
+            }
+            userRepository.findByEmail("warmup-" + n + "@example.invalid");
+            userRepository.findByResetToken(UUID.randomUUID().toString());
+        }
+
+        Context context = new Context();
+        context.setVariable("resetLink", "http://localhost/reset-password?token=warmup");
+        context.setVariable("username", "warmup");
+        templateEngine.process("email/password-reset-email", context);
+
+        if (n % BCRYPT_EVERY == 0) {
+            passwordEncoder.matches("Warmup-Passw0rd?", bcryptHash);
+        }
+    }
+
+    private void timed(List<Long> latencies, HttpRequest request) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        latencies.add(System.nanoTime() - start);
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header(WarmupRequests.HEADER, WarmupRequests.SECRET)
+                .GET()
+                .build();
+    }
+
+    private static HttpRequest post(String url, String form) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header(WarmupRequests.HEADER, WarmupRequests.SECRET)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static long p99Millis(List<Long> latencies) {
+        if (latencies.isEmpty()) {
+            return 0;
+        }
+        List<Long> sorted;
+        synchronized (latencies) {
+            sorted = new ArrayList<>(latencies);
+        }
+        Collections.sort(sorted);
+        return TimeUnit.NANOSECONDS.toMillis(sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1));
+    }
+}
@@ -0,0 +1,42 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Gives each shard its own range of user ids, {@code shard * 10^12 + 1} onwards, so ids stay
+ * unique across shards (the second-level cache and cross-shard listings key on them). Runs
+ * with the {@code shard} placeholder set per shard; shard 0 and unsharded databases keep
+ * their ids.
+ */
+public class V3__ShardIdRange extends BaseJavaMigration {
+
+    static final long IDS_PER_SHARD = 1_000_000_000_000L;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        long shard = Long.parseLong(context.getConfiguration().getPlaceholders().getOrDefault("shard", "0"));
+        if (shard == 0) {
+            return;
+        }
+
+        long firstId = shard * IDS_PER_SHARD + 1;
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet max = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM users")) {
+                max.next();
+                if (max.getLong(1) >= firstId) {
+                    return;
+                }
+            }
+            String product = connection.getMetaData().getDatabaseProductName();
+            statement.execute(product.equals("H2")
+                    ? "ALTER TABLE users ALTER COLUMN id RESTART WITH " + firstId
+                    : "ALTER TABLE users AUTO_INCREMENT = " + firstId);
+        }
+    }
+}
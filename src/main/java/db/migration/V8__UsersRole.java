@@ -0,0 +1,31 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+
+/**
+ * Adds the nullable {@code users.role} column (null means USER). Databases baselined at V1
+ * while ddl-auto was still on may already have it, and MySQL has no
+ * {@code ADD COLUMN IF NOT EXISTS}, so this checks first.
+ */
+public class V8__UsersRole extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            try (ResultSet empty = statement.executeQuery("SELECT * FROM users WHERE 1 = 0")) {
+                ResultSetMetaData columns = empty.getMetaData();
+                for (int i = 1; i <= columns.getColumnCount(); i++) {
+                    if (columns.getColumnName(i).equalsIgnoreCase("role")) {
+                        return;
+                    }
+                }
+            }
+            statement.execute("ALTER TABLE users ADD COLUMN role VARCHAR(32)");
+        }
+    }
+}
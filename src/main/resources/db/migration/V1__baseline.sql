@@ -0,0 +1,14 @@
+-- Schema as previously created by spring.jpa.hibernate.ddl-auto=update.
+-- Databases that already have it are baselined at this version and skip this script.
+
+CREATE TABLE users (
+    id                 BIGINT       NOT NULL AUTO_INCREMENT,
+    email              VARCHAR(255) NOT NULL,
+    password           VARCHAR(255) NOT NULL,
+    username           VARCHAR(255) NOT NULL,
+    reset_token        VARCHAR(255),
+    reset_token_expiry DATETIME(6),
+    enabled            BOOLEAN      NOT NULL DEFAULT TRUE,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
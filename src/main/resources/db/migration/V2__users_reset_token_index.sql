@@ -0,0 +1,2 @@
+-- GET /reset-password and POST /reset-password look users up by token
+CREATE INDEX idx_users_reset_token ON users (reset_token);
@@ -0,0 +1,2 @@
+-- admin listings of outstanding resets seek on (reset_token_expiry, id)
+CREATE INDEX idx_users_reset_expiry ON users (reset_token_expiry, id);
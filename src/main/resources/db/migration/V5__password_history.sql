@@ -0,0 +1,12 @@
+-- Previous password hashes per user, newest first by id; trimmed on every reset to
+-- app.password-history.size - 1 rows (the current password is the remaining one)
+CREATE TABLE password_history (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id    BIGINT       NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    created_at DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_password_history_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_password_history_user ON password_history (user_id, id);
@@ -0,0 +1,13 @@
+-- Addresses reset emails are not sent to after hard bounces (see SuppressionList); kept on
+-- shard 0 and deleted once app.bounce.max-suppression past suppressed_until
+CREATE TABLE email_suppression (
+    email            VARCHAR(255) NOT NULL,
+    bounce_count     INT          NOT NULL,
+    last_status      VARCHAR(16),
+    first_bounce_at  DATETIME(6)  NOT NULL,
+    last_bounce_at   DATETIME(6)  NOT NULL,
+    suppressed_until DATETIME(6)  NOT NULL,
+    PRIMARY KEY (email)
+);
+
+CREATE INDEX idx_email_suppression_until ON email_suppression (suppressed_until);
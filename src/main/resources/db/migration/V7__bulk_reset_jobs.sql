@@ -0,0 +1,22 @@
+-- Progress of bulk password resets (see BulkPasswordResetService). Databases baselined at V1
+-- while ddl-auto was still on may already have the table.
+CREATE TABLE IF NOT EXISTS bulk_reset_jobs (
+    id             BIGINT       NOT NULL AUTO_INCREMENT,
+    status         VARCHAR(16)  NOT NULL,
+    source         VARCHAR(16)  NOT NULL,
+    input_file     VARCHAR(255),
+    filter_domain  VARCHAR(255),
+    filter_id_from BIGINT,
+    filter_id_to   BIGINT,
+    checkpoint     BIGINT       NOT NULL,
+    processed      BIGINT       NOT NULL,
+    tokens_issued  BIGINT       NOT NULL,
+    not_found      BIGINT       NOT NULL,
+    emails_queued  BIGINT       NOT NULL,
+    emails_failed  BIGINT       NOT NULL,
+    last_error     VARCHAR(255),
+    created_at     DATETIME(6)  NOT NULL,
+    started_at     DATETIME(6),
+    finished_at    DATETIME(6),
+    PRIMARY KEY (id)
+);
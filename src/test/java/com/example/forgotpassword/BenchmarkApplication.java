@@ -0,0 +1,136 @@
+package com.example.forgotpassword;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs the application in a child JVM against an in-memory H2 database, or the one passed as
+ * {@code --spring.datasource.url}, for benchmarks that need a cold JVM. By default it uses the
+ * test classpath; {@code -Dbenchmark.jar} runs a packaged jar instead (from the jar's
+ * directory, as a CDS archive expects) and {@code -Dbenchmark.jvmArgs} adds JVM options.
+ */
+final class BenchmarkApplication implements AutoCloseable {
+
+    final int port;
+    final long startedAtNanos;
+    private final Process process;
+
+    final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofMillis(500))
+            .build();
+
+    private BenchmarkApplication(int port, long startedAtNanos, Process process) {
+        this.port = port;
+        this.startedAtNanos = startedAtNanos;
+        this.process = process;
+    }
+
+    static BenchmarkApplication start(String... extraArgs) throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        String jvmArgs = System.getProperty("benchmark.jvmArgs", "").trim();
+        if (!jvmArgs.isEmpty()) {
+            command.addAll(Arrays.asList(jvmArgs.split("\\s+")));
+        }
+        command.addAll(List.of(
+                "-cp", classpath(),
+                ForgotPasswordApplication.class.getName(),
+                "--server.port=" + port));
+        // a second --spring.datasource.url would be joined to this one, not replace it
+        if (Arrays.stream(extraArgs).noneMatch(arg -> arg.startsWith("--spring.datasource.url="))) {
+            command.add("--spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        }
+        command.addAll(List.of(
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                // all load comes from loopback, which the abuse detector would otherwise throttle
+                "--app.abuse.exempt-addresses=127.0.0.1,0:0:0:0:0:0:0:1"));
+        command.addAll(Arrays.asList(extraArgs));
+
+        String jar = System.getProperty("benchmark.jar");
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(jar == null ? null : Path.of(jar).toAbsolutePath().getParent().toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(new File(System.getProperty("java.io.tmpdir"), "benchmark-app.log"))
+                .start();
+        return new BenchmarkApplication(port, start, process);
+    }
+
+    URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + port + path);
+    }
+
+    HttpRequest forgotPasswordPost(String email) {
+        return HttpRequest.newBuilder(uri("/forgot-password"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("email=" + email.replace("@", "%40")))
+                .build();
+    }
+
+    /**
+     * Sends {@code request} until it returns {@code expectedStatus}.
+     *
+     * @return time since the JVM was launched
+     */
+    Duration awaitStatus(HttpRequest request, int expectedStatus, Duration timeout) throws InterruptedException {
+        while (System.nanoTime() - startedAtNanos < timeout.toNanos()) {
+            if (!process.isAlive()) {
+                throw new AssertionError("Application exited during startup, see benchmark-app.log in java.io.tmpdir");
+            }
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == expectedStatus) {
+                    return Duration.ofNanos(System.nanoTime() - startedAtNanos);
+                }
+            } catch (IOException notListeningYet) {
+                // keep polling
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("No " + expectedStatus + " from " + request.uri() + " within " + timeout);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        process.waitFor();
+    }
+
+    /**
+     * A packaged jar does not contain H2, so the driver is appended; CDS accepts entries
+     * added after the ones the archive was dumped with. The jar is named relative to the
+     * working directory, matching the training run.
+     */
+    private static String classpath() {
+        String jar = System.getProperty("benchmark.jar");
+        if (jar == null) {
+            return System.getProperty("java.class.path");
+        }
+        try {
+            String h2 = Path.of(org.h2.Driver.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+            return Path.of(jar).getFileName() + File.pathSeparator + h2;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
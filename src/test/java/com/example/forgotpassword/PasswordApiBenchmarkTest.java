@@ -0,0 +1,85 @@
+package com.example.forgotpassword;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+/**
+ * Compares requests per second of the JSON API ({@code /api/v1/password/*}) with the HTML
+ * pages doing the same work: checking a reset token and requesting a reset email.
+ */
+@Tag("benchmark")
+class PasswordApiBenchmarkTest {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(180);
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("benchmark.warmupSeconds", 5));
+    private static final Duration MEASURE = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 10));
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 8);
+
+    @Test
+    void jsonApiVersusHtmlPages() throws Exception {
+        try (BenchmarkApplication app = BenchmarkApplication.start()) {
+            app.awaitStatus(HttpRequest.newBuilder(app.uri("/login")).build(), 200, STARTUP_TIMEOUT);
+
+            IntFunction<HttpRequest> htmlValidate = i ->
+                    HttpRequest.newBuilder(app.uri("/reset-password?token=unknown-" + i)).build();
+            IntFunction<HttpRequest> apiValidate = i ->
+                    HttpRequest.newBuilder(app.uri("/api/v1/password/validate?token=unknown-" + i)).build();
+            IntFunction<HttpRequest> htmlForgot = i -> app.forgotPasswordPost("nobody" + i + "@example.com");
+            IntFunction<HttpRequest> apiForgot = i -> HttpRequest.newBuilder(app.uri("/api/v1/password/forgot"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"nobody" + i + "@example.com\"}"))
+                    .build();
+
+            System.out.printf("Validate token: HTML %.0f req/s, JSON %.0f req/s%n",
+                    throughput(app, htmlValidate), throughput(app, apiValidate));
+            System.out.printf("Forgot password: HTML %.0f req/s, JSON %.0f req/s%n",
+                    throughput(app, htmlForgot), throughput(app, apiForgot));
+        }
+    }
+
+    private static double throughput(BenchmarkApplication app, IntFunction<HttpRequest> requests) throws Exception {
+        run(app, requests, WARMUP);
+        return run(app, requests, MEASURE) / (MEASURE.toNanos() / 1e9);
+    }
+
+    /** @return requests completed by {@link #CLIENTS} threads within {@code duration} */
+    private static long run(BenchmarkApplication app, IntFunction<HttpRequest> requests, Duration duration)
+            throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<Long>> counts = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                int client = c;
+                counts.add(clients.submit(() -> {
+                    long completed = 0;
+                    for (int i = client; System.nanoTime() < deadline; i += CLIENTS) {
+                        HttpResponse<Void> response = app.client.send(requests.apply(i), HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 500) {
+                            throw new AssertionError(response.statusCode() + " from " + response.uri());
+                        }
+                        completed++;
+                    }
+                    return completed;
+                }));
+            }
+            long total = 0;
+            for (Future<Long> count : counts) {
+                total += count.get();
+            }
+            return total;
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+}
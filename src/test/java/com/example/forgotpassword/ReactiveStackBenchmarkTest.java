@@ -0,0 +1,146 @@
+package com.example.forgotpassword;
+
+import com.example.forgotpassword.service.FaultInjectingSmtpServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Runs the reset pages on the servlet stack and on the reactive one (profile
+ * {@code reactive}) under the same load: {@code benchmark.concurrency} requests in flight at
+ * once, against a file-backed H2 database and a local SMTP sink. Reports throughput and
+ * latency percentiles for checking a reset link and for requesting a reset email.
+ * <p>
+ * Both stacks run without their concurrency limiter, and the servlet stack without its
+ * bulkheads, so both queue excess requests instead of shedding them.
+ */
+@Tag("benchmark")
+class ReactiveStackBenchmarkTest {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(180);
+    private static final int USERS = Integer.getInteger("benchmark.users", 5_000);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 2_000);
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20_000);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reactiveVersusServletUnderHighConcurrency() throws Exception {
+        List<String> results = new ArrayList<>();
+        results.addAll(measure("servlet", "--app.limiter.enabled=false", "--app.bulkhead.enabled=false"));
+        results.addAll(measure("reactive", "--spring.profiles.active=reactive", "--app.limiter.enabled=false"));
+
+        System.out.printf("%d requests per run, %d in flight%n", REQUESTS, CONCURRENCY);
+        results.forEach(System.out::println);
+    }
+
+    private List<String> measure(String stack, String... stackArgs) throws Exception {
+        String url = "jdbc:h2:file:" + dir.resolve(stack).resolve("db") + ";MODE=MySQL;AUTO_SERVER=TRUE";
+        try (FaultInjectingSmtpServer smtp = new FaultInjectingSmtpServer(FaultInjectingSmtpServer.Mode.HEALTHY)) {
+            String[] args = Stream.concat(Stream.of(
+                    "--spring.datasource.url=" + url,
+                    "--app.audit.directory=" + dir.resolve(stack).resolve("audit"),
+                    "--spring.mail.host=127.0.0.1",
+                    "--spring.mail.port=" + smtp.getPort(),
+                    "--spring.mail.properties.mail.smtp.auth=false",
+                    "--spring.mail.properties.mail.smtp.starttls.enable=false",
+                    "--spring.mail.properties.mail.smtp.starttls.required=false"), Arrays.stream(stackArgs))
+                    .toArray(String[]::new);
+
+            try (BenchmarkApplication app = BenchmarkApplication.start(args)) {
+                app.awaitStatus(HttpRequest.newBuilder(app.uri("/forgot-password")).build(), 200, STARTUP_TIMEOUT);
+                String[] tokens = seed(url);
+
+                IntFunction<HttpRequest> validate = i ->
+                        HttpRequest.newBuilder(app.uri("/reset-password?token=" + tokens[i % USERS])).build();
+                IntFunction<HttpRequest> forgot = i -> app.forgotPasswordPost("user" + (i % USERS) + "@example.com");
+
+                run(validate, REQUESTS / 4); // warm-up
+                String validateResult = stack + " validate: " + run(validate, REQUESTS);
+                // issues new tokens, so it runs after the validate runs
+                run(forgot, REQUESTS / 8);
+                int mailsBefore = smtp.getAcceptedMessages();
+                String forgotResult = stack + " forgot:   " + run(forgot, REQUESTS / 2)
+                        + ", " + (smtp.getAcceptedMessages() - mailsBefore) + " emails";
+                return List.of(validateResult, forgotResult);
+            }
+        }
+    }
+
+    /** @return the reset token of {@code user<i>@example.com} at index {@code i} */
+    private static String[] seed(String url) throws Exception {
+        String[] tokens = new String[USERS];
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO users (email, password, username, reset_token, reset_token_expiry) VALUES (?, 'x', ?, ?, ?)")) {
+            Timestamp expiry = Timestamp.valueOf(LocalDateTime.now().plusHours(1));
+            for (int i = 0; i < USERS; i++) {
+                tokens[i] = "0." + UUID.randomUUID();
+                insert.setString(1, "user" + i + "@example.com");
+                insert.setString(2, "user" + i);
+                insert.setString(3, tokens[i]);
+                insert.setTimestamp(4, expiry);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        return tokens;
+    }
+
+    /** Sends {@code count} requests, keeping {@link #CONCURRENCY} of them in flight. */
+    private static String run(IntFunction<HttpRequest> requests, int count) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        CountDownLatch done = new CountDownLatch(count);
+        long[] latencies = new long[count];
+        AtomicInteger failed = new AtomicInteger();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            inFlight.acquire();
+            int request = i;
+            long sent = System.nanoTime();
+            client.sendAsync(requests.apply(i), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        latencies[request] = System.nanoTime() - sent;
+                        if (failure != null || response.statusCode() >= 500) {
+                            failed.incrementAndGet();
+                        }
+                        inFlight.release();
+                        done.countDown();
+                    });
+        }
+        done.await();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        client.close();
+
+        Arrays.sort(latencies);
+        return String.format("%.0f req/s, p50 %.1f ms, p99 %.1f ms, max %.1f ms, %d failed",
+                count / seconds, latencies[count / 2] / 1e6, latencies[(int) (count * 0.99)] / 1e6,
+                latencies[count - 1] / 1e6, failed.get());
+    }
+}
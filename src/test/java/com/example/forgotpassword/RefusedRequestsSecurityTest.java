@@ -0,0 +1,116 @@
+package com.example.forgotpassword;
+
+import com.example.forgotpassword.bulkhead.Workload;
+import com.example.forgotpassword.bulkhead.WorkloadBulkheads;
+import com.example.forgotpassword.limiter.AdaptiveConcurrencyLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Requests the servlet filters refuse, sent to a running server as an anonymous client, so the
+ * answer passes through Tomcat and the real Spring Security chain. A refusal routed through the
+ * error page would reach the client as a redirect to the login page.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:refused;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "app.audit.enabled=false",
+        "app.abuse.exempt-addresses=",
+        "app.abuse.email.throttle-at=0",
+        "app.abuse.email.block-at=2"
+})
+class RefusedRequestsSecurityTest {
+
+    @LocalServerPort
+    private int port;
+
+    @SpyBean
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @SpyBean
+    private WorkloadBulkheads bulkheads;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+
+    @Test
+    void throttledPagePostGets429NotALoginRedirect() throws Exception {
+        HttpResponse<String> response = null;
+        for (int i = 0; i < 3; i++) {
+            response = client.send(HttpRequest.newBuilder(uri("/forgot-password"))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString("email=page-victim@example.com"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+        }
+
+        assertThat(response.statusCode()).isEqualTo(429);
+        assertThat(response.headers().firstValue("Retry-After")).hasValue("60");
+        assertThat(response.headers().firstValue("Location")).isEmpty();
+    }
+
+    @Test
+    void throttledApiPostGets429WithAJsonError() throws Exception {
+        HttpResponse<String> response = null;
+        for (int i = 0; i < 3; i++) {
+            response = client.send(HttpRequest.newBuilder(uri("/api/v1/password/forgot"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"api-victim@example.com\"}"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+        }
+
+        assertThat(response.statusCode()).isEqualTo(429);
+        assertThat(response.headers().firstValue("Retry-After")).hasValue("60");
+        assertThat(response.body()).isEqualTo("{\"error\":\"too_many_requests\"}");
+    }
+
+    @Test
+    void shedRequestsGet503NotALoginRedirect() throws Exception {
+        doReturn(null).when(limiter).tryAcquire();
+
+        HttpResponse<String> page = client.send(HttpRequest.newBuilder(uri("/forgot-password")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(page.statusCode()).isEqualTo(503);
+        assertThat(page.headers().firstValue("Retry-After")).hasValue("1");
+        assertThat(page.headers().firstValue("Location")).isEmpty();
+
+        HttpResponse<String> api = client.send(HttpRequest.newBuilder(uri("/api/v1/password/validate?token=x")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(api.statusCode()).isEqualTo(503);
+        assertThat(api.body()).isEqualTo("{\"error\":\"busy\"}");
+    }
+
+    @Test
+    void requestsAFullBulkheadTurnsAwayGet503NotALoginRedirect() throws Exception {
+        doReturn(WorkloadBulkheads.Admission.FULL).when(bulkheads).tryEnter(Workload.RESET);
+
+        HttpResponse<String> page = client.send(HttpRequest.newBuilder(uri("/reset-password?token=x")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(page.statusCode()).isEqualTo(503);
+        assertThat(page.headers().firstValue("Retry-After")).hasValue("1");
+        assertThat(page.headers().firstValue("Location")).isEmpty();
+
+        HttpResponse<String> api = client.send(HttpRequest.newBuilder(uri("/api/v1/password/forgot"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"someone@example.com\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(api.statusCode()).isEqualTo(503);
+        assertThat(api.body()).isEqualTo("{\"error\":\"busy\"}");
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + port + path);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.forgotpassword;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures time from JVM launch to the first successful {@code POST /forgot-password}, which
+ * is what matters when instances are added during a reset-email spike. See
+ * {@link BenchmarkApplication} for running a packaged build; for example, after
+ * {@code mvn -Pfast-startup package}:
+ * <pre>
+ * mvn -Pbenchmark test -Dtest=StartupBenchmarkTest \
+ *     -Dbenchmark.jar=target/fast-startup/forgot-password-0.0.1-SNAPSHOT.jar \
+ *     -Dbenchmark.jvmArgs="-Dspring.aot.enabled=true -XX:SharedArchiveFile=application.jsa"
+ * </pre>
+ */
+@Tag("benchmark")
+class StartupBenchmarkTest {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(90);
+
+    @Test
+    void timeToFirstForgotPasswordPost() throws Exception {
+        int runs = Integer.getInteger("benchmark.runs", 3);
+        List<Long> millis = new ArrayList<>();
+        for (int i = 0; i < runs; i++) {
+            try (BenchmarkApplication app = BenchmarkApplication.start()) {
+                millis.add(app.awaitStatus(app.forgotPasswordPost("nobody@example.com"), 302, STARTUP_TIMEOUT)
+                        .toMillis());
+            }
+        }
+
+        List<Long> sorted = millis.stream().sorted().toList();
+        System.out.printf("Startup to first POST /forgot-password (jvmArgs: %s): runs=%s median=%dms%n",
+                System.getProperty("benchmark.jvmArgs", "<none>"), millis, sorted.get(sorted.size() / 2));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.forgotpassword;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares request latency right after the readiness probe turns UP, with and without the
+ * JIT warm-up phase ({@code app.warmup.enabled}).
+ */
+@Tag("benchmark")
+class WarmupBenchmarkTest {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(180);
+    private static final int REQUESTS_AFTER_READY = Integer.getInteger("benchmark.requests", 600);
+
+    @Test
+    void p99RightAfterReadiness() throws Exception {
+        Result cold = measure(false);
+        Result warm = measure(true);
+
+        System.out.printf("Without warm-up: ready after %dms, p99 of first %d requests %.1fms%n",
+                cold.readyAfter().toMillis(), REQUESTS_AFTER_READY, cold.p99Millis());
+        System.out.printf("With warm-up:    ready after %dms, p99 of first %d requests %.1fms%n",
+                warm.readyAfter().toMillis(), REQUESTS_AFTER_READY, warm.p99Millis());
+    }
+
+    private Result measure(boolean warmup) throws Exception {
+        try (BenchmarkApplication app = BenchmarkApplication.start("--app.warmup.enabled=" + warmup)) {
+            Duration ready = app.awaitStatus(
+                    HttpRequest.newBuilder(app.uri("/actuator/health/readiness")).build(), 200, STARTUP_TIMEOUT);
+
+            List<Long> latencies = new ArrayList<>(REQUESTS_AFTER_READY);
+            for (int i = 0; i < REQUESTS_AFTER_READY; i++) {
+                HttpRequest request = i % 2 == 0
+                        ? HttpRequest.newBuilder(app.uri("/forgot-password")).build()
+                        : app.forgotPasswordPost("user" + i + "@example.com");
+                long start = System.nanoTime();
+                app.client.send(request, HttpResponse.BodyHandlers.discarding());
+                latencies.add(System.nanoTime() - start);
+            }
+            Collections.sort(latencies);
+            long p99 = latencies.get((int) Math.ceil(latencies.size() * 0.99) - 1);
+            return new Result(ready, p99 / (double) TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    private record Result(Duration readyAfter, double p99Millis) {
+    }
+}
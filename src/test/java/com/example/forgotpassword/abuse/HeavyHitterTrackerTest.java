@@ -0,0 +1,104 @@
+package com.example.forgotpassword.abuse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HeavyHitterTrackerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final HeavyHitterTracker tracker =
+            new HeavyHitterTracker(4, 4096, Duration.ofSeconds(60), 5, clock::get);
+
+    @Test
+    void heavyHittersStandOutFromBackgroundTraffic() {
+        for (int i = 0; i < 50_000; i++) {
+            tracker.record("user" + i + "@example.com");
+            if (i % 100 == 0) {
+                tracker.record("victim@example.com");
+            }
+            if (i % 250 == 0) {
+                tracker.record("second@example.com");
+            }
+        }
+
+        List<HeavyHitter> top = tracker.top(2);
+        assertThat(top).extracting(HeavyHitter::key).containsExactly("victim@example.com", "second@example.com");
+        // never under, and only slightly over, the true counts (500 and 200)
+        assertThat(top.get(0).estimate()).isBetween(500L, 520L);
+        assertThat(top.get(1).estimate()).isBetween(200L, 220L);
+        assertThat(tracker.estimate("user42@example.com")).isLessThan(10);
+    }
+
+    @Test
+    void countsDecayOverTheSlidingWindow() {
+        for (int i = 0; i < 100; i++) {
+            tracker.record("10.0.0.1");
+        }
+
+        clock.addAndGet(Duration.ofSeconds(90).toNanos());
+        // half of the previous window still overlaps the last 60 seconds
+        assertThat(tracker.estimate("10.0.0.1")).isEqualTo(50);
+
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertThat(tracker.estimate("10.0.0.1")).isZero();
+        assertThat(tracker.top(5)).isEmpty();
+    }
+
+    @Test
+    void concurrentRecordsAreNotLost() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    tracker.record("hot@example.com");
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(tracker.estimate("hot@example.com")).isEqualTo(80_000);
+    }
+
+    @Test
+    void noAddressIsExemptByDefault() {
+        ResetTrafficMonitor monitor = new ResetTrafficMonitor(new AbuseProperties(), new SimpleMeterRegistry());
+
+        for (int i = 0; i < 20; i++) {
+            monitor.record("127.0.0.1", "victim@example.com");
+        }
+        assertThat(monitor.record("127.0.0.1", "victim@example.com")).isEqualTo(ResetTrafficMonitor.Verdict.BLOCK);
+    }
+
+    @Test
+    void monitorEscalatesFromThrottleToBlockPerDimension() {
+        AbuseProperties properties = new AbuseProperties();
+        properties.setEmail(new AbuseProperties.Limits(2, 4));
+        properties.setIp(new AbuseProperties.Limits(0, 0));
+        properties.setExemptAddresses(List.of("127.0.0.1"));
+        ResetTrafficMonitor monitor = new ResetTrafficMonitor(properties, new SimpleMeterRegistry());
+
+        assertThat(monitor.record("203.0.113.1", "Victim@Example.com")).isEqualTo(ResetTrafficMonitor.Verdict.ALLOW);
+        assertThat(monitor.record("203.0.113.2", "victim@example.com")).isEqualTo(ResetTrafficMonitor.Verdict.ALLOW);
+        assertThat(monitor.record("203.0.113.3", "victim@example.com")).isEqualTo(ResetTrafficMonitor.Verdict.THROTTLE);
+        monitor.record("203.0.113.4", "victim@example.com");
+        assertThat(monitor.record("203.0.113.5", "victim@example.com")).isEqualTo(ResetTrafficMonitor.Verdict.BLOCK);
+
+        // an exempt address is never counted, other accounts are unaffected
+        assertThat(monitor.record("127.0.0.1", "victim@example.com")).isEqualTo(ResetTrafficMonitor.Verdict.ALLOW);
+        assertThat(monitor.record("203.0.113.6", "other@example.com")).isEqualTo(ResetTrafficMonitor.Verdict.ALLOW);
+
+        assertThat(monitor.heavyHitters(1).get("emails"))
+                .containsExactly(new HeavyHitter("victim@example.com", 5));
+        assertThat(monitor.memoryBytes()).isLessThan(4L * 1024 * 1024);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.forgotpassword.abuse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResetAbuseFilterTest {
+
+    @Test
+    void jsonRequestsAreCountedByTheirEmailAndKeepTheirBody() throws Exception {
+        AbuseProperties properties = new AbuseProperties();
+        properties.setExemptAddresses(List.of());
+        properties.getEmail().setBlockAt(2);
+        ResetTrafficMonitor monitor = new ResetTrafficMonitor(properties, new SimpleMeterRegistry());
+        ResetAbuseFilter filter = new ResetAbuseFilter(monitor, properties, new ObjectMapper());
+
+        String body = "{\"email\":\"Victim@Example.com\"}";
+        for (int i = 0; i < 2; i++) {
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(jsonPost(body, "10.0.0." + i), new MockHttpServletResponse(), chain);
+            HttpServletRequest passedOn = (HttpServletRequest) chain.getRequest();
+            assertThat(new String(passedOn.getInputStream().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(body);
+        }
+
+        MockHttpServletResponse blocked = new MockHttpServletResponse();
+        filter.doFilter(jsonPost(body, "10.0.0.9"), blocked, new MockFilterChain());
+        assertThat(blocked.getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void throttledRequestsAreRefusedAtOnceWithRetryAfter() throws Exception {
+        AbuseProperties properties = new AbuseProperties();
+        properties.setExemptAddresses(List.of());
+        properties.getEmail().setThrottleAt(1);
+        properties.setRetryAfter(Duration.ofMillis(1_500));
+        ResetAbuseFilter filter = new ResetAbuseFilter(
+                new ResetTrafficMonitor(properties, new SimpleMeterRegistry()), properties, new ObjectMapper());
+
+        filter.doFilter(jsonPost("{\"email\":\"victim@example.com\"}", "10.0.0.1"),
+                new MockHttpServletResponse(), new MockFilterChain());
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse throttled = new MockHttpServletResponse();
+        long start = System.nanoTime();
+        filter.doFilter(jsonPost("{\"email\":\"victim@example.com\"}", "10.0.0.2"), throttled, chain);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(500));
+        assertThat(throttled.getStatus()).isEqualTo(429);
+        assertThat(throttled.getHeader("Retry-After")).isEqualTo("2");
+        // written here, not through the error page
+        assertThat(throttled.getErrorMessage()).isNull();
+        assertThat(throttled.getContentAsString()).isEqualTo("{\"error\":\"too_many_requests\"}");
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    void oversizedJsonBodiesAreRefused() throws Exception {
+        AbuseProperties properties = new AbuseProperties();
+        ResetAbuseFilter filter = new ResetAbuseFilter(
+                new ResetTrafficMonitor(properties, new SimpleMeterRegistry()), properties, new ObjectMapper());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(jsonPost("{\"email\":\"" + "a".repeat(ResetAbuseFilter.MAX_JSON_BODY) + "\"}", "10.0.0.1"),
+                response, new MockFilterChain());
+        assertThat(response.getStatus()).isEqualTo(413);
+    }
+
+    private static MockHttpServletRequest jsonPost(String body, String clientIp) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/password/forgot");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        request.setRemoteAddr(clientIp);
+        return request;
+    }
+}
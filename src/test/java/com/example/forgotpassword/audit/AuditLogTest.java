@@ -0,0 +1,153 @@
+package com.example.forgotpassword.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void ringBufferDeliversEveryEventOnceUnderContention() throws Exception {
+        AuditRingBuffer<Long> buffer = new AuditRingBuffer<>(1_024);
+        int producers = 4;
+        int perProducer = 50_000;
+        AtomicLong rejected = new AtomicLong();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p * perProducer;
+            Thread thread = new Thread(() -> {
+                for (long i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        rejected.incrementAndGet();
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        boolean[] seen = new boolean[producers * perProducer];
+        long[] lastPerProducer = new long[producers];
+        Arrays.fill(lastPerProducer, -1);
+        int received = 0;
+        while (received < seen.length) {
+            Long value = buffer.poll();
+            if (value == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            assertThat(seen[value.intValue()]).isFalse();
+            seen[value.intValue()] = true;
+            // each producer's events come out in the order it offered them
+            int producer = (int) (value / perProducer);
+            assertThat(value).isGreaterThan(lastPerProducer[producer]);
+            lastPerProducer[producer] = value;
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(buffer.poll()).isNull();
+        assertThat(rejected.get()).as("a full buffer refuses instead of blocking").isPositive();
+    }
+
+    @Test
+    void eventsAreWrittenAcrossRotatedSegmentsAndVerify() throws Exception {
+        Instant start = Instant.now();
+        writeEvents(300, 0);
+
+        List<AuditEvent> events = new ArrayList<>();
+        AuditLogReader.ScanResult result = new AuditLogReader(directory).scan(null, null, e -> true, true, events::add);
+
+        assertThat(result.intact()).as(String.join("; ", result.problems())).isTrue();
+        assertThat(result.segments()).isGreaterThan(3);
+        assertThat(events).hasSize(300);
+        assertThat(events).extracting(AuditEvent::userId).isSorted();
+        AuditEvent first = events.get(0);
+        assertThat(first.type()).isEqualTo(AuditEvent.Type.FORGOT);
+        assertThat(first.outcome()).isEqualTo(AuditEvent.Outcome.UNKNOWN_ACCOUNT);
+        assertThat(first.email()).isEqualTo("user0@example.com");
+        assertThat(first.clientIp()).isNull();
+        assertThat(first.timestamp()).isBetween(start.minusMillis(1), Instant.now());
+
+        List<AuditEvent> resets = new ArrayList<>();
+        new AuditLogReader(directory).scan(start.minusSeconds(1), null,
+                e -> e.type() == AuditEvent.Type.RESET && e.outcome() == AuditEvent.Outcome.OK, false, resets::add);
+        assertThat(resets).hasSize(100).allSatisfy(e -> assertThat(e.userId() % 3).isEqualTo(2));
+
+        List<AuditEvent> none = new ArrayList<>();
+        new AuditLogReader(directory).scan(Instant.now().plusSeconds(60), null, e -> true, false, none::add);
+        assertThat(none).isEmpty();
+    }
+
+    @Test
+    void restartContinuesTheChainInANewSegment() throws Exception {
+        writeEvents(50, 0);
+        int segmentsBefore = AuditSegments.list(directory).size();
+        writeEvents(50, 50);
+
+        List<AuditEvent> events = new ArrayList<>();
+        AuditLogReader.ScanResult result = new AuditLogReader(directory).scan(null, null, e -> true, true, events::add);
+
+        assertThat(result.intact()).as(String.join("; ", result.problems())).isTrue();
+        assertThat(result.segments()).isGreaterThan(segmentsBefore);
+        assertThat(events).hasSize(100);
+    }
+
+    @Test
+    void verificationDetectsAlteredAndMissingSegments() throws Exception {
+        writeEvents(300, 0);
+        List<Path> segments = AuditSegments.list(directory);
+
+        // change one user id in the second segment
+        try (FileChannel channel = FileChannel.open(segments.get(1), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long offset = AuditSegments.HEADER_SIZE + 4 + 10;
+            ByteBuffer userId = ByteBuffer.allocate(8);
+            channel.read(userId, offset);
+            userId.flip();
+            channel.write(ByteBuffer.allocate(8).putLong(0, userId.getLong() + 1), offset);
+        }
+        AuditLogReader.ScanResult altered = new AuditLogReader(directory).scan(null, null, e -> true, true, e -> { });
+        assertThat(altered.problems()).singleElement().asString()
+                .contains(segments.get(1).getFileName().toString()).contains("hash chain broken");
+
+        Files.delete(segments.get(2));
+        AuditLogReader.ScanResult missing = new AuditLogReader(directory).scan(null, null, e -> true, true, e -> { });
+        assertThat(missing.problems()).anySatisfy(problem -> assertThat(problem).contains("missing"));
+    }
+
+    private void writeEvents(int count, int firstUserId) throws Exception {
+        AuditProperties properties = new AuditProperties();
+        properties.setDirectory(directory);
+        properties.setSegmentSize(DataSize.ofKilobytes(4));
+        properties.setBufferCapacity(1_024);
+        AuditLog auditLog = new AuditLog(properties, new SimpleMeterRegistry());
+        auditLog.start();
+        AuditEvent.Type[] types = AuditEvent.Type.values();
+        for (int i = firstUserId; i < firstUserId + count; i++) {
+            auditLog.record(types[i % 3], i % 3 == 0 ? AuditEvent.Outcome.UNKNOWN_ACCOUNT : AuditEvent.Outcome.OK,
+                    i, "user" + i + "@example.com");
+        }
+        auditLog.shutdown();
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.forgotpassword.bounce;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class BounceProcessorTest {
+
+    private static final String DSN = """
+            From: Mail Delivery System <MAILER-DAEMON@mx.example.net>
+            To: noreply@example.com
+            Date: Thu, 1 Oct 2026 08:05:00 +0000
+            Subject: Undelivered Mail Returned to Sender
+            MIME-Version: 1.0
+            Content-Type: multipart/report; report-type=delivery-status; boundary="b1"
+
+            --b1
+            Content-Type: text/plain
+
+            I'm sorry to have to inform you that your message could not be delivered.
+            From the desk of the postmaster
+            --b1
+            Content-Type: message/delivery-status
+
+            Reporting-MTA: dns; mx.example.net
+            Arrival-Date: Thu, 1 Oct 2026 08:00:00 +0000
+
+            Final-Recipient: rfc822; <Gone@Example.com>
+            Action: failed
+            Status: 5.1.1 (user unknown)
+            Last-Attempt-Date: Thu, 1 Oct 2026
+              08:01:30 +0000
+
+            Final-Recipient: rfc822; busy@example.com
+            Action: delayed
+            Status: 4.2.2
+            --b1--
+            """;
+
+    private static final String FAILED_RECIPIENTS_HEADER = """
+            From: MAILER-DAEMON@mx.example.org
+            To: noreply@example.com
+            Date: Thu, 1 Oct 2026 09:00:00 +0000
+            Subject: Delivery failure
+            X-Failed-Recipients: nobody@example.org
+
+            The following address failed: nobody@example.org
+            """;
+
+    private static final String AUTO_REPLY = """
+            From: holiday@example.com
+            Subject: Out of office
+
+            Back next week.
+            """;
+
+    @TempDir
+    Path dir;
+
+    private final SuppressionList suppressionList = mock(SuppressionList.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void maildirMessagesAreReadOnceAndPermanentFailuresSuppressed() throws Exception {
+        Path maildir = dir.resolve("bounces");
+        Files.createDirectories(maildir.resolve("tmp"));
+        Files.createDirectories(maildir.resolve("new"));
+        Files.writeString(maildir.resolve("new/1.dsn"), crlf(DSN));
+        Files.writeString(maildir.resolve("new/2.header"), crlf(FAILED_RECIPIENTS_HEADER));
+        Files.writeString(maildir.resolve("new/3.reply"), crlf(AUTO_REPLY));
+        Files.writeString(maildir.resolve("tmp/4.partial"), crlf(FAILED_RECIPIENTS_HEADER));
+
+        BounceProcessor processor = processor(maildir);
+        assertThat(processor.poll()).isEqualTo(3);
+        assertThat(processor.poll()).isZero();
+
+        verify(suppressionList).recordBounce(eq("gone@example.com"), eq("5.1.1"), any(LocalDateTime.class));
+        verify(suppressionList).recordBounce(eq("nobody@example.org"), eq("5.0.0"), any(LocalDateTime.class));
+        verify(suppressionList, never()).recordBounce(eq("busy@example.com"), anyString(), any());
+        assertThat(meterRegistry.counter("mail.bounces", "type", "permanent").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("mail.bounces", "type", "transient").count()).isEqualTo(1);
+        try (var seen = Files.list(maildir.resolve("cur"))) {
+            assertThat(seen.count()).isEqualTo(3);
+        }
+        assertThat(maildir.resolve("tmp/4.partial")).exists();
+    }
+
+    @Test
+    void bouncesAreDatedByTheMessageSoReReadingChangesNothing() throws Exception {
+        Path maildir = dir.resolve("bounces");
+        Files.createDirectories(maildir.resolve("tmp"));
+        Files.createDirectories(maildir.resolve("new"));
+        Files.writeString(maildir.resolve("new/1.dsn"), crlf(DSN));
+        Files.writeString(maildir.resolve("new/2.header"), crlf(FAILED_RECIPIENTS_HEADER));
+        Path undated = maildir.resolve("new/3.undated");
+        Files.writeString(undated, crlf(FAILED_RECIPIENTS_HEADER
+                .replace("Date: Thu, 1 Oct 2026 09:00:00 +0000\n", "")
+                .replace("nobody@example.org", "undated@example.org")));
+        LocalDateTime delivered = LocalDateTime.of(2026, 10, 1, 10, 0);
+        Files.setLastModifiedTime(undated, FileTime.from(delivered.atZone(ZoneId.systemDefault()).toInstant()));
+
+        BounceProcessor processor = processor(maildir);
+        processor.poll();
+
+        verify(suppressionList).recordBounce("gone@example.com", "5.1.1", utc("2026-10-01T08:01:30"));
+        verify(suppressionList).recordBounce("nobody@example.org", "5.0.0", utc("2026-10-01T09:00:00"));
+        // no date of its own: dated by its delivery to the mailbox
+        verify(suppressionList).recordBounce("undated@example.org", "5.0.0", delivered);
+
+        // read again, as after a failed poll: the same date, so SuppressionList sees a repeat
+        Path again = maildir.resolve("new/4.undated");
+        Files.copy(maildir.resolve("cur/3.undated:2,S"), again);
+        Files.setLastModifiedTime(again, FileTime.from(delivered.atZone(ZoneId.systemDefault()).toInstant()));
+        processor.poll();
+        verify(suppressionList, times(2)).recordBounce("undated@example.org", "5.0.0", delivered);
+    }
+
+    @Test
+    void undatedMboxMessagesAreDatedByTheirSeparatorLine() throws Exception {
+        Path mbox = dir.resolve("bounces.mbox");
+        Files.writeString(mbox, "From MAILER-DAEMON Thu Oct  1 10:00:00 2026\n" + FAILED_RECIPIENTS_HEADER
+                .replace("Date: Thu, 1 Oct 2026 09:00:00 +0000\n", "") + "\n");
+
+        processor(mbox).poll();
+
+        verify(suppressionList).recordBounce("nobody@example.org", "5.0.0", LocalDateTime.of(2026, 10, 1, 10, 0));
+    }
+
+    @Test
+    void mboxIsReadIncrementallyAndWaitsForCompleteMessages() throws Exception {
+        Path mbox = dir.resolve("bounces.mbox");
+        Files.writeString(mbox, "From MAILER-DAEMON Mon Oct 19 08:00:00 2026\n" + DSN + "\n"
+                + "From MAILER-DAEMON Mon Oct 19 08:00:01 2026\n" + FAILED_RECIPIENTS_HEADER.replace(
+                "The following", ">From the queue: the following"));
+        BounceProcessor processor = processor(mbox);
+
+        // the second message has no closing blank line yet
+        assertThat(processor.poll()).isEqualTo(1);
+        verify(suppressionList).recordBounce(eq("gone@example.com"), eq("5.1.1"), any(LocalDateTime.class));
+
+        Files.writeString(mbox, "\n", StandardOpenOption.APPEND);
+        assertThat(processor.poll()).isEqualTo(1);
+        verify(suppressionList).recordBounce(eq("nobody@example.org"), eq("5.0.0"), any(LocalDateTime.class));
+
+        Files.writeString(mbox, "From MAILER-DAEMON Mon Oct 19 08:00:02 2026\n" + AUTO_REPLY + "\n",
+                StandardOpenOption.APPEND);
+        assertThat(processor.poll()).isEqualTo(1);
+        verify(suppressionList, times(2)).recordBounce(anyString(), anyString(), any());
+
+        // rotated: read from the start
+        Files.writeString(mbox, "From MAILER-DAEMON Tue Oct 20 08:00:00 2026\n" + FAILED_RECIPIENTS_HEADER + "\n");
+        assertThat(processor.poll()).isEqualTo(1);
+        assertThat(Files.readString(dir.resolve("bounces.mbox.offset"), StandardCharsets.US_ASCII))
+                .isEqualTo(Long.toString(Files.size(mbox)));
+    }
+
+    private BounceProcessor processor(Path mailbox) {
+        BounceProperties properties = new BounceProperties();
+        properties.setMailbox(mailbox);
+        return new BounceProcessor(properties, suppressionList, meterRegistry);
+    }
+
+    private static LocalDateTime utc(String time) {
+        return LocalDateTime.parse(time).atOffset(ZoneOffset.UTC).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
+    private static String crlf(String message) {
+        return message.replace("\n", "\r\n");
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.forgotpassword.bounce;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuppressionListTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private SuppressionList suppressionList;
+
+    @BeforeEach
+    void setup() throws Exception {
+        dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "", true);
+        ScriptUtils.executeSqlScript(dataSource.getConnection(),
+                new ClassPathResource("db/migration/V6__email_suppression.sql"));
+        jdbc = new JdbcTemplate(dataSource);
+
+        BounceProperties properties = new BounceProperties();
+        properties.setSuppressFor(Duration.ofDays(7));
+        properties.setMaxSuppression(Duration.ofDays(20));
+        suppressionList = new SuppressionList(jdbc, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        suppressionList.stop();
+        dataSource.destroy();
+    }
+
+    @Test
+    void repeatedBouncesDoubleTheSuppressionUpToTheMaximum() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThat(suppressionList.recordBounce("Gone@Example.com", "5.1.1", now.minusHours(2))).isEqualTo(now.minusHours(2).plusDays(7));
+        assertThat(suppressionList.recordBounce("gone@example.com", "5.1.1", now.minusHours(1))).isEqualTo(now.minusHours(1).plusDays(14));
+        assertThat(suppressionList.recordBounce("gone@example.com", "5.1.1", now)).isEqualTo(now.plusDays(20));
+
+        assertThat(suppressionList.isSuppressed(" GONE@example.com")).isTrue();
+        assertThat(suppressionList.isSuppressed("other@example.com")).isFalse();
+        assertThat(meterRegistry.counter("mail.suppression.hits").count()).isEqualTo(1);
+        assertThat(jdbc.queryForObject("SELECT bounce_count FROM email_suppression WHERE email = 'gone@example.com'",
+                Integer.class)).isEqualTo(3);
+    }
+
+    @Test
+    void aBounceReadAgainIsNotCountedTwice() {
+        // bounce messages are dated to the second
+        LocalDateTime bouncedAt = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+        LocalDateTime until = suppressionList.recordBounce("gone@example.com", "5.1.1", bouncedAt);
+        assertThat(until).isEqualTo(bouncedAt.plusDays(7));
+        assertThat(suppressionList.recordBounce("gone@example.com", "5.1.1", bouncedAt)).isEqualTo(until);
+        // an older bounce arriving late was already covered by the later one
+        assertThat(suppressionList.recordBounce("gone@example.com", "5.1.1", bouncedAt.minusHours(1))).isEqualTo(until);
+
+        assertThat(jdbc.queryForObject("SELECT bounce_count FROM email_suppression WHERE email = 'gone@example.com'",
+                Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void suppressionDecays() {
+        LocalDateTime now = LocalDateTime.now();
+        // ended yesterday: sends go out again
+        suppressionList.recordBounce("lapsed@example.com", "5.1.1", now.minusDays(8));
+        // ended long enough ago to be forgotten: the next bounce is a first one again
+        suppressionList.recordBounce("forgotten@example.com", "5.1.1", now.minusDays(40));
+
+        assertThat(suppressionList.isSuppressed("lapsed@example.com")).isFalse();
+        assertThat(suppressionList.recordBounce("forgotten@example.com", "5.2.1", now)).isEqualTo(now.plusDays(7));
+        assertThat(suppressionList.recordBounce("lapsed@example.com", "5.1.1", now)).isEqualTo(now.plusDays(14));
+    }
+
+    @Test
+    void refreshRebuildsFromTheTable() {
+        LocalDateTime now = LocalDateTime.now();
+        suppressionList.recordBounce("old@example.com", "5.1.1", now.minusDays(60));
+        // written by another instance
+        jdbc.update("INSERT INTO email_suppression (email, bounce_count, first_bounce_at, last_bounce_at, suppressed_until) "
+                + "VALUES ('elsewhere@example.com', 1, ?, ?, ?)", now, now, now.plusDays(7));
+
+        suppressionList.refresh();
+
+        assertThat(suppressionList.isSuppressed("elsewhere@example.com")).isTrue();
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM email_suppression WHERE email = 'old@example.com'",
+                Integer.class)).isZero();
+        assertThat(meterRegistry.get("mail.suppression.size").gauge().value()).isEqualTo(1);
+    }
+}
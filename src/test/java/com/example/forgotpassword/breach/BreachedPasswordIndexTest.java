@@ -0,0 +1,127 @@
+package com.example.forgotpassword.breach;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BreachedPasswordIndexTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void sha1Dump_unsortedWithDuplicates_buildsSearchableIndex() throws Exception {
+        Path dump = dir.resolve("dump.txt");
+        Files.write(dump, List.of(
+                sha1Hex("Password1!") + ":52000",
+                sha1Hex("Summer2024!") + ":311",
+                sha1Hex("Password1!") + ":52000",
+                sha1Hex("Qwerty123$") + ":9"));
+
+        Path indexFile = dir.resolve("breached.idx");
+        long written = new BreachedPasswordIndexBuilder(BreachedPasswordIndex.HashAlgorithm.SHA1, false, 2)
+                .build(dump, indexFile);
+
+        BreachedPasswordIndex index = BreachedPasswordIndex.open(indexFile);
+        assertThat(written).isEqualTo(3);
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.contains("Password1!")).isTrue();
+        assertThat(index.contains("Summer2024!")).isTrue();
+        assertThat(index.contains("Qwerty123$")).isTrue();
+        assertThat(index.contains("C0rrect-Horse-Battery")).isFalse();
+    }
+
+    @Test
+    void interpolationSearch_agreesWithSetMembership() throws Exception {
+        Random random = new Random(42);
+        Set<Long> present = new HashSet<>();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            long value = random.nextLong();
+            present.add(value);
+            lines.add(HexFormat.of().toHexDigits(value) + "0000000000000000:1");
+        }
+        Path dump = dir.resolve("random.txt");
+        Files.write(dump, lines);
+
+        Path indexFile = dir.resolve("random.idx");
+        new BreachedPasswordIndexBuilder(BreachedPasswordIndex.HashAlgorithm.SHA1, false, 3_000)
+                .build(dump, indexFile);
+        BreachedPasswordIndex index = BreachedPasswordIndex.open(indexFile);
+
+        assertThat(index.size()).isEqualTo(present.size());
+        for (long value : present) {
+            assertThat(index.containsPrefix(value)).isTrue();
+        }
+        for (int i = 0; i < 20_000; i++) {
+            long probe = random.nextLong();
+            assertThat(index.containsPrefix(probe)).isEqualTo(present.contains(probe));
+        }
+        assertThat(index.containsPrefix(0L)).isEqualTo(present.contains(0L));
+        assertThat(index.containsPrefix(-1L)).isEqualTo(present.contains(-1L));
+    }
+
+    @Test
+    void ntlm_plaintextDump_matchesKnownHashes() throws Exception {
+        assertThat(HexFormat.of().formatHex(Md4.digest("abc".getBytes(StandardCharsets.US_ASCII))))
+                .isEqualTo("a448017aaf21d8525fc10ae87aa6729d");
+        assertThat(HexFormat.of().formatHex(Md4.digest("password".getBytes(StandardCharsets.UTF_16LE))))
+                .isEqualTo("8846f7eaee8fb117ad06bdd830b7586c");
+
+        Path dump = dir.resolve("plain.txt");
+        Files.write(dump, List.of("password", "letmein"));
+        Path indexFile = dir.resolve("ntlm.idx");
+        new BreachedPasswordIndexBuilder(BreachedPasswordIndex.HashAlgorithm.NTLM, true, 1024).build(dump, indexFile);
+
+        BreachedPasswordIndex index = BreachedPasswordIndex.open(indexFile);
+        assertThat(index.getAlgorithm()).isEqualTo(BreachedPasswordIndex.HashAlgorithm.NTLM);
+        assertThat(index.contains("password")).isTrue();
+        assertThat(index.contains("letmein")).isTrue();
+        assertThat(index.contains("Password")).isFalse();
+    }
+
+    @Test
+    void checker_picksUpReplacedIndexFile() throws Exception {
+        Path indexFile = dir.resolve("live.idx");
+        buildPlaintext(indexFile, "Password1!");
+
+        BreachedPasswordChecker checker = new BreachedPasswordChecker(indexFile, Duration.ofHours(1));
+        checker.start();
+        try {
+            assertThat(checker.isBreached("Password1!")).isTrue();
+            assertThat(checker.isBreached("Winter2025!")).isFalse();
+
+            buildPlaintext(indexFile, "Winter2025!");
+            checker.reloadIfChanged();
+
+            assertThat(checker.isBreached("Winter2025!")).isTrue();
+            assertThat(checker.isBreached("Password1!")).isFalse();
+        } finally {
+            checker.stop();
+        }
+    }
+
+    private void buildPlaintext(Path indexFile, String... passwords) throws Exception {
+        Path dump = Files.createTempFile(dir, "dump", ".txt");
+        Files.write(dump, List.of(passwords));
+        new BreachedPasswordIndexBuilder(BreachedPasswordIndex.HashAlgorithm.SHA1, true, 1024).build(dump, indexFile);
+    }
+
+    private static String sha1Hex(String password) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().withUpperCase().formatHex(digest);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.forgotpassword.bulkhead;
+
+import com.example.forgotpassword.bulkhead.WorkloadBulkheads.Admission;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WorkloadBulkheadsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void clearContext() {
+        WorkloadContext.clear();
+    }
+
+    @Test
+    void eachWorkloadIsCappedAtItsOwnBudget() {
+        BulkheadProperties properties = properties(2, 5, 0);
+        WorkloadBulkheads bulkheads = new WorkloadBulkheads(properties, meterRegistry);
+
+        assertThat(bulkheads.tryEnter(Workload.RESET)).isEqualTo(Admission.ADMITTED);
+        assertThat(bulkheads.tryEnter(Workload.RESET)).isEqualTo(Admission.ADMITTED);
+        assertThat(bulkheads.tryEnter(Workload.RESET)).isEqualTo(Admission.FULL);
+
+        // a full reset bulkhead leaves login untouched
+        assertThat(bulkheads.tryEnter(Workload.LOGIN)).isEqualTo(Admission.ADMITTED);
+
+        bulkheads.exit(Workload.RESET);
+        assertThat(bulkheads.tryEnter(Workload.RESET)).isEqualTo(Admission.ADMITTED);
+        assertThat(meterRegistry.get("bulkhead.rejected").tag("workload", "reset").tag("reason", "full")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("bulkhead.utilization").tag("workload", "reset").gauge().value())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void resetIsShedFirstWhenTotalLoadIsHigh() {
+        BulkheadProperties properties = properties(10, 10, 4);
+        WorkloadBulkheads bulkheads = new WorkloadBulkheads(properties, meterRegistry);
+
+        bulkheads.tryEnter(Workload.RESET);
+        for (int i = 0; i < 3; i++) {
+            assertThat(bulkheads.tryEnter(Workload.LOGIN)).isEqualTo(Admission.ADMITTED);
+        }
+
+        assertThat(bulkheads.tryEnter(Workload.RESET)).isEqualTo(Admission.SHED_FOR_PRIORITY);
+        assertThat(bulkheads.tryEnter(Workload.LOGIN)).isEqualTo(Admission.ADMITTED);
+        assertThat(bulkheads.tryEnter(Workload.DEFAULT)).isEqualTo(Admission.ADMITTED);
+
+        bulkheads.exit(Workload.LOGIN);
+        bulkheads.exit(Workload.LOGIN);
+        bulkheads.exit(Workload.DEFAULT);
+        assertThat(bulkheads.tryEnter(Workload.RESET)).isEqualTo(Admission.ADMITTED);
+        assertThat(bulkheads.inFlight(Workload.RESET)).isEqualTo(2);
+    }
+
+    @Test
+    void requestsAreClassifiedByPathAndSession() {
+        assertThat(BulkheadFilter.classify(new MockHttpServletRequest("POST", "/forgot-password")))
+                .isEqualTo(Workload.RESET);
+        assertThat(BulkheadFilter.classify(new MockHttpServletRequest("GET", "/reset-password")))
+                .isEqualTo(Workload.RESET);
+        assertThat(BulkheadFilter.classify(new MockHttpServletRequest("POST", "/api/v1/password/reset")))
+                .isEqualTo(Workload.RESET);
+        assertThat(BulkheadFilter.classify(new MockHttpServletRequest("POST", "/login")))
+                .isEqualTo(Workload.LOGIN);
+        assertThat(BulkheadFilter.classify(new MockHttpServletRequest("GET", "/admin/abuse/heavy-hitters")))
+                .isEqualTo(Workload.DEFAULT);
+
+        MockHttpServletRequest signedIn = new MockHttpServletRequest("GET", "/home");
+        signedIn.getSession().setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+                new SecurityContextImpl());
+        assertThat(BulkheadFilter.classify(signedIn)).isEqualTo(Workload.LOGIN);
+    }
+
+    @Test
+    void connectionsComeFromTheCurrentWorkloadsPool() throws Exception {
+        DataSource login = pool();
+        DataSource reset = pool();
+        DataSource defaults = pool();
+        WorkloadRoutingDataSource routing = new WorkloadRoutingDataSource(
+                Map.of(Workload.LOGIN, login, Workload.RESET, reset, Workload.DEFAULT, defaults));
+        routing.afterPropertiesSet();
+
+        assertThat(routing.getConnection()).isSameAs(defaults.getConnection());
+        WorkloadContext.set(Workload.RESET);
+        assertThat(routing.getConnection()).isSameAs(reset.getConnection());
+        WorkloadContext.set(Workload.LOGIN);
+        assertThat(routing.getConnection()).isSameAs(login.getConnection());
+    }
+
+    private static BulkheadProperties properties(int resetMax, int loginMax, int shedResetAbove) {
+        BulkheadProperties properties = new BulkheadProperties();
+        properties.getReset().setMaxConcurrent(resetMax);
+        properties.getLogin().setMaxConcurrent(loginMax);
+        properties.setShedResetAbove(shedResetAbove);
+        return properties;
+    }
+
+    private static DataSource pool() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(mock(Connection.class));
+        return dataSource;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.forgotpassword.controller;
+
+import com.example.forgotpassword.shard.OutstandingReset;
+import com.example.forgotpassword.shard.ResetFilter;
+import com.example.forgotpassword.shard.ShardedUserQueries;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class AdminResetControllerTest {
+
+    private final ShardedUserQueries queries = mock(ShardedUserQueries.class);
+    private final AdminResetController controller = new AdminResetController(queries, new ObjectMapper());
+
+    @Test
+    void csvFieldsThatLookLikeFormulasAreNeutralised() throws Exception {
+        LocalDateTime expiry = LocalDateTime.of(2026, 10, 1, 12, 0);
+        doAnswer(invocation -> {
+            Consumer<OutstandingReset> sink = invocation.getArgument(2);
+            sink.accept(new OutstandingReset(1, 0, "=HYPERLINK(\"http://evil\")@example.com", "-2+3", expiry, false));
+            sink.accept(new OutstandingReset(2, 0, "bob@example.com", "bob", expiry, true));
+            return 2L;
+        }).when(queries).streamResets(any(), anyLong(), any());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.list(ResetFilter.Status.ALL, null, null, null, null, null, 10, "csv", response);
+
+        assertThat(response.getContentAsString()).isEqualTo("""
+                id,shard,email,username,reset_token_expiry,expired
+                1,0,"'=HYPERLINK(""http://evil"")@example.com",'-2+3,2026-10-01T12:00,false
+                2,0,bob@example.com,bob,2026-10-01T12:00,true
+                """);
+    }
+
+    @Test
+    void afterIdWithoutAfterExpiryIsRejected() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.list(ResetFilter.Status.ALL, null, null, null, null, 42L, 10, "ndjson", response);
+
+        assertThat(response.getStatus()).isEqualTo(400);
+        verifyNoInteractions(queries);
+    }
+}
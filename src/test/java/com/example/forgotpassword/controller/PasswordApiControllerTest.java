@@ -0,0 +1,120 @@
+package com.example.forgotpassword.controller;
+
+import com.example.forgotpassword.service.BackgroundPasswordResets;
+import com.example.forgotpassword.service.PasswordResetService;
+import com.example.forgotpassword.service.PasswordReuseException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@AutoConfigureMockMvc(addFilters = false)
+@WebMvcTest(PasswordApiController.class)
+class PasswordApiControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PasswordResetService passwordResetService;
+
+    @MockBean
+    private BackgroundPasswordResets backgroundPasswordResets;
+
+    @Test
+    void forgotAnswersTheSameForUnknownAccounts() throws Exception {
+        when(backgroundPasswordResets.submit("nobody@example.com", "127.0.0.1")).thenReturn(true);
+
+        mockMvc.perform(post("/api/v1/password/forgot")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"nobody@example.com\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(content().string(""))
+                .andExpect(request().sessionAttributeDoesNotExist("org.springframework.web.servlet.support.SessionFlashMapManager.FLASH_MAPS"));
+
+        verify(backgroundPasswordResets).submit("nobody@example.com", "127.0.0.1");
+        verifyNoInteractions(passwordResetService);
+    }
+
+    @Test
+    void forgotIsOnlyRefusedWhenTheBackgroundQueueIsFull() throws Exception {
+        when(backgroundPasswordResets.submit("user@example.com", "127.0.0.1")).thenReturn(false);
+
+        mockMvc.perform(post("/api/v1/password/forgot")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"user@example.com\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"))
+                .andExpect(jsonPath("$.error").value("busy"));
+    }
+
+    @Test
+    void forgotRejectsAnInvalidEmailWithFieldErrors() throws Exception {
+        mockMvc.perform(post("/api/v1/password/forgot")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"not-an-email\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("invalid_request"))
+                .andExpect(jsonPath("$.fields.email").isNotEmpty());
+
+        verifyNoInteractions(passwordResetService, backgroundPasswordResets);
+
+        mockMvc.perform(post("/api/v1/password/forgot")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("invalid_request"));
+    }
+
+    @Test
+    void invalidTokensAreCacheableButValidOnesAreNot() throws Exception {
+        when(passwordResetService.validateResetToken("bad")).thenReturn(false);
+        when(passwordResetService.validateResetToken("good")).thenReturn(true);
+
+        mockMvc.perform(get("/api/v1/password/validate").param("token", "bad"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().string("Cache-Control", "max-age=3600, private"))
+                .andExpect(content().json("{\"valid\":false}"));
+        mockMvc.perform(get("/api/v1/password/validate").param("token", "good"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(content().json("{\"valid\":true}"));
+    }
+
+    @Test
+    void resetMapsOutcomesToStatusCodes() throws Exception {
+        when(passwordResetService.resetPassword("good", "Password1!")).thenReturn(true);
+        when(passwordResetService.resetPassword("bad", "Password1!")).thenReturn(false);
+        when(passwordResetService.resetPassword("reused", "Password1!")).thenThrow(new PasswordReuseException(5));
+
+        mockMvc.perform(post("/api/v1/password/reset")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"token\":\"good\",\"password\":\"Password1!\"}"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(post("/api/v1/password/reset")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"token\":\"bad\",\"password\":\"Password1!\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json("{\"error\":\"invalid_token\"}", true));
+        mockMvc.perform(post("/api/v1/password/reset")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"token\":\"reused\",\"password\":\"Password1!\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("password_reused"));
+        mockMvc.perform(post("/api/v1/password/reset")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"token\":\"good\",\"password\":\"Password1!\",\"confirmPassword\":\"Other1!\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.fields.confirmPassword").value("Passwords do not match."));
+    }
+}
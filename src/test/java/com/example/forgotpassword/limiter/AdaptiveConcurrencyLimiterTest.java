@@ -0,0 +1,77 @@
+package com.example.forgotpassword.limiter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit) {
+        LimiterProperties properties = new LimiterProperties();
+        properties.setInitialLimit(initialLimit);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(100);
+        return new AdaptiveConcurrencyLimiter(properties, registry);
+    }
+
+    @Test
+    void requestsBeyondTheLimitAreShed() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2);
+
+        AdaptiveConcurrencyLimiter.Permit first = limiter.tryAcquire();
+        AdaptiveConcurrencyLimiter.Permit second = limiter.tryAcquire();
+
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(limiter.tryAcquire()).isNull();
+        assertThat(registry.get("limiter.requests").tag("outcome", "rejected").counter().count()).isEqualTo(1);
+
+        limiter.release(first, false);
+        assertThat(limiter.tryAcquire()).isNotNull();
+    }
+
+    @Test
+    void limitGrowsWhileLatencyHoldsAndShrinksWhenItRises() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+        long fast = TimeUnit.MILLISECONDS.toNanos(10);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(fast, limiter.getLimit(), false);
+        }
+        int grown = limiter.getLimit();
+        assertThat(grown).isGreaterThan(20);
+
+        // a backend slows down fourfold
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(fast * 4, limiter.getLimit(), false);
+        }
+        assertThat(limiter.getLimit()).isLessThan(grown / 2);
+    }
+
+    @Test
+    void idleCapacityDoesNotInflateTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(TimeUnit.MILLISECONDS.toNanos(10), 1, false);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void failuresShrinkTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(50);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(TimeUnit.MILLISECONDS.toNanos(10), 50, true);
+        }
+
+        assertThat(limiter.getLimit()).isLessThan(35);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.forgotpassword.limiter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Overload simulation: far more clients than the backend (eight "connections", 20 ms per
+ * request) can serve, each giving up on a request after 500 ms. Goodput is the rate of
+ * requests answered within that deadline, with the limiter in front and without it.
+ */
+@Tag("benchmark")
+class ConcurrencyLimitLoadTest {
+
+    private static final int CLIENTS = 200;
+    private static final int BACKEND_CONNECTIONS = 8;
+    private static final Duration SERVICE_TIME = Duration.ofMillis(20);
+    private static final Duration CLIENT_DEADLINE = Duration.ofMillis(500);
+    private static final Duration RUN_TIME = Duration.ofSeconds(10);
+
+    @Test
+    void goodputUnderOverload() throws Exception {
+        Result unprotected = run(false);
+        Result limited = run(true);
+
+        System.out.printf("Without limiter: goodput %.0f/s, late %.0f/s%n", unprotected.goodput(), unprotected.late());
+        System.out.printf("With limiter:    goodput %.0f/s, late %.0f/s, shed %.0f/s%n",
+                limited.goodput(), limited.late(), limited.shed());
+    }
+
+    private Result run(boolean withLimiter) throws Exception {
+        Semaphore connections = new Semaphore(BACKEND_CONNECTIONS, true);
+        FilterChain backend = (request, response) -> {
+            try {
+                connections.acquire();
+                try {
+                    Thread.sleep(SERVICE_TIME.toMillis());
+                } finally {
+                    connections.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(
+                new AdaptiveConcurrencyLimiter(new LimiterProperties(), new SimpleMeterRegistry()),
+                new LimiterProperties());
+
+        AtomicLong good = new AtomicLong();
+        AtomicLong late = new AtomicLong();
+        AtomicLong shed = new AtomicLong();
+        long end = System.nanoTime() + RUN_TIME.toNanos();
+
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        for (int c = 0; c < CLIENTS; c++) {
+            clients.execute(() -> {
+                while (System.nanoTime() < end) {
+                    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/forgot-password");
+                    MockHttpServletResponse response = new MockHttpServletResponse();
+                    long start = System.nanoTime();
+                    try {
+                        if (withLimiter) {
+                            filter.doFilter(request, response, backend);
+                        } else {
+                            backend.doFilter(request, response);
+                        }
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    long elapsed = System.nanoTime() - start;
+
+                    if (response.getStatus() == 503) {
+                        shed.incrementAndGet();
+                        sleepQuietly(50);
+                    } else if (elapsed <= CLIENT_DEADLINE.toNanos()) {
+                        good.incrementAndGet();
+                    } else {
+                        late.incrementAndGet();
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(RUN_TIME.toSeconds() + 30, TimeUnit.SECONDS);
+
+        double seconds = RUN_TIME.toMillis() / 1000.0;
+        return new Result(good.get() / seconds, late.get() / seconds, shed.get() / seconds);
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Result(double goodput, double late, double shed) {
+    }
+}
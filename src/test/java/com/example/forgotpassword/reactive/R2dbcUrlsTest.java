@@ -0,0 +1,31 @@
+package com.example.forgotpassword.reactive;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class R2dbcUrlsTest {
+
+    @Test
+    void mysql_dropsConnectorJOptions() {
+        assertThat(R2dbcUrls.fromJdbc("jdbc:mysql://db1:3306/forgot_password?rewriteBatchedStatements=true"))
+                .isEqualTo("r2dbc:mysql://db1:3306/forgot_password");
+        assertThat(R2dbcUrls.fromJdbc("jdbc:mysql://localhost/forgot_password"))
+                .isEqualTo("r2dbc:mysql://localhost/forgot_password");
+    }
+
+    @Test
+    void h2_keepsSettingsAsQueryOptions() {
+        assertThat(R2dbcUrls.fromJdbc("jdbc:h2:mem:test;MODE=MySQL;DB_CLOSE_DELAY=-1"))
+                .isEqualTo("r2dbc:h2:mem:///test?MODE=MySQL&DB_CLOSE_DELAY=-1");
+        assertThat(R2dbcUrls.fromJdbc("jdbc:h2:file:/var/data/db;AUTO_SERVER=TRUE"))
+                .isEqualTo("r2dbc:h2:file:////var/data/db?AUTO_SERVER=TRUE");
+    }
+
+    @Test
+    void unknownDriver_isRejected() {
+        assertThatThrownBy(() -> R2dbcUrls.fromJdbc("jdbc:postgresql://localhost/db"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.forgotpassword.reactive;
+
+import com.example.forgotpassword.abuse.AbuseProperties;
+import com.example.forgotpassword.abuse.ResetTrafficMonitor;
+import com.example.forgotpassword.limiter.AdaptiveConcurrencyLimiter;
+import com.example.forgotpassword.limiter.LimiterProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactiveRequestFiltersTest {
+
+    @Test
+    void abuseFilterCountsFormEmailsAndLeavesTheFormForTheController() {
+        AbuseProperties properties = new AbuseProperties();
+        properties.setExemptAddresses(List.of());
+        properties.getEmail().setBlockAt(2);
+        ReactiveResetAbuseFilter filter = new ReactiveResetAbuseFilter(
+                new ResetTrafficMonitor(properties, new SimpleMeterRegistry()), properties);
+
+        for (int i = 0; i < 2; i++) {
+            MockServerWebExchange exchange = forgot("Victim@Example.com", "10.0.0." + i);
+            AtomicInteger passed = new AtomicInteger();
+            filter.filter(exchange, e -> e.getFormData()
+                    .doOnNext(form -> {
+                        assertThat(form.getFirst("email")).isEqualTo("Victim@Example.com");
+                        passed.incrementAndGet();
+                    })
+                    .then()).block(Duration.ofSeconds(5));
+            assertThat(passed).hasValue(1);
+        }
+
+        MockServerWebExchange blocked = forgot("victim@example.com", "10.0.0.9");
+        filter.filter(blocked, e -> Mono.error(new AssertionError("not blocked"))).block(Duration.ofSeconds(5));
+        assertThat(blocked.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(blocked.getResponse().getHeaders().getFirst("Retry-After")).isNotBlank();
+    }
+
+    @Test
+    void limiterShedsAboveTheLimitAndReleasesWhenTheResponseEnds() {
+        LimiterProperties properties = new LimiterProperties();
+        properties.setInitialLimit(1);
+        properties.setMinLimit(1);
+        properties.setMaxLimit(1);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties, new SimpleMeterRegistry());
+        ReactiveConcurrencyLimitFilter filter = new ReactiveConcurrencyLimitFilter(limiter, properties);
+
+        Sinks.Empty<Void> slow = Sinks.empty();
+        Mono<Void> inFlight = filter.filter(forgot("user@example.com", "10.0.0.1"), e -> slow.asMono());
+        inFlight.subscribe();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+
+        MockServerWebExchange shed = forgot("user@example.com", "10.0.0.2");
+        filter.filter(shed, e -> Mono.error(new AssertionError("not shed"))).block(Duration.ofSeconds(5));
+        assertThat(shed.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(shed.getResponse().getHeaders().getFirst("Retry-After")).isEqualTo("1");
+
+        slow.tryEmitEmpty();
+        assertThat(limiter.getInFlight()).isZero();
+
+        // static resources are not limited
+        ServerWebExchange css = MockServerWebExchange.from(MockServerHttpRequest.get("/css/style.css"));
+        filter.filter(css, e -> Mono.empty()).block(Duration.ofSeconds(5));
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    private static MockServerWebExchange forgot(String email, String clientIp) {
+        return MockServerWebExchange.from(MockServerHttpRequest.post("/forgot-password")
+                .remoteAddress(new InetSocketAddress(clientIp, 40_000))
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .body("email=" + email));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.forgotpassword.reactive;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactiveUserRepositoryTest {
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private ReactiveUserRepository repository;
+
+    @BeforeEach
+    void setup() throws Exception {
+        // the R2DBC pool opens the same in-memory database through the URL derived from this one
+        String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        dataSource = new SingleConnectionDataSource(url, "sa", "", true);
+        ScriptUtils.executeSqlScript(dataSource.getConnection(), new ClassPathResource("db/users-schema.sql"));
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE password_history (id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT NOT NULL,"
+                + " password VARCHAR(255) NOT NULL, created_at TIMESTAMP NOT NULL)");
+        jdbc.update("INSERT INTO users (email, password, username) VALUES ('ann@example.com', 'hash-0', 'ann')");
+
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(R2dbcUrls.fromJdbc(url)).mutate()
+                .option(ConnectionFactoryOptions.USER, "sa")
+                .option(ConnectionFactoryOptions.PASSWORD, "")
+                .build();
+        repository = new ReactiveUserRepository(List.of(new ConnectionPool(
+                ConnectionPoolConfiguration.builder(ConnectionFactories.get(options)).maxSize(4).build())));
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+        dataSource.destroy();
+    }
+
+    @Test
+    void resetToken_isFoundUntilAPasswordResetUsesIt() {
+        LocalDateTime expiry = LocalDateTime.now().plusHours(1).withNano(0);
+        ReactiveUser ann = repository.findByEmail(0, "ann@example.com").block();
+        repository.updateResetToken(0, ann.id(), "0.token", expiry).block();
+
+        ReactiveUser byToken = repository.findByResetToken(0, "0.token").block();
+        assertThat(byToken.email()).isEqualTo("ann@example.com");
+        assertThat(byToken.resetTokenExpiry()).isEqualTo(expiry);
+        assertThat(byToken.tokenExpired()).isFalse();
+
+        // two resets racing with the same link: only one changes the password
+        List<Boolean> outcomes = Flux.merge(
+                        repository.updatePasswordIfToken(0, ann.id(), "0.token", "hash-1"),
+                        repository.updatePasswordIfToken(0, ann.id(), "0.token", "hash-2"))
+                .collectList().block();
+        assertThat(outcomes).containsExactlyInAnyOrder(true, false);
+        assertThat(repository.findByResetToken(0, "0.token").blockOptional()).isEmpty();
+        assertThat(jdbc.queryForObject("SELECT reset_token_expiry FROM users", LocalDateTime.class)).isNull();
+    }
+
+    @Test
+    void rememberPassword_keepsNewestEntries() {
+        long id = repository.findByEmail(0, "ann@example.com").block().id();
+        for (int i = 1; i <= 6; i++) {
+            repository.inTransaction(0, repository.rememberPassword(0, id, "hash-" + i, 4).then(Mono.just(true))).block();
+        }
+
+        assertThat(repository.findRecentPasswords(0, id, 10).collectList().block())
+                .containsExactly("hash-6", "hash-5", "hash-4", "hash-3");
+        assertThat(repository.findRecentPasswords(0, id, 2).collectList().block())
+                .containsExactly("hash-6", "hash-5");
+    }
+
+    @Test
+    void unknownEmail_isEmpty() {
+        assertThat(repository.findByEmail(0, "nobody@example.com").blockOptional()).isEmpty();
+    }
+}
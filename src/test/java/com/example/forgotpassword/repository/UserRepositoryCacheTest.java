@@ -0,0 +1,119 @@
+package com.example.forgotpassword.repository;
+
+import com.example.forgotpassword.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the SQL statements a forgot-password lookup costs. With a derived
+ * {@code findByEmail} query every lookup was one statement; through the natural-id and
+ * second-level caches a warm lookup is none.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserRepositoryCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private Statistics statistics;
+    private TransactionTemplate tx;
+    private UserCacheEvictor evictor;
+
+    @BeforeEach
+    void setup() {
+        tx = new TransactionTemplate(transactionManager);
+        evictor = new UserCacheEvictor(entityManagerFactory);
+        userRepository.deleteAll();
+        evictor.evictAll();
+
+        User user = new User();
+        user.setEmail("alice@example.com");
+        user.setPassword("hash");
+        user.setUsername("alice");
+        userRepository.save(user);
+        evictor.evictAll();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void repeatedLookupByEmail_isServedFromCache() {
+        lookup("alice@example.com");
+        long coldStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        for (int i = 0; i < 5; i++) {
+            assertThat(lookup("alice@example.com").getUsername()).isEqualTo("alice");
+        }
+
+        assertThat(coldStatements).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getNaturalIdCacheHitCount()).isEqualTo(5);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(5);
+    }
+
+    @Test
+    void tokenUpdateThroughTheEntity_isVisibleToTheNextLookup() {
+        lookup("alice@example.com");
+
+        tx.executeWithoutResult(status -> {
+            User user = userRepository.findByEmail("alice@example.com").orElseThrow();
+            user.setResetToken("token-1");
+            user.setResetTokenExpiry(LocalDateTime.now().plusHours(1));
+        });
+
+        statistics.clear();
+        assertThat(lookup("alice@example.com").getResetToken()).isEqualTo("token-1");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void jpqlPasswordUpdate_invalidatesCachedEntity() {
+        lookup("alice@example.com");
+
+        userRepository.updatePasswordByEmail("alice@example.com", "new-hash");
+
+        assertThat(lookup("alice@example.com").getPassword()).isEqualTo("new-hash");
+    }
+
+    @Test
+    void jdbcWrite_isVisibleAfterEviction() {
+        User cached = lookup("alice@example.com");
+
+        jdbc.update("UPDATE users SET reset_token = 'bulk-token' WHERE id = ?", cached.getId());
+        assertThat(lookup("alice@example.com").getResetToken()).isNull();
+
+        evictor.evict(List.of(cached.getId()));
+        assertThat(lookup("alice@example.com").getResetToken()).isEqualTo("bulk-token");
+    }
+
+    private User lookup(String email) {
+        return tx.execute(status -> userRepository.findByEmail(email).orElseThrow());
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.forgotpassword.security;
+
+import com.example.forgotpassword.repository.UserCredentials;
+import com.example.forgotpassword.repository.UserRepository;
+import com.example.forgotpassword.service.PasswordChangedEvent;
+import com.example.forgotpassword.shard.ShardRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TimedPasswordAuthenticationProviderTest {
+
+    private final BCryptPasswordEncoder weakEncoder = new BCryptPasswordEncoder(4);
+    private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(5);
+
+    private UserRepository userRepository;
+    private DatabaseUserDetailsService userDetailsService;
+    private TimedPasswordAuthenticationProvider provider;
+
+    @BeforeEach
+    void setup() {
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findCredentialsByEmail(anyString())).thenReturn(Optional.empty());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        userDetailsService = new DatabaseUserDetailsService(userRepository, new ShardRouter(1), Duration.ofMinutes(1), 100, registry);
+        provider = new TimedPasswordAuthenticationProvider(userDetailsService, encoder, registry);
+    }
+
+    @Test
+    void validCredentials_authenticateWithRoleAndHitCacheOnSecondLogin() {
+        givenUser("alice@example.com", encoder.encode("Secret1!"), true, null);
+
+        Authentication result = provider.authenticate(login("Alice@Example.com", "Secret1!"));
+        provider.authenticate(login("alice@example.com", "Secret1!"));
+
+        assertThat(result.getName()).isEqualTo("alice@example.com");
+        assertThat(result.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_USER");
+        verify(userRepository, times(1)).findCredentialsByEmail("alice@example.com");
+        assertThat(provider.averageVerifyNanos()).isPositive();
+    }
+
+    @Test
+    void wrongPassword_isRejected() {
+        givenUser("alice@example.com", encoder.encode("Secret1!"), true, "ADMIN");
+
+        assertThatThrownBy(() -> provider.authenticate(login("alice@example.com", "nope")))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void unknownUser_isRejectedWithoutLeakingWhichPartWasWrong() {
+        assertThatThrownBy(() -> provider.authenticate(login("ghost@example.com", "whatever")))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Bad credentials");
+        // the unknown-user path waited instead of hashing but still seeded the average
+        assertThat(provider.averageVerifyNanos()).isPositive();
+    }
+
+    @Test
+    void disabledAccount_isRejected() {
+        givenUser("bob@example.com", encoder.encode("Secret1!"), false, null);
+
+        assertThatThrownBy(() -> provider.authenticate(login("bob@example.com", "Secret1!")))
+                .isInstanceOf(DisabledException.class);
+    }
+
+    @Test
+    void weakerStoredHash_isUpgradedAfterSuccessfulLogin() {
+        givenUser("carol@example.com", weakEncoder.encode("Secret1!"), true, null);
+
+        provider.authenticate(login("carol@example.com", "Secret1!"));
+
+        verify(userRepository).updatePasswordByEmail(eq("carol@example.com"),
+                argThat(hash -> hash.startsWith("$2a$05$") && encoder.matches("Secret1!", hash)));
+    }
+
+    @Test
+    void passwordChange_evictsCachedUser() {
+        givenUser("dave@example.com", encoder.encode("Secret1!"), true, null);
+        userDetailsService.loadUserByUsername("dave@example.com");
+
+        userDetailsService.onPasswordChanged(new PasswordChangedEvent("dave@example.com"));
+        userDetailsService.loadUserByUsername("dave@example.com");
+
+        verify(userRepository, times(2)).findCredentialsByEmail("dave@example.com");
+    }
+
+    private void givenUser(String email, String hash, boolean enabled, String role) {
+        UserCredentials credentials = mock(UserCredentials.class);
+        when(credentials.getEmail()).thenReturn(email);
+        when(credentials.getPassword()).thenReturn(hash);
+        when(credentials.isEnabled()).thenReturn(enabled);
+        when(credentials.getRole()).thenReturn(role);
+        when(userRepository.findCredentialsByEmail(email)).thenReturn(Optional.of(credentials));
+    }
+
+    private static UsernamePasswordAuthenticationToken login(String username, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(username, password);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.forgotpassword.service;
+
+import com.example.forgotpassword.bulkhead.Workload;
+import com.example.forgotpassword.bulkhead.WorkloadContext;
+import com.example.forgotpassword.bulkhead.WorkloadRoutingDataSource;
+import jakarta.mail.MessagingException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BackgroundPasswordResetsTest {
+
+    private final PasswordResetService passwordResetService = mock(PasswordResetService.class);
+    private final BackgroundPasswordResets resets = new BackgroundPasswordResets(passwordResetService, 1, 1);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        resets.shutdown();
+    }
+
+    @Test
+    void aFailedEmailIsOnlyLogged() throws Exception {
+        when(passwordResetService.initiatePasswordReset("user@example.com", "10.0.0.1"))
+                .thenThrow(new MessagingException("SMTP down"));
+
+        assertThat(resets.submit("user@example.com", "10.0.0.1")).isTrue();
+        verify(passwordResetService, timeout(5_000)).initiatePasswordReset("user@example.com", "10.0.0.1");
+
+        // the worker survived the failure
+        when(passwordResetService.initiatePasswordReset("next@example.com", "10.0.0.1")).thenReturn(true);
+        assertThat(resets.submit("next@example.com", "10.0.0.1")).isTrue();
+        verify(passwordResetService, timeout(5_000)).initiatePasswordReset("next@example.com", "10.0.0.1");
+    }
+
+    @Test
+    void resetsUseThePoolOfTheRequestThatSubmittedThem() throws Exception {
+        DataSource resetPool = mock(DataSource.class);
+        DataSource defaultPool = mock(DataSource.class);
+        WorkloadRoutingDataSource dataSource = new WorkloadRoutingDataSource(Map.of(
+                Workload.RESET, resetPool, Workload.LOGIN, mock(DataSource.class), Workload.DEFAULT, defaultPool));
+        when(passwordResetService.initiatePasswordReset(anyString(), anyString())).thenAnswer(invocation -> {
+            dataSource.getConnection();
+            return true;
+        });
+
+        WorkloadContext.set(Workload.RESET);
+        try {
+            assertThat(resets.submit("user@example.com", "10.0.0.1")).isTrue();
+        } finally {
+            WorkloadContext.clear();
+        }
+        verify(resetPool, timeout(5_000)).getConnection();
+
+        // the worker thread does not keep it for the next reset
+        assertThat(resets.submit("other@example.com", "10.0.0.1")).isTrue();
+        verify(defaultPool, timeout(5_000)).getConnection();
+        verify(resetPool).getConnection();
+    }
+
+    @Test
+    void aFullQueueIsRefused() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(passwordResetService.initiatePasswordReset(anyString(), anyString())).thenAnswer(invocation -> {
+            running.countDown();
+            release.await();
+            return true;
+        });
+
+        assertThat(resets.submit("a@example.com", "10.0.0.1")).isTrue();
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(resets.submit("b@example.com", "10.0.0.1")).isTrue(); // queued
+        assertThat(resets.submit("c@example.com", "10.0.0.1")).isFalse();
+        release.countDown();
+    }
+}
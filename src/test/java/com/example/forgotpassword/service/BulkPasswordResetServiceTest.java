@@ -0,0 +1,186 @@
+package com.example.forgotpassword.service;
+
+import com.example.forgotpassword.entity.BulkResetJob;
+import com.example.forgotpassword.repository.BulkResetJobRepository;
+import com.example.forgotpassword.repository.UserCacheEvictor;
+import com.example.forgotpassword.shard.ShardRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BulkPasswordResetServiceTest {
+
+    @TempDir
+    Path spoolDir;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbc;
+    private final List<OutboundResetEmail> sent = new ArrayList<>();
+    private final AtomicReference<BulkResetJob> storedJob = new AtomicReference<>();
+    private BulkPasswordResetService service;
+
+    @BeforeEach
+    void setup() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("db/users-schema.sql")
+                .build();
+        jdbc = new JdbcTemplate(database);
+        for (int i = 1; i <= 7; i++) {
+            String domain = i % 2 == 0 ? "corp.example" : "mail.example";
+            jdbc.update("INSERT INTO users (email, password, username) VALUES (?, 'x', ?)",
+                    "user" + i + "@" + domain, "user" + i);
+        }
+
+        DomainMailScheduler scheduler = mock(DomainMailScheduler.class);
+        when(scheduler.submit(any())).thenAnswer(inv -> {
+            sent.add(inv.getArgument(0));
+            return CompletableFuture.completedFuture(null);
+        });
+
+        BulkResetJobRepository jobRepository = mock(BulkResetJobRepository.class);
+        when(jobRepository.save(any())).thenAnswer(inv -> {
+            BulkResetJob job = inv.getArgument(0);
+            if (job.getId() == null) {
+                job.setId(1L);
+            }
+            storedJob.set(job);
+            return job;
+        });
+        when(jobRepository.findById(1L)).thenAnswer(inv -> Optional.ofNullable(storedJob.get()));
+
+        service = new BulkPasswordResetService(new NamedParameterJdbcTemplate(database),
+                new DataSourceTransactionManager(database), scheduler, jobRepository, mock(UserCacheEvictor.class),
+                new ShardRouter(1));
+        ReflectionTestUtils.setField(service, "baseUrl", "http://localhost:8080");
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        ReflectionTestUtils.setField(service, "maxChunksInFlight", 2);
+        ReflectionTestUtils.setField(service, "tokenValidity", Duration.ofHours(72));
+        ReflectionTestUtils.setField(service, "spoolDir", spoolDir);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        database.shutdown();
+    }
+
+    @Test
+    void csvJob_issuesTokensForKnownAccountsAndQueuesEmails() throws Exception {
+        BulkResetJob job = newCsvJob("""
+                email
+                USER1@mail.example
+                user2@corp.example
+                nobody@nowhere.example
+                5
+                """);
+
+        service.run(job.getId());
+
+        BulkResetJob done = storedJob.get();
+        assertThat(done.getStatus()).isEqualTo(BulkResetJob.Status.COMPLETED);
+        assertThat(done.getProcessed()).isEqualTo(4);
+        assertThat(done.getTokensIssued()).isEqualTo(3);
+        assertThat(done.getNotFound()).isEqualTo(1);
+        assertThat(done.getEmailsQueued()).isEqualTo(3);
+        assertThat(done.getCheckpoint()).isEqualTo(5);
+
+        assertThat(sent).extracting(OutboundResetEmail::toEmail)
+                .containsExactlyInAnyOrder("user1@mail.example", "user2@corp.example", "user5@mail.example");
+        for (OutboundResetEmail email : sent) {
+            String token = email.resetLink().substring(email.resetLink().indexOf("token=") + 6);
+            assertThat(jdbc.queryForObject("SELECT email FROM users WHERE reset_token = ?", String.class, token))
+                    .isEqualTo(email.toEmail());
+        }
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM users WHERE reset_token IS NOT NULL", Integer.class))
+                .isEqualTo(3);
+    }
+
+    @Test
+    void csvJob_resumesAfterCheckpoint() throws Exception {
+        BulkResetJob job = newCsvJob("""
+                email
+                user1@mail.example
+                user2@corp.example
+                user3@mail.example
+                user4@corp.example
+                """);
+        // a previous run finished the first chunk (header + two rows) before crashing
+        job.setStatus(BulkResetJob.Status.RUNNING);
+        job.setCheckpoint(3);
+        job.setProcessed(2);
+
+        service.run(job.getId());
+
+        assertThat(sent).extracting(OutboundResetEmail::toEmail)
+                .containsExactly("user3@mail.example", "user4@corp.example");
+        assertThat(storedJob.get().getProcessed()).isEqualTo(4);
+        assertThat(storedJob.get().getStatus()).isEqualTo(BulkResetJob.Status.COMPLETED);
+    }
+
+    @Test
+    void filterJob_walksMatchingAccountsById() {
+        BulkResetJob job = new BulkResetJob();
+        job.setId(1L);
+        job.setSource(BulkResetJob.Source.FILTER);
+        job.setFilterDomain("corp.example");
+        job.setFilterIdFrom(3L);
+        storedJob.set(job);
+
+        service.run(job.getId());
+
+        assertThat(sent).extracting(OutboundResetEmail::toEmail)
+                .containsExactly("user4@corp.example", "user6@corp.example");
+        assertThat(storedJob.get().getCheckpoint()).isEqualTo(6);
+        assertThat(storedJob.get().getStatus()).isEqualTo(BulkResetJob.Status.COMPLETED);
+    }
+
+    @Test
+    void filterJob_matchesTheDomainLiterally() {
+        BulkResetJob job = new BulkResetJob();
+        job.setId(1L);
+        job.setSource(BulkResetJob.Source.FILTER);
+        job.setFilterDomain("corp_example");
+        storedJob.set(job);
+
+        service.run(job.getId());
+
+        assertThat(sent).isEmpty();
+        assertThat(storedJob.get().getStatus()).isEqualTo(BulkResetJob.Status.COMPLETED);
+    }
+
+    private BulkResetJob newCsvJob(String csv) throws Exception {
+        Path file = spoolDir.resolve("input.csv");
+        Files.writeString(file, csv, StandardCharsets.UTF_8);
+        BulkResetJob job = new BulkResetJob();
+        job.setSource(BulkResetJob.Source.CSV);
+        job.setInputFile(file.toString());
+        job.setId(1L);
+        storedJob.set(job);
+        return job;
+    }
+}
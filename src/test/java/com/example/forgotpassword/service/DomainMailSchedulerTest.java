@@ -0,0 +1,115 @@
+package com.example.forgotpassword.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class DomainMailSchedulerTest {
+
+    private final EmailService emailService = mock(EmailService.class);
+    private DomainMailScheduler scheduler;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void domainsShareDispatchTurnsByWeight() throws Exception {
+        MailSchedulerProperties properties = new MailSchedulerProperties();
+        properties.setWorkerThreads(1);
+        properties.getDomains().put("big.com", limits(1, 0, 3));
+        properties.getDomains().put("small.com", limits(1, 0, 1));
+
+        List<String> sendOrder = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(inv -> sendOrder.add(inv.getArgument(0, String.class).split("@")[1]))
+                .when(emailService).sendPasswordResetEmail(anyString(), anyString(), anyString());
+
+        scheduler = new DomainMailScheduler(emailService, properties, new SimpleMeterRegistry());
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            results.add(scheduler.submit(email("user" + i + "@big.com")));
+            results.add(scheduler.submit(email("user" + i + "@small.com")));
+        }
+        assertThat(scheduler.queueDepths()).containsEntry("big.com", 12).containsEntry("small.com", 12);
+
+        scheduler.start();
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        // while both domains are backlogged, big.com gets three turns for every one of small.com
+        List<String> firstSixteen = sendOrder.subList(0, 16);
+        assertThat(Collections.frequency(firstSixteen, "big.com")).isEqualTo(12);
+        assertThat(Collections.frequency(firstSixteen, "small.com")).isEqualTo(4);
+        assertThat(scheduler.queueDepths().values()).allMatch(depth -> depth == 0);
+    }
+
+    @Test
+    void perDomainConcurrencyLimitDoesNotHoldBackOtherDomains() throws Exception {
+        MailSchedulerProperties properties = new MailSchedulerProperties();
+        properties.setWorkerThreads(8);
+        properties.getDomains().put("slow.com", limits(2, 0, 1));
+        properties.setDefaults(limits(2, 0, 1));
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch slowStarted = new CountDownLatch(2);
+        Map<String, AtomicInteger> concurrent = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> maxConcurrent = new ConcurrentHashMap<>();
+        doAnswer(inv -> {
+            String domain = inv.getArgument(0, String.class).split("@")[1];
+            int now = concurrent.computeIfAbsent(domain, d -> new AtomicInteger()).incrementAndGet();
+            maxConcurrent.computeIfAbsent(domain, d -> new AtomicInteger()).accumulateAndGet(now, Math::max);
+            if (domain.equals("slow.com")) {
+                slowStarted.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            concurrent.get(domain).decrementAndGet();
+            return null;
+        }).when(emailService).sendPasswordResetEmail(anyString(), anyString(), anyString());
+
+        scheduler = new DomainMailScheduler(emailService, properties, new SimpleMeterRegistry());
+        scheduler.start();
+
+        List<CompletableFuture<Void>> slow = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            slow.add(scheduler.submit(email("user" + i + "@slow.com")));
+        }
+        CompletableFuture<Void> other = scheduler.submit(email("someone@tiny.org"));
+
+        // tiny.org is delivered while slow.com is stuck at its limit of two
+        other.get(5, TimeUnit.SECONDS);
+        assertThat(scheduler.queueDepths()).containsEntry("slow.com", 4);
+        // both taken slow.com emails are in the send, not just dequeued
+        assertThat(slowStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        release.countDown();
+        CompletableFuture.allOf(slow.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        assertThat(maxConcurrent.get("slow.com").get()).isEqualTo(2);
+    }
+
+    private static MailSchedulerProperties.DomainLimits limits(int concurrency, double ratePerSecond, int weight) {
+        MailSchedulerProperties.DomainLimits limits = new MailSchedulerProperties.DomainLimits();
+        limits.setConcurrency(concurrency);
+        limits.setRatePerSecond(ratePerSecond);
+        limits.setWeight(weight);
+        return limits;
+    }
+
+    private static OutboundResetEmail email(String to) {
+        return new OutboundResetEmail(to, "http://localhost/reset-password?token=t", "user");
+    }
+}
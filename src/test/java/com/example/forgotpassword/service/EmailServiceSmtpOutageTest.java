@@ -0,0 +1,97 @@
+package com.example.forgotpassword.service;
+
+import com.example.forgotpassword.bounce.SuppressionList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs {@link EmailService} against a local SMTP stand-in that stops answering, to show that
+ * send latency stays bounded by the socket timeouts during an outage and drops to near zero
+ * once the circuit breaker opens.
+ */
+class EmailServiceSmtpOutageTest {
+
+    private static final Duration SMTP_TIMEOUT = Duration.ofMillis(300);
+
+    private FaultInjectingSmtpServer smtpServer;
+    private MailCircuitBreaker circuitBreaker;
+    private EmailService emailService;
+
+    @BeforeEach
+    void setup() throws Exception {
+        smtpServer = new FaultInjectingSmtpServer(FaultInjectingSmtpServer.Mode.HANG);
+
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(smtpServer.getPort());
+        Properties props = new Properties();
+        props.put("mail.smtp.connectiontimeout", String.valueOf(SMTP_TIMEOUT.toMillis()));
+        props.put("mail.smtp.timeout", String.valueOf(SMTP_TIMEOUT.toMillis()));
+        props.put("mail.smtp.writetimeout", String.valueOf(SMTP_TIMEOUT.toMillis()));
+        mailSender.setJavaMailProperties(props);
+
+        TemplateEngine templateEngine = mock(TemplateEngine.class);
+        when(templateEngine.process(eq("email/password-reset-email"), any(Context.class)))
+                .thenReturn("<html>reset email</html>");
+
+        circuitBreaker = new MailCircuitBreaker(3, Duration.ofMillis(500), new SimpleMeterRegistry());
+        MailRetryPolicy retryPolicy =
+                new MailRetryPolicy(2, Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofSeconds(2));
+
+        emailService = new EmailService(mailSender, templateEngine, circuitBreaker, retryPolicy,
+                mock(SuppressionList.class));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        smtpServer.close();
+    }
+
+    @Test
+    void relayOutage_latencyStaysBoundedAndBreakerFailsFast() throws Exception {
+        List<Long> latenciesMillis = new ArrayList<>();
+
+        for (int i = 0; i < 20; i++) {
+            long start = System.nanoTime();
+            assertThatThrownBy(this::send).isInstanceOf(Exception.class);
+            latenciesMillis.add(Duration.ofNanos(System.nanoTime() - start).toMillis());
+        }
+
+        // worst case is two timed-out attempts plus one backoff, never the JavaMail default of "forever"
+        long worst = latenciesMillis.stream().mapToLong(Long::longValue).max().orElseThrow();
+        assertThat(worst).isLessThan(2 * SMTP_TIMEOUT.toMillis() + 500);
+
+        // after three consecutive failures the breaker is open and callers are rejected immediately
+        assertThat(circuitBreaker.getState()).isEqualTo(MailCircuitBreaker.State.OPEN);
+        assertThat(latenciesMillis.subList(2, latenciesMillis.size())).allMatch(ms -> ms < 50);
+
+        // relay recovers: the half-open probe succeeds and closes the breaker
+        smtpServer.setMode(FaultInjectingSmtpServer.Mode.HEALTHY);
+        Thread.sleep(600);
+        send();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(MailCircuitBreaker.State.CLOSED);
+        assertThat(smtpServer.getAcceptedMessages()).isEqualTo(1);
+    }
+
+    private void send() throws Exception {
+        emailService.sendPasswordResetEmail("user@example.com", "http://localhost/reset?token=abc", "john");
+    }
+}
@@ -1,19 +1,28 @@
 package com.example.forgotpassword.service;
 
-import jakarta.mail.MessagingException;
+import com.example.forgotpassword.bounce.SuppressionList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.InternetAddress;
 import jakarta.mail.internet.MimeMessage;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
+import java.time.Duration;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -25,6 +34,17 @@ class EmailServiceTest {
     @Mock
     private TemplateEngine templateEngine;
 
+    @Spy
+    private MailCircuitBreaker circuitBreaker =
+            new MailCircuitBreaker(2, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @Spy
+    private MailRetryPolicy retryPolicy =
+            new MailRetryPolicy(3, Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofSeconds(5));
+
+    @Mock
+    private SuppressionList suppressionList;
+
     @InjectMocks
     private EmailService emailService;
 
@@ -67,4 +87,82 @@ class EmailServiceTest {
         // Verify email was sent
         verify(mailSender).send(mimeMessage);
     }
+
+    @Test
+    void sendPasswordResetEmail_transientFailure_isRetried() throws Exception {
+        when(templateEngine.process(eq("email/password-reset-email"), any(Context.class)))
+                .thenReturn("<html>reset email</html>");
+        doThrow(new MailSendException("421 try again later"))
+                .doNothing()
+                .when(mailSender).send(mimeMessage);
+
+        emailService.sendPasswordResetEmail("user@example.com", "http://localhost/reset?token=abc", "john");
+
+        verify(mailSender, times(2)).send(mimeMessage);
+        assertThat(circuitBreaker.getState()).isEqualTo(MailCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void sendPasswordResetEmail_authenticationFailure_isNotRetried() {
+        when(templateEngine.process(eq("email/password-reset-email"), any(Context.class)))
+                .thenReturn("<html>reset email</html>");
+        doThrow(new MailAuthenticationException("535 bad credentials"))
+                .when(mailSender).send(mimeMessage);
+
+        assertThatThrownBy(() ->
+                emailService.sendPasswordResetEmail("user@example.com", "http://localhost/reset?token=abc", "john"))
+                .isInstanceOf(MailAuthenticationException.class);
+
+        verify(mailSender, times(1)).send(mimeMessage);
+    }
+
+    @Test
+    void sendPasswordResetEmail_recipientRejected_isNotRetriedAndDoesNotOpenBreaker() throws Exception {
+        when(templateEngine.process(eq("email/password-reset-email"), any(Context.class)))
+                .thenReturn("<html>reset email</html>");
+        SMTPAddressFailedException rejected = new SMTPAddressFailedException(
+                new InternetAddress("gone@example.com"), "RCPT TO", 550, "550 5.1.1 no such user");
+        doThrow(new MailSendException(Map.of(mimeMessage, rejected)))
+                .when(mailSender).send(mimeMessage);
+
+        // more rejections than the breaker's failure threshold
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() ->
+                    emailService.sendPasswordResetEmail("gone@example.com", "http://localhost/reset?token=abc", "john"))
+                    .isInstanceOf(MailSendException.class);
+        }
+
+        verify(mailSender, times(3)).send(mimeMessage);
+        assertThat(circuitBreaker.getState()).isEqualTo(MailCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void sendPasswordResetEmail_circuitOpen_failsFastWithoutSending() {
+        when(templateEngine.process(eq("email/password-reset-email"), any(Context.class)))
+                .thenReturn("<html>reset email</html>");
+        doThrow(new MailSendException("connection timed out"))
+                .when(mailSender).send(mimeMessage);
+
+        // two consecutive failures open the breaker
+        assertThatThrownBy(() ->
+                emailService.sendPasswordResetEmail("user@example.com", "http://localhost/reset?token=abc", "john"))
+                .isInstanceOf(MailDeliveryUnavailableException.class);
+        assertThat(circuitBreaker.getState()).isEqualTo(MailCircuitBreaker.State.OPEN);
+        clearInvocations(mailSender);
+
+        assertThatThrownBy(() ->
+                emailService.sendPasswordResetEmail("user@example.com", "http://localhost/reset?token=abc", "john"))
+                .isInstanceOf(MailDeliveryUnavailableException.class);
+
+        verify(mailSender, never()).send(any(MimeMessage.class));
+    }
+
+    @Test
+    void sendPasswordResetEmail_suppressedAddress_isSkipped() throws Exception {
+        when(suppressionList.isSuppressed("gone@example.com")).thenReturn(true);
+
+        emailService.sendPasswordResetEmail("gone@example.com", "http://localhost/reset?token=abc", "john");
+
+        verifyNoInteractions(mailSender, templateEngine);
+    }
 }
@@ -0,0 +1,132 @@
+package com.example.forgotpassword.service;
+
+import com.example.forgotpassword.entity.User;
+import com.example.forgotpassword.repository.PasswordHistoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PasswordHistoryServiceTest {
+
+    private final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+    private final AtomicInteger comparisons = new AtomicInteger();
+    private final PasswordHistoryRepository repository = mock(PasswordHistoryRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHistoryService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void currentAndRecentPasswordsAreRejected() {
+        service = service(5, 4, Duration.ofSeconds(5), bcrypt);
+        User user = user("Current1!");
+        when(repository.findRecentPasswords(eq(7L), any()))
+                .thenReturn(List.of(bcrypt.encode("Older1!"), bcrypt.encode("Oldest1!")));
+
+        assertThat(service.awaitReuseCheck(service.startReuseCheck(user, "Current1!"))).isTrue();
+        assertThat(service.awaitReuseCheck(service.startReuseCheck(user, "Oldest1!"))).isTrue();
+        assertThat(service.awaitReuseCheck(service.startReuseCheck(user, "Brand-new1!"))).isFalse();
+        assertThat(meterRegistry.get("password.history.wait").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void comparisonsStopAtTheFirstMatch() {
+        service = service(5, 1, Duration.ofSeconds(5), counting(bcrypt));
+        User user = user("Current1!");
+        when(repository.findRecentPasswords(eq(7L), any()))
+                .thenReturn(List.of(bcrypt.encode("a"), bcrypt.encode("b"), bcrypt.encode("c"), bcrypt.encode("d")));
+
+        assertThat(service.awaitReuseCheck(service.startReuseCheck(user, "Current1!"))).isTrue();
+        // one hashing thread: the match on the current password leaves the history unread
+        assertThat(comparisons.get()).isEqualTo(1);
+    }
+
+    @Test
+    void slowCheckIsFinishedOnTheRequestThreadAfterMaxWait() {
+        User user = user("Current1!");
+        String oldest = bcrypt.encode("Oldest1!");
+        Set<String> comparedOn = ConcurrentHashMap.newKeySet();
+        PasswordEncoder slow = counting(new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                comparedOn.add(Thread.currentThread().getName());
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return encodedPassword.equals(oldest);
+            }
+        });
+        service = service(3, 1, Duration.ofMillis(50), slow);
+        when(repository.findRecentPasswords(eq(7L), any())).thenReturn(List.of(bcrypt.encode("Older1!"), oldest));
+
+        // the single pool thread is busy with the current password when max-wait runs out
+        assertThat(service.awaitReuseCheck(service.startReuseCheck(user, "Oldest1!"))).isTrue();
+        assertThat(comparedOn).contains(Thread.currentThread().getName());
+        assertThat(comparisons.get()).isEqualTo(3);
+        assertThat(meterRegistry.get("password.history.timeouts").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void rememberKeepsSizeMinusOneEntries() {
+        service = service(5, 1, Duration.ofSeconds(5), bcrypt);
+        when(repository.findIdsNewestFirst(7L)).thenReturn(List.of(19L, 18L, 17L, 16L, 15L, 14L));
+
+        service.remember(user("Current1!"), "old-hash");
+
+        verify(repository).save(any());
+        verify(repository).deleteAllByIdInBatch(List.of(15L, 14L));
+    }
+
+    private PasswordHistoryService service(int size, int threads, Duration maxWait, PasswordEncoder encoder) {
+        PasswordHistoryProperties properties = new PasswordHistoryProperties();
+        properties.setSize(size);
+        properties.setThreads(threads);
+        properties.setMaxWait(maxWait);
+        return new PasswordHistoryService(repository, encoder, properties, meterRegistry);
+    }
+
+    private PasswordEncoder counting(PasswordEncoder delegate) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return delegate.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                comparisons.incrementAndGet();
+                return delegate.matches(rawPassword, encodedPassword);
+            }
+        };
+    }
+
+    private User user(String password) {
+        User user = new User();
+        user.setId(7L);
+        user.setEmail("alice@example.com");
+        user.setPassword(bcrypt.encode(password));
+        return user;
+    }
+}
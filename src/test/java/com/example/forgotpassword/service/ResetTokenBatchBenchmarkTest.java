@@ -0,0 +1,149 @@
+package com.example.forgotpassword.service;
+
+import com.example.forgotpassword.repository.UserCacheEvictor;
+import com.example.forgotpassword.shard.ShardRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Token writes from many concurrent requests, each committing its own update versus
+ * {@link ResetTokenBatcher} with a range of windows: throughput, commits per second and
+ * per-request latency. Defaults to an H2 file database; point {@code -Dbenchmark.jdbcUrl}
+ * (with {@code -Dbenchmark.jdbcUser} / {@code -Dbenchmark.jdbcPassword}) at MySQL to see the
+ * effect of real log flushes. The {@code users} table there is recreated.
+ */
+@Tag("benchmark")
+class ResetTokenBatchBenchmarkTest {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 64);
+    private static final int USERS = 10_000;
+    private static final Duration RUN_TIME = Duration.ofSeconds(Integer.getInteger("benchmark.seconds", 5));
+    private static final int POOL_SIZE = 6;
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void throughputAgainstAddedLatency() throws Exception {
+        try (HikariDataSource dataSource = dataSource()) {
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            jdbc.execute("DROP TABLE IF EXISTS users");
+            new ResourceDatabasePopulator(new ClassPathResource("db/users-schema.sql")).execute(dataSource);
+            List<Object[]> users = new ArrayList<>(USERS);
+            for (int i = 1; i <= USERS; i++) {
+                users.add(new Object[]{"user" + i + "@example.com", "user" + i});
+            }
+            jdbc.batchUpdate("INSERT INTO users (email, password, username) VALUES (?, 'x', ?)", users);
+            List<Long> ids = jdbc.queryForList("SELECT id FROM users", Long.class);
+
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            NamedParameterJdbcTemplate named = new NamedParameterJdbcTemplate(dataSource);
+            TransactionTemplate transactions = new TransactionTemplate(transactionManager);
+
+            report("one commit per request", run(ids, (id, token, expiry) -> transactions.executeWithoutResult(status ->
+                    jdbc.update("UPDATE users SET reset_token = ?, reset_token_expiry = ? WHERE id = ?", token, expiry, id)), null));
+
+            for (int windowMillis : new int[]{0, 1, 2, 5, 10}) {
+                ResetTokenBatchProperties properties = new ResetTokenBatchProperties();
+                properties.setEnabled(true);
+                properties.setWindow(Duration.ofMillis(windowMillis));
+                SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+                ResetTokenBatcher batcher = new ResetTokenBatcher(named, transactionManager, new ShardRouter(1),
+                        mock(UserCacheEvictor.class), properties, meterRegistry);
+                batcher.start();
+                try {
+                    report("batched, window " + windowMillis + "ms",
+                            run(ids, (id, token, expiry) -> batcher.issue(0, id, token, expiry),
+                                    () -> meterRegistry.counter("reset.token.batch.commits").count()));
+                } finally {
+                    batcher.shutdown();
+                }
+            }
+        }
+    }
+
+    private HikariDataSource dataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getProperty("benchmark.jdbcUrl",
+                "jdbc:h2:file:" + dataDir.resolve("tokens") + ";MODE=MySQL"));
+        dataSource.setUsername(System.getProperty("benchmark.jdbcUser", "sa"));
+        dataSource.setPassword(System.getProperty("benchmark.jdbcPassword", ""));
+        // as many connections as the reset bulkhead, plus one for the batch writer
+        dataSource.setMaximumPoolSize(POOL_SIZE + 1);
+        return dataSource;
+    }
+
+    private static Result run(List<Long> ids, TokenWrite write, DoubleSupplier commits)
+            throws Exception {
+        long end = System.nanoTime() + RUN_TIME.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<List<Long>>> results = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                int client = c;
+                results.add(clients.submit(() -> {
+                    List<Long> latencies = new ArrayList<>();
+                    for (int i = client; System.nanoTime() < end; i += CLIENTS) {
+                        long id = ids.get(i % ids.size());
+                        long start = System.nanoTime();
+                        write.write(id, "0." + id + "-" + i, LocalDateTime.now().plusHours(1));
+                        latencies.add(System.nanoTime() - start);
+                    }
+                    return latencies;
+                }));
+            }
+            List<Long> latencies = new ArrayList<>();
+            for (Future<List<Long>> result : results) {
+                latencies.addAll(result.get());
+            }
+            Collections.sort(latencies);
+            double seconds = RUN_TIME.toNanos() / 1e9;
+            double commitCount = commits == null ? latencies.size() : commits.getAsDouble();
+            return new Result(latencies.size() / seconds, commitCount / seconds,
+                    percentileMillis(latencies, 0.5), percentileMillis(latencies, 0.99));
+        } finally {
+            clients.shutdownNow();
+            clients.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static double percentileMillis(List<Long> sorted, double p) {
+        return sorted.get((int) Math.ceil(sorted.size() * p) - 1) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static void report(String mode, Result result) {
+        System.out.printf("%-24s %7.0f tokens/s %7.0f commits/s  p50 %6.2fms  p99 %6.2fms%n",
+                mode, result.tokensPerSecond(), result.commitsPerSecond(), result.p50Millis(), result.p99Millis());
+    }
+
+    @FunctionalInterface
+    private interface TokenWrite {
+        void write(long userId, String token, LocalDateTime expiry);
+    }
+
+    private record Result(double tokensPerSecond, double commitsPerSecond, double p50Millis, double p99Millis) {
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.forgotpassword.service;
+
+import com.example.forgotpassword.repository.UserCacheEvictor;
+import com.example.forgotpassword.shard.ShardRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ResetTokenBatcherTest {
+
+    private static final int USERS = 20;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbc;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserCacheEvictor userCacheEvictor = mock(UserCacheEvictor.class);
+    private ResetTokenBatcher batcher;
+
+    @BeforeEach
+    void setup() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("db/users-schema.sql")
+                .build();
+        jdbc = new JdbcTemplate(database);
+        for (int i = 1; i <= USERS; i++) {
+            jdbc.update("INSERT INTO users (email, password, username) VALUES (?, 'x', ?)",
+                    "user" + i + "@example.com", "user" + i);
+        }
+
+        ResetTokenBatchProperties properties = new ResetTokenBatchProperties();
+        properties.setEnabled(true);
+        properties.setMaxBatchSize(8);
+        properties.setWindow(Duration.ofMillis(200));
+        properties.setMaxWait(Duration.ofSeconds(1));
+        batcher = new ResetTokenBatcher(new NamedParameterJdbcTemplate(database),
+                new DataSourceTransactionManager(database), new ShardRouter(1), userCacheEvictor,
+                properties, meterRegistry);
+        batcher.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        batcher.shutdown();
+        database.shutdown();
+    }
+
+    @Test
+    void concurrentTokensShareTransactions() throws Exception {
+        List<Long> ids = jdbc.queryForList("SELECT id FROM users ORDER BY id", Long.class);
+        LocalDateTime expiry = LocalDateTime.now().plusHours(1).withNano(0);
+        ExecutorService requests = Executors.newFixedThreadPool(USERS);
+        CountDownLatch go = new CountDownLatch(1);
+        try {
+            List<Future<?>> issued = new ArrayList<>();
+            for (long id : ids) {
+                issued.add(requests.submit(() -> {
+                    go.await();
+                    batcher.issue(0, id, "0.token-" + id, expiry);
+                    // released only once the token is visible to everyone
+                    assertThat(jdbc.queryForObject("SELECT reset_token FROM users WHERE id = ?", String.class, id))
+                            .isEqualTo("0.token-" + id);
+                    return null;
+                }));
+            }
+            go.countDown();
+            for (Future<?> f : issued) {
+                f.get();
+            }
+        } finally {
+            requests.shutdownNow();
+        }
+
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM users WHERE reset_token LIKE '0.token-%' AND reset_token_expiry = ?",
+                Integer.class, expiry)).isEqualTo(USERS);
+        double commits = meterRegistry.counter("reset.token.batch.commits").count();
+        assertThat(commits).isLessThan(USERS).isGreaterThanOrEqualTo(Math.ceil(USERS / 8.0));
+        assertThat(meterRegistry.summary("reset.token.batch.size").max()).isLessThanOrEqualTo(8);
+        verify(userCacheEvictor, atLeastOnce()).evict(anyCollection());
+    }
+
+    @Test
+    void failedBatchIsReportedToTheRequest() {
+        jdbc.execute("ALTER TABLE users ALTER COLUMN reset_token VARCHAR(4)");
+
+        assertThatThrownBy(() -> batcher.issue(0, 1, "0.too-long-for-the-column", LocalDateTime.now()))
+                .isInstanceOf(DataAccessException.class);
+        assertThat(meterRegistry.counter("reset.token.batch.commits").count()).isZero();
+    }
+
+    @Test
+    void stuckWriterTimesTheRequestOut() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(userCacheEvictor).evict(anyCollection());
+        try {
+            long start = System.nanoTime();
+            assertThatThrownBy(() -> batcher.issue(0, 1, "0.stuck", LocalDateTime.now().plusHours(1)))
+                    .isInstanceOf(QueryTimeoutException.class);
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(5));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void requestsAfterShutdownFailAtOnce() throws Exception {
+        batcher.shutdown();
+
+        assertThatThrownBy(() -> batcher.issue(0, 1, "0.late", LocalDateTime.now().plusHours(1)))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        assertThat(jdbc.queryForObject("SELECT reset_token FROM users WHERE id = 1", String.class)).isNull();
+    }
+}
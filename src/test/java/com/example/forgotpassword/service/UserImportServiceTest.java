@@ -0,0 +1,182 @@
+package com.example.forgotpassword.service;
+
+import com.example.forgotpassword.dto.UserImportResult;
+import com.example.forgotpassword.repository.UserCacheEvictor;
+import com.example.forgotpassword.shard.ShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserImportServiceTest {
+
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbc;
+    private UserImportService service;
+
+    @BeforeEach
+    void setup() throws Exception {
+        // MySQL mode for INSERT ... ON DUPLICATE KEY UPDATE
+        dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "", true);
+        ScriptUtils.executeSqlScript(dataSource.getConnection(), new ClassPathResource("db/users-schema.sql"));
+        jdbc = new JdbcTemplate(dataSource);
+
+        service = new UserImportService(jdbc, passwordEncoder, new ObjectMapper(), mock(UserCacheEvictor.class),
+                new ShardRouter(1));
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        ReflectionTestUtils.setField(service, "hashThreads", 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void csvImport_hashesOrCarriesOverPasswordsAndUpsertsByEmail() throws Exception {
+        String existingHash = passwordEncoder.encode("OldSecret1!");
+        jdbc.update("INSERT INTO users (email, password, username) VALUES ('bob@example.com', 'stale', 'bob-old')");
+
+        String csv = """
+                email,username,password,password_hash,enabled
+                " Alice@Example.com ","Alice, A.",Secret1!,,true
+                bob@example.com,bob,,%s,
+                carol@example.com,,"pa""ss,word",,0
+                not-an-email,dave,Secret1!,,
+                erin@example.com,erin,,,
+                """.formatted(existingHash);
+
+        UserImportResult result = service.importUsers(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), UserImportService.Format.CSV);
+
+        assertThat(result.read()).isEqualTo(5);
+        assertThat(result.written()).isEqualTo(3);
+        assertThat(result.rejected()).isEqualTo(2);
+        assertThat(result.hashed()).isEqualTo(2);
+        assertThat(result.carriedOver()).isEqualTo(1);
+
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM users", Integer.class)).isEqualTo(3);
+        assertThat(passwordEncoder.matches("Secret1!", password("alice@example.com"))).isTrue();
+        assertThat(jdbc.queryForObject("SELECT username FROM users WHERE email = 'alice@example.com'", String.class))
+                .isEqualTo("Alice, A.");
+
+        // existing account updated in place, hash imported unchanged
+        assertThat(password("bob@example.com")).isEqualTo(existingHash);
+        assertThat(jdbc.queryForObject("SELECT username FROM users WHERE email = 'bob@example.com'", String.class))
+                .isEqualTo("bob");
+
+        assertThat(passwordEncoder.matches("pa\"ss,word", password("carol@example.com"))).isTrue();
+        assertThat(jdbc.queryForObject("SELECT username FROM users WHERE email = 'carol@example.com'", String.class))
+                .isEqualTo("carol");
+        assertThat(jdbc.queryForObject("SELECT enabled FROM users WHERE email = 'carol@example.com'", Boolean.class))
+                .isFalse();
+    }
+
+    @Test
+    void jsonLinesImport_acceptsCamelCaseFields() throws Exception {
+        String jsonl = """
+                {"email":"frank@example.com","username":"frank","password":"Secret1!"}
+                {"email":"grace@example.com","passwordHash":"not-bcrypt"}
+                {"email":"heidi@example.com","enabled":false,"password":"Secret2!"}
+                """;
+
+        UserImportResult result = service.importUsers(
+                new ByteArrayInputStream(jsonl.getBytes(StandardCharsets.UTF_8)), UserImportService.Format.JSONL);
+
+        assertThat(result.written()).isEqualTo(2);
+        assertThat(result.rejected()).isEqualTo(1);
+        assertThat(passwordEncoder.matches("Secret1!", password("frank@example.com"))).isTrue();
+        assertThat(jdbc.queryForObject("SELECT enabled FROM users WHERE email = 'heidi@example.com'", Boolean.class))
+                .isFalse();
+    }
+
+    @Test
+    void hashingFailure_isCountedAsSkipped() throws Exception {
+        PasswordEncoder failing = mock(PasswordEncoder.class);
+        when(failing.encode("Secret1!")).thenReturn(passwordEncoder.encode("Secret1!"));
+        when(failing.encode("boom")).thenThrow(new IllegalArgumentException("boom"));
+        service = new UserImportService(jdbc, failing, new ObjectMapper(), mock(UserCacheEvictor.class),
+                new ShardRouter(1));
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        ReflectionTestUtils.setField(service, "hashThreads", 1);
+
+        String csv = """
+                email,password
+                ivan@example.com,Secret1!
+                judy@example.com,boom
+                """;
+
+        UserImportResult result = service.importUsers(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), UserImportService.Format.CSV);
+
+        assertThat(result.written()).isEqualTo(1);
+        assertThat(result.skipped()).isEqualTo(1);
+        assertThat(result.hashed()).isEqualTo(1);
+    }
+
+    @Test
+    void interruptWhileWaitingForHashers_stillStopsTheWriter() throws Exception {
+        CountDownLatch hashing = new CountDownLatch(1);
+        PasswordEncoder slow = mock(PasswordEncoder.class);
+        when(slow.encode(anyString())).thenAnswer(invocation -> {
+            hashing.countDown();
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                // like BCrypt, finish the hash regardless
+                Thread.currentThread().interrupt();
+            }
+            return "$2a$04$" + "a".repeat(53);
+        });
+        service = new UserImportService(jdbc, slow, new ObjectMapper(), mock(UserCacheEvictor.class),
+                new ShardRouter(1));
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        ReflectionTestUtils.setField(service, "hashThreads", 1);
+
+        String csv = "email,password\nkim@example.com,Secret1!\n";
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread importer = new Thread(() -> {
+            try {
+                service.importUsers(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                        UserImportService.Format.CSV);
+            } catch (Throwable e) {
+                thrown.set(e);
+            }
+        });
+        importer.start();
+        assertThat(hashing.await(10, TimeUnit.SECONDS)).isTrue();
+        importer.interrupt();
+        importer.join(10_000);
+
+        assertThat(importer.isAlive()).isFalse();
+        assertThat(thrown.get()).isInstanceOf(InterruptedException.class).hasMessageContaining("1 rows skipped");
+        assertThat(Thread.getAllStackTraces().keySet())
+                .noneMatch(thread -> thread.getName().equals("user-import-writer"));
+    }
+
+    private String password(String email) {
+        return jdbc.queryForObject("SELECT password FROM users WHERE email = ?", String.class, email);
+    }
+}
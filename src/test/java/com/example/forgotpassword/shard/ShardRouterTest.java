@@ -0,0 +1,58 @@
+package com.example.forgotpassword.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardRouterTest {
+
+    @Test
+    void emailsSpreadEvenlyAndIgnoreCaseAndWhitespace() {
+        ShardRouter router = new ShardRouter(4);
+        int[] counts = new int[4];
+        for (int i = 0; i < 20_000; i++) {
+            counts[router.shardFor("user" + i + "@example.com")]++;
+        }
+
+        for (int count : counts) {
+            assertThat(count).isBetween(4_500, 5_500);
+        }
+        assertThat(router.shardFor(" Alice@Example.COM ")).isEqualTo(router.shardFor("alice@example.com"));
+    }
+
+    @Test
+    void addingAShardOnlyMovesUsersOntoTheNewShard() {
+        ShardRouter four = new ShardRouter(4);
+        ShardRouter five = new ShardRouter(5);
+        int moved = 0;
+        for (int i = 0; i < 20_000; i++) {
+            String email = "user" + i + "@example.com";
+            int before = four.shardFor(email);
+            int after = five.shardFor(email);
+            if (before != after) {
+                assertThat(after).isEqualTo(4);
+                moved++;
+            }
+        }
+
+        // about 1/5 of the users, where modulo hashing would move 4/5
+        assertThat(moved).isBetween(3_500, 4_500);
+    }
+
+    @Test
+    void resetTokensCarryTheirShard() {
+        ShardRouter router = new ShardRouter(4);
+
+        assertThat(router.shardOfToken(router.newResetToken(3))).hasValue(3);
+        // issued before sharding
+        assertThat(router.shardOfToken(UUID.randomUUID().toString())).hasValue(0);
+
+        assertThat(router.shardOfToken("7." + UUID.randomUUID())).isEmpty();
+        assertThat(router.shardOfToken("x1." + UUID.randomUUID())).isEmpty();
+        assertThat(router.shardOfToken(".abc")).isEmpty();
+        assertThat(router.shardOfToken("")).isEmpty();
+        assertThat(router.shardOfToken(null)).isEmpty();
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.forgotpassword.shard;
+
+import com.example.forgotpassword.repository.UserCacheEvictor;
+import com.example.forgotpassword.service.UserImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Three embedded databases behind the shard-routing data source, migrated by Flyway the way
+ * the application does it.
+ */
+class ShardedUsersTest {
+
+    private static final int USERS = 300;
+
+    private final List<SingleConnectionDataSource> databases = new ArrayList<>();
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setup() {
+        for (int shard = 0; shard < 3; shard++) {
+            // MySQL mode for INSERT ... ON DUPLICATE KEY UPDATE
+            SingleConnectionDataSource database = new SingleConnectionDataSource(
+                    "jdbc:h2:mem:shard" + shard + "-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "", true);
+            Flyway.configure()
+                    .dataSource(database)
+                    .placeholders(Map.of("shard", String.valueOf(shard)))
+                    .load()
+                    .migrate();
+            databases.add(database);
+        }
+        jdbc = new JdbcTemplate(new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(List.copyOf(databases))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        databases.forEach(SingleConnectionDataSource::destroy);
+    }
+
+    @Test
+    void eachShardHandsOutIdsFromItsOwnRange() {
+        ShardRouter router = new ShardRouter(3);
+        importUsers(router, 30);
+
+        for (int shard = 0; shard < 3; shard++) {
+            long lowest = shard * 1_000_000_000_000L;
+            long highest = lowest + 1_000_000_000_000L;
+            List<Long> ids = router.onShard(shard, () -> jdbc.queryForList("SELECT id FROM users", Long.class));
+            assertThat(ids).isNotEmpty().allSatisfy(id -> assertThat(id).isGreaterThan(lowest).isLessThan(highest));
+        }
+    }
+
+    @Test
+    void importWritesEveryUserToTheShardItsEmailHashesTo() {
+        ShardRouter router = new ShardRouter(3);
+        importUsers(router, USERS);
+
+        assertEveryUserOnItsShard(router);
+        ShardedUserQueries queries = new ShardedUserQueries(jdbc, router);
+        assertThat(queries.stats()).extracting(ShardStats::users).allSatisfy(count -> assertThat(count).isPositive());
+        assertThat(queries.stats().stream().mapToLong(ShardStats::users).sum()).isEqualTo(USERS);
+    }
+
+    @Test
+    void reshardMovesUsersOntoTheNewShardOnly() {
+        importUsers(new ShardRouter(2), USERS);
+        ShardRouter grown = new ShardRouter(3);
+        for (int shard = 0; shard < 2; shard++) {
+            grown.onShard(shard, () -> jdbc.update("""
+                    INSERT INTO password_history (user_id, password, created_at)
+                    SELECT id, CONCAT('old-', email), CURRENT_TIMESTAMP FROM users
+                    """));
+        }
+        assertThat(grown.onShard(2, () -> jdbc.queryForObject("SELECT COUNT(*) FROM users", Long.class))).isZero();
+
+        ReshardResult result = new ReshardService(jdbc, grown, mock(UserCacheEvictor.class)).reshard(25);
+
+        assertThat(result.scanned()).isEqualTo(USERS);
+        assertThat(result.moved()).isBetween(60L, 140L);
+        assertThat(grown.onShard(2, () -> jdbc.queryForObject("SELECT COUNT(*) FROM users", Long.class)))
+                .isEqualTo(result.moved());
+        assertEveryUserOnItsShard(grown);
+        // password history moved with its users
+        for (int shard = 0; shard < 3; shard++) {
+            assertThat(grown.onShard(shard, () -> jdbc.queryForObject(
+                    "SELECT COUNT(*) FROM password_history h JOIN users u ON u.id = h.user_id"
+                            + " WHERE h.password = CONCAT('old-', u.email)", Long.class)))
+                    .isEqualTo(grown.onShard(shard, () -> jdbc.queryForObject("SELECT COUNT(*) FROM users", Long.class)));
+        }
+
+        // a second run finds nothing to do
+        assertThat(new ReshardService(jdbc, grown, mock(UserCacheEvictor.class)).reshard(25).moved()).isZero();
+    }
+
+    @Test
+    void crossShardListingPagesThroughAllUsersInIdOrder() {
+        ShardRouter router = new ShardRouter(3);
+        importUsers(router, USERS);
+        ShardedUserQueries queries = new ShardedUserQueries(jdbc, router);
+
+        List<ShardedUser> all = new ArrayList<>();
+        long afterId = 0;
+        List<ShardedUser> page;
+        while (!(page = queries.findUsers(null, afterId, 40)).isEmpty()) {
+            all.addAll(page);
+            afterId = page.get(page.size() - 1).id();
+        }
+
+        assertThat(all).hasSize(USERS);
+        assertThat(all).extracting(ShardedUser::id).isSorted();
+        assertThat(all).allSatisfy(user -> assertThat(user.shard()).isEqualTo(router.shardFor(user.email())));
+        assertThat(queries.findUsers("odd.example", 0, 1_000)).hasSize(USERS / 2)
+                .allSatisfy(user -> assertThat(user.email()).endsWith("@odd.example"));
+        assertThat(queries.findUsers("odd_example", 0, 1_000)).isEmpty();
+    }
+
+    @Test
+    void resetListingMergesShardsInExpiryOrderAndSeeksPastTheLastRow() {
+        ShardRouter router = new ShardRouter(3);
+        importUsers(router, USERS);
+        // two of every three users hold a token; expiries repeat, so ties are broken by id
+        LocalDateTime base = LocalDateTime.now().withNano(0);
+        for (int shard = 0; shard < 3; shard++) {
+            router.onShard(shard, () -> {
+                for (long id : jdbc.queryForList("SELECT id FROM users WHERE MOD(id, 3) <> 0", Long.class)) {
+                    jdbc.update("UPDATE users SET reset_token = 'token', reset_token_expiry = ? WHERE id = ?",
+                            base.plusHours(id % 20 - 10), id);
+                }
+            });
+        }
+        ShardedUserQueries queries = new ShardedUserQueries(jdbc, router);
+
+        List<OutstandingReset> all = new ArrayList<>();
+        ResetFilter.Cursor after = null;
+        long fed;
+        do {
+            List<OutstandingReset> page = new ArrayList<>();
+            fed = queries.streamResets(new ResetFilter(ResetFilter.Status.ALL, null, null, null, after), 37, page::add);
+            all.addAll(page);
+            if (!page.isEmpty()) {
+                OutstandingReset last = page.get(page.size() - 1);
+                after = new ResetFilter.Cursor(last.resetTokenExpiry(), last.id());
+            }
+        } while (fed == 37);
+
+        long holders = router.onEachShard(shard -> jdbc.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE reset_token IS NOT NULL", Long.class)).stream()
+                .mapToLong(Long::longValue).sum();
+        assertThat(all).hasSize((int) holders);
+        assertThat(all).extracting(OutstandingReset::id).doesNotHaveDuplicates();
+        assertThat(all).isSortedAccordingTo(Comparator.comparing(OutstandingReset::resetTokenExpiry)
+                .thenComparingLong(OutstandingReset::id));
+        assertThat(all).extracting(OutstandingReset::shard).contains(0, 1, 2);
+
+        List<OutstandingReset> expired = new ArrayList<>();
+        queries.streamResets(new ResetFilter(ResetFilter.Status.EXPIRED, null, null, "even.example", null),
+                1_000, expired::add);
+        assertThat(expired).isNotEmpty().allSatisfy(row -> {
+            assertThat(row.expired()).isTrue();
+            assertThat(row.email()).endsWith("@even.example");
+        });
+        assertThat(expired).hasSize((int) all.stream()
+                .filter(row -> row.expired() && row.email().endsWith("@even.example")).count());
+        assertThat(queries.streamResets(new ResetFilter(ResetFilter.Status.ALL, null, null, "even%", null),
+                1_000, row -> { })).isZero();
+
+        List<OutstandingReset> window = new ArrayList<>();
+        queries.streamResets(new ResetFilter(ResetFilter.Status.PENDING, base.minusHours(3), base.plusHours(3), null, null),
+                1_000, window::add);
+        assertThat(window).isNotEmpty().allSatisfy(row -> assertThat(row.resetTokenExpiry())
+                .isAfter(base.minusHours(3)).isBefore(base.plusHours(3)));
+    }
+
+    private void importUsers(ShardRouter router, int count) {
+        String hash = new BCryptPasswordEncoder(4).encode("Secret1!");
+        StringBuilder csv = new StringBuilder("email,password_hash\n");
+        for (int i = 0; i < count; i++) {
+            csv.append("user").append(i).append(i % 2 == 0 ? "@even.example," : "@odd.example,").append(hash).append('\n');
+        }
+        UserImportService importer = new UserImportService(jdbc, new BCryptPasswordEncoder(4), new ObjectMapper(),
+                mock(UserCacheEvictor.class), router);
+        ReflectionTestUtils.setField(importer, "batchSize", 50);
+        ReflectionTestUtils.setField(importer, "hashThreads", 1);
+        try {
+            importer.importUsers(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+                    UserImportService.Format.CSV);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void assertEveryUserOnItsShard(ShardRouter router) {
+        Set<String> seen = new HashSet<>();
+        for (int shard = 0; shard < router.shardCount(); shard++) {
+            int s = shard;
+            List<String> emails = router.onShard(shard, () -> jdbc.queryForList("SELECT email FROM users", String.class));
+            assertThat(emails).allSatisfy(email -> assertThat(router.shardFor(email)).isEqualTo(s));
+            seen.addAll(emails);
+        }
+        assertThat(seen).hasSize(USERS);
+    }
+}
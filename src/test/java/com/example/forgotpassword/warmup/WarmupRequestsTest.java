@@ -0,0 +1,28 @@
+package com.example.forgotpassword.warmup;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WarmupRequestsTest {
+
+    @Test
+    void onlyLoopbackRequestsWithTheSecretAreWarmup() {
+        assertThat(WarmupRequests.isWarmup(request("127.0.0.1", WarmupRequests.SECRET))).isTrue();
+        assertThat(WarmupRequests.isWarmup(request("0:0:0:0:0:0:0:1", WarmupRequests.SECRET))).isTrue();
+
+        assertThat(WarmupRequests.isWarmup(request("127.0.0.1", null))).isFalse();
+        assertThat(WarmupRequests.isWarmup(request("127.0.0.1", "guessed"))).isFalse();
+        assertThat(WarmupRequests.isWarmup(request("203.0.113.7", WarmupRequests.SECRET))).isFalse();
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String secret) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/forgot-password");
+        request.setRemoteAddr(remoteAddr);
+        if (secret != null) {
+            request.addHeader(WarmupRequests.HEADER, secret);
+        }
+        return request;
+    }
+}
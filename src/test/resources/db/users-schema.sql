@@ -0,0 +1,10 @@
+CREATE TABLE users (
+    id                 BIGINT AUTO_INCREMENT PRIMARY KEY,
+    email              VARCHAR(255) NOT NULL UNIQUE,
+    password           VARCHAR(255) NOT NULL,
+    username           VARCHAR(255) NOT NULL,
+    reset_token        VARCHAR(255),
+    reset_token_expiry TIMESTAMP,
+    enabled            BOOLEAN      NOT NULL DEFAULT TRUE,
+    role               VARCHAR(32)
+);